@@ -0,0 +1,354 @@
+package net.samagames.generator;
+
+import com.squareup.javapoet.*;
+
+import javax.lang.model.element.Modifier;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Generates the concrete data class of a bean: primitive fields, a
+ * static field index table, switch based access by name and binary
+ * (de)serialization, so loading a bean needs no reflection.
+ */
+public class DataClassGenerator {
+    private static final ClassName packetWriter = ClassName.get("net.samagames.api.pubsub", "PacketWriter");
+    private static final ClassName packetReader = ClassName.get("net.samagames.api.pubsub", "PacketReader");
+
+    private static final Map<Class<?>, Class<?>> boxes = new HashMap<>();
+
+    static {
+        boxes.put(int.class, Integer.class);
+        boxes.put(long.class, Long.class);
+        boxes.put(short.class, Short.class);
+        boxes.put(byte.class, Byte.class);
+        boxes.put(double.class, Double.class);
+        boxes.put(float.class, Float.class);
+        boxes.put(boolean.class, Boolean.class);
+    }
+
+    /**
+     * Get the name of the data class of a bean
+     *
+     * @param type Bean
+     * @return Name, like {@code QuakeStatisticsData}
+     */
+    @SuppressWarnings("rawtypes")
+    public static String getDataClassName(Class type) {
+        return type.getSimpleName().replaceAll("Bean", "") + "Data";
+    }
+
+    /**
+     * Create the data class of a bean
+     *
+     * @param type Bean
+     * @return Class, {@code null} if a field has an unsupported type
+     */
+    @SuppressWarnings("rawtypes")
+    public static TypeSpec createDataClassOfType(Class type) {
+        List<Field> fields = getFields(type);
+
+        for (Field field : fields) {
+            if (!isSupported(field.getType())) {
+                System.out.println("Skipped the data class of " + type.getSimpleName() + ", unsupported type of " + field.getName() + ": " + field.getType().getName());
+                return null;
+            }
+        }
+
+        String name = getDataClassName(type);
+        ClassName self = ClassName.get("", name);
+
+        TypeSpec.Builder object = TypeSpec.classBuilder(name)
+                .addModifiers(Modifier.PUBLIC);
+        object.addJavadoc(Generator.header);
+
+        object.addField(FieldSpec.builder(int.class, "SCHEMA", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$L", getSchemaHash(fields))
+                .build());
+
+        CodeBlock.Builder fieldNames = CodeBlock.builder().add("{");
+
+        for (int i = 0; i < fields.size(); i++)
+            fieldNames.add(i == 0 ? "$S" : ", $S", fields.get(i).getName());
+
+        object.addField(FieldSpec.builder(String[].class, "FIELDS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(fieldNames.add("}").build())
+                .build());
+
+        for (Field field : fields)
+            object.addField(field.getType(), field.getName(), Modifier.PRIVATE);
+
+        for (Field field : fields) {
+            String property = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+
+            object.addMethod(MethodSpec.methodBuilder((field.getType() == boolean.class ? "is" : "get") + property)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(field.getType())
+                    .addStatement("return this.$L", field.getName())
+                    .build());
+
+            object.addMethod(MethodSpec.methodBuilder("set" + property)
+                    .addModifiers(Modifier.PUBLIC)
+                    .addParameter(field.getType(), field.getName())
+                    .addStatement("this.$L = $L", field.getName(), field.getName())
+                    .build());
+        }
+
+        object.addMethod(MethodSpec.methodBuilder("getFields")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(String[].class)
+                .addStatement("return FIELDS.clone()")
+                .build());
+
+        MethodSpec.Builder indexOf = MethodSpec.methodBuilder("indexOf")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(String.class, "field")
+                .returns(int.class)
+                .beginControlFlow("switch (field)");
+
+        MethodSpec.Builder getByIndex = MethodSpec.methodBuilder("get")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(int.class, "index")
+                .returns(Object.class)
+                .beginControlFlow("switch (index)");
+
+        CodeBlock.Builder setCases = CodeBlock.builder()
+                .beginControlFlow("switch (index)");
+
+        CodeBlock.Builder parseCases = CodeBlock.builder()
+                .beginControlFlow("switch (indexOf(field))");
+
+        MethodSpec.Builder write = MethodSpec.methodBuilder("write")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(packetWriter, "writer")
+                .addStatement("writer.writeVarInt(SCHEMA)");
+
+        MethodSpec.Builder read = MethodSpec.methodBuilder("read")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(packetReader, "reader")
+                .returns(self)
+                .beginControlFlow("if (reader.readVarInt() != SCHEMA)")
+                .addStatement("throw new $T($S)", IllegalStateException.class, name + " was written with another schema")
+                .endControlFlow()
+                .addStatement("$T data = new $T()", self, self);
+
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            Class<?> fieldType = field.getType();
+
+            indexOf.addStatement("case $S: return $L", field.getName(), i);
+            getByIndex.addStatement("case $L: return this.$L", i, field.getName());
+            setCases.add("case $L:\n", i).indent()
+                    .addStatement("this.$L = $L", field.getName(), castExpression(fieldType, "value"))
+                    .addStatement("break").unindent();
+            parseCases.add("case $L:\n", i).indent()
+                    .addStatement("this.$L = $L", field.getName(), parseExpression(fieldType, "value"))
+                    .addStatement("break").unindent();
+
+            write.addCode(writeStatements(fieldType, "this." + field.getName()));
+            read.addCode(readStatements(fieldType, "data." + field.getName()));
+        }
+
+        object.addMethod(indexOf
+                .addStatement("default: return -1")
+                .endControlFlow()
+                .build());
+
+        object.addMethod(getByIndex
+                .addStatement("default: throw new $T($S + index)", IllegalArgumentException.class, "Unknown field ")
+                .endControlFlow()
+                .build());
+
+        object.addMethod(MethodSpec.methodBuilder("get")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(String.class, "field")
+                .returns(Object.class)
+                .addStatement("return this.get(indexOf(field))")
+                .build());
+
+        object.addMethod(MethodSpec.methodBuilder("set")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(int.class, "index")
+                .addParameter(Object.class, "value")
+                .addCode(setCases
+                        .addStatement("default: throw new $T($S + index)", IllegalArgumentException.class, "Unknown field ")
+                        .endControlFlow()
+                        .build())
+                .build());
+
+        object.addMethod(MethodSpec.methodBuilder("set")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(String.class, "field")
+                .addParameter(Object.class, "value")
+                .addStatement("this.set(indexOf(field), value)")
+                .build());
+
+        object.addMethod(MethodSpec.methodBuilder("parse")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(String.class, "field")
+                .addParameter(String.class, "value")
+                .addCode(parseCases
+                        .addStatement("default: throw new $T($S + field)", IllegalArgumentException.class, "Unknown field ")
+                        .endControlFlow()
+                        .build())
+                .build());
+
+        object.addMethod(write.build());
+        object.addMethod(read.addStatement("return data").build());
+
+        return object.build();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static List<Field> getFields(Class type) {
+        List<Field> fields = new ArrayList<>();
+
+        for (Field field : type.getDeclaredFields())
+            if (!java.lang.reflect.Modifier.isStatic(field.getModifiers()) && !java.lang.reflect.Modifier.isTransient(field.getModifiers()) && !field.isSynthetic())
+                fields.add(field);
+
+        // Indexes and binary layout must not move between builds
+        fields.sort(Comparator.comparing(Field::getName));
+        return fields;
+    }
+
+    private static int getSchemaHash(List<Field> fields) {
+        StringBuilder schema = new StringBuilder();
+
+        for (Field field : fields)
+            schema.append(field.getName()).append(':').append(field.getType().getName()).append(';');
+
+        CRC32 crc = new CRC32();
+        crc.update(schema.toString().getBytes(StandardCharsets.UTF_8));
+
+        return (int) crc.getValue();
+    }
+
+    private static boolean isSupported(Class<?> type) {
+        return boxes.containsKey(type) || boxes.containsValue(type) || type == String.class || type == UUID.class || type == Timestamp.class || type == Date.class;
+    }
+
+    private static CodeBlock castExpression(Class<?> type, String value) {
+        if (type == boolean.class)
+            return CodeBlock.of("($T) $L", Boolean.class, value);
+        else if (type.isPrimitive())
+            return CodeBlock.of("(($T) $L).$LValue()", Number.class, value, type.getName());
+        else
+            return CodeBlock.of("($T) $L", type, value);
+    }
+
+    private static CodeBlock parseExpression(Class<?> type, String value) {
+        if (type == String.class)
+            return CodeBlock.of("$L", value);
+
+        CodeBlock parsed;
+        Class<?> primitive = unbox(type);
+
+        if (primitive == boolean.class)
+            parsed = CodeBlock.of("$T.parseBoolean($L)", Boolean.class, value);
+        else if (primitive.isPrimitive())
+            parsed = CodeBlock.of("$T.parse$L($L)", boxes.get(primitive), capitalize(primitive.getName()), value);
+        else if (type == UUID.class)
+            parsed = CodeBlock.of("$T.fromString($L)", UUID.class, value);
+        else if (type == Timestamp.class)
+            parsed = CodeBlock.of("$T.valueOf($L)", Timestamp.class, value);
+        else
+            parsed = CodeBlock.of("new $T($T.parseLong($L))", Date.class, Long.class, value);
+
+        return type.isPrimitive() ? parsed : CodeBlock.of("$L == null ? null : $L", value, parsed);
+    }
+
+    private static CodeBlock writeStatements(Class<?> type, String value) {
+        if (type.isPrimitive())
+            return CodeBlock.builder().addStatement(writePrimitive(type, value)).build();
+        else if (type == String.class)
+            return CodeBlock.builder().addStatement("writer.writeString($L)", value).build();
+
+        // Nullable types are prefixed by their presence
+        CodeBlock.Builder statements = CodeBlock.builder()
+                .addStatement("writer.writeBoolean($L != null)", value)
+                .beginControlFlow("if ($L != null)", value);
+
+        if (type == UUID.class)
+            statements.addStatement("writer.writeUUID($L)", value);
+        else if (type == Timestamp.class || type == Date.class)
+            statements.addStatement("writer.writeSignedVarLong($L.getTime())", value);
+        else
+            statements.addStatement(writePrimitive(unbox(type), value));
+
+        return statements.endControlFlow().build();
+    }
+
+    private static CodeBlock readStatements(Class<?> type, String target) {
+        if (type.isPrimitive())
+            return CodeBlock.builder().addStatement("$L = $L", target, readPrimitive(type)).build();
+        else if (type == String.class)
+            return CodeBlock.builder().addStatement("$L = reader.readString()", target).build();
+
+        CodeBlock.Builder statements = CodeBlock.builder()
+                .beginControlFlow("if (reader.readBoolean())");
+
+        if (type == UUID.class)
+            statements.addStatement("$L = reader.readUUID()", target);
+        else if (type == Timestamp.class || type == Date.class)
+            statements.addStatement("$L = new $T(reader.readSignedVarLong())", target, type);
+        else
+            statements.addStatement("$L = $L", target, readPrimitive(unbox(type)));
+
+        return statements.endControlFlow().build();
+    }
+
+    private static CodeBlock writePrimitive(Class<?> type, String value) {
+        if (type == boolean.class)
+            return CodeBlock.of("writer.writeBoolean($L)", value);
+        else if (type == double.class || type == float.class)
+            return CodeBlock.of("writer.writeDouble($L)", value);
+        else
+            return CodeBlock.of("writer.writeSignedVarLong($L)", value);
+    }
+
+    private static CodeBlock readPrimitive(Class<?> type) {
+        if (type == boolean.class)
+            return CodeBlock.of("reader.readBoolean()");
+        else if (type == double.class)
+            return CodeBlock.of("reader.readDouble()");
+        else if (type == float.class)
+            return CodeBlock.of("(float) reader.readDouble()");
+        else if (type == long.class)
+            return CodeBlock.of("reader.readSignedVarLong()");
+        else
+            return CodeBlock.of("($T) reader.readSignedVarLong()", type);
+    }
+
+    private static Class<?> unbox(Class<?> type) {
+        for (Map.Entry<Class<?>, Class<?>> box : boxes.entrySet())
+            if (box.getValue() == type)
+                return box.getKey();
+
+        return type;
+    }
+
+    private static String capitalize(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+}
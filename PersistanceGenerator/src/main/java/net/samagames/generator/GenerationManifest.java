@@ -0,0 +1,136 @@
+package net.samagames.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Record of the last generation: the fingerprint of the beans and of
+ * the generator it was made from, and the hash of every emitted file.
+ */
+public class GenerationManifest {
+    private static final String FILE_NAME = ".generation";
+
+    private final String fingerprint;
+    private final Map<String, String> files;
+
+    /**
+     * Constructor
+     *
+     * @param fingerprint Fingerprint of the beans and of the generator
+     * @param files       Hash of the emitted files, by relative path
+     */
+    public GenerationManifest(String fingerprint, Map<String, String> files) {
+        this.fingerprint = fingerprint;
+        this.files = new TreeMap<>(files);
+    }
+
+    /**
+     * Load the manifest of a given output folder
+     *
+     * @param output Output folder
+     * @return Manifest, empty if there was none
+     */
+    public static GenerationManifest load(File output) {
+        File file = new File(output, FILE_NAME);
+        Map<String, String> files = new TreeMap<>();
+        String fingerprint = "";
+
+        if (!file.exists())
+            return new GenerationManifest(fingerprint, files);
+
+        try {
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                String[] parts = line.split(" ", 2);
+
+                if (parts.length < 2)
+                    continue;
+
+                if (parts[0].equals("fingerprint"))
+                    fingerprint = parts[1];
+                else
+                    files.put(parts[1], parts[0]);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return new GenerationManifest(fingerprint, files);
+    }
+
+    /**
+     * Save this manifest in a given output folder
+     *
+     * @param output Output folder
+     * @throws IOException If the write failed
+     */
+    public void save(File output) throws IOException {
+        StringBuilder content = new StringBuilder("fingerprint ").append(this.fingerprint).append('\n');
+
+        for (Map.Entry<String, String> entry : this.files.entrySet())
+            content.append(entry.getValue()).append(' ').append(entry.getKey()).append('\n');
+
+        Files.write(new File(output, FILE_NAME).toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Know if every file of this manifest is still in a given output folder
+     *
+     * @param output Output folder
+     * @return {@code true} if none is missing
+     */
+    public boolean isComplete(File output) {
+        if (this.files.isEmpty())
+            return false;
+
+        for (String path : this.files.keySet())
+            if (!new File(output, path).exists())
+                return false;
+
+        return true;
+    }
+
+    public String getFingerprint() {
+        return this.fingerprint;
+    }
+
+    public Set<String> getFiles() {
+        return Collections.unmodifiableSet(this.files.keySet());
+    }
+
+    /**
+     * Hash given bytes
+     *
+     * @param content Bytes
+     * @return SHA-256 hash, in hexadecimal
+     */
+    public static String hash(byte[] content) {
+        try {
+            return String.format("%064x", new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(content)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -7,15 +7,17 @@ import net.samagames.persistanceapi.beans.shop.TransactionBean;
 import net.samagames.persistanceapi.beans.statistics.PlayerStatisticsBean;
 
 import javax.lang.model.element.Modifier;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
 
 /*
  * This file is part of SamaGamesAPI.
@@ -36,12 +38,28 @@ import java.util.UUID;
 public class Generator {
     private static final List<JavaFile> toBuild = new ArrayList<>();
 
-    private static final String header = " Dynamic code generation by Silvanoky";
+    static final String header = " Dynamic code generation by Silvanoky";
+
+    private static final String package_ = "net.samagames.api.stats";
+    private static final ClassName deltaStatistics = ClassName.get(package_, "IDeltaStatistics");
+    private static final ClassName statsDelta = ClassName.get(package_, "StatsDelta");
+    private static final ClassName statsDeltaWriter = ClassName.get(package_, "IStatsDeltaWriter");
+    private static final ClassName statsDeltaBatch = ClassName.get(package_, "StatsDeltaBatch");
 
     public static void main(String[] args) {
+        File output = new File("./Generation");
+        GenerationManifest previous = GenerationManifest.load(output);
+        String fingerprint = getFingerprint();
+
+        // Same beans and same generator, nothing to emit
+        if (fingerprint.equals(previous.getFingerprint()) && previous.isComplete(output)) {
+            System.out.println("Generation is up to date");
+            return;
+        }
+
         loadGameStats();
 
-        build();
+        build(output, fingerprint, previous);
     }
 
     public static void loadGameStats() {
@@ -55,27 +73,52 @@ public class Generator {
         playerStatsBuilder.addMethod(getMethod("refreshStats", boolean.class));
         playerStatsBuilder.addMethod(getMethod("getPlayerUUID", UUID.class));
 
-        String package_ = "net.samagames.api.stats";
         String package_game = package_ + ".games";
 
+        TypeName deltaStatisticsList = ParameterizedTypeName.get(ClassName.get(List.class), deltaStatistics);
+        MethodSpec.Builder getDeltaStatistics = MethodSpec.methodBuilder("getDeltaStatistics")
+                .addModifiers(Modifier.PUBLIC, Modifier.DEFAULT)
+                .returns(deltaStatisticsList)
+                .addStatement("$T statistics = new $T<>()", deltaStatisticsList, ArrayList.class);
+
         Field[] playerStatisticFields = PlayerStatisticsBean.class.getDeclaredFields();
         for (Field field : playerStatisticFields) {
             field.setAccessible(true);
             TypeSpec statInterface = createInterfaceOfType(field.getType(), true);
+            String getterName = "get" + statInterface.name.substring(1);
 
             //Create getter in player stat
-            playerStatsBuilder.addMethod(
-                    getMethod("get" + statInterface.name.substring(1), ClassName.get(package_game, statInterface.name)));
+            playerStatsBuilder.addMethod(getMethod(getterName, ClassName.get(package_game, statInterface.name)));
+
+            getDeltaStatistics.beginControlFlow("if (this.$L() instanceof $T)", getterName, deltaStatistics)
+                    .addStatement("statistics.add(($T) this.$L())", deltaStatistics, getterName)
+                    .endControlFlow();
+
+            TypeSpec dataClass = DataClassGenerator.createDataClassOfType(field.getType());
 
             toBuild.add(JavaFile.builder(package_game, statInterface).build());
+            toBuild.add(JavaFile.builder(package_game, createDeltaClassOfType(field.getType(), ClassName.get(package_game, statInterface.name),
+                    dataClass == null ? null : ClassName.get(package_game, dataClass.name))).build());
+
+            if (dataClass != null)
+                toBuild.add(JavaFile.builder(package_game, dataClass).build());
         }
 
+        playerStatsBuilder.addMethod(getDeltaStatistics.addStatement("return statistics").build());
+        playerStatsBuilder.addMethod(MethodSpec.methodBuilder("flushDeltas")
+                .addModifiers(Modifier.PUBLIC, Modifier.DEFAULT)
+                .addParameter(statsDeltaWriter, "writer")
+                .returns(boolean.class)
+                .addStatement("return $T.flush(this.getDeltaStatistics(), writer)", statsDeltaBatch)
+                .build());
+
         toBuild.add(JavaFile.builder(package_, playerStatsBuilder.build()).build());
         // END STATISTICS
 
         // SETTINGS
         TypeSpec playerSettingsBean = createInterfaceOfType(PlayerSettingsBean.class, false);
         toBuild.add(JavaFile.builder("net.samagames.api.settings", playerSettingsBean).build());
+        addDataClassOfType(PlayerSettingsBean.class, "net.samagames.api.settings");
         // END SETTINGS
 
         // SHOP ITEM TransactionBean
@@ -84,20 +127,144 @@ public class Generator {
 
         TypeSpec itemDescriptionBean = createInterfaceOfType(ItemDescriptionBean.class, false, false);
         toBuild.add(JavaFile.builder("net.samagames.api.shops", itemDescriptionBean).build());
+
+        addDataClassOfType(TransactionBean.class, "net.samagames.api.shops");
+        addDataClassOfType(ItemDescriptionBean.class, "net.samagames.api.shops");
         //END SHOP ITEM
     }
 
+    /**
+     * Write the generated sources, only the ones whose content changed,
+     * and delete the ones which are not generated anymore. Unchanged
+     * files keep their timestamp, so the API is not fully recompiled.
+     *
+     * @param output      Output folder
+     * @param fingerprint Fingerprint of the beans and of the generator
+     * @param previous    Manifest of the last generation
+     */
     @SuppressWarnings("ResultOfMethodCallIgnored")
-    public static void build() {
+    public static void build(File output, String fingerprint, GenerationManifest previous) {
+        Map<String, String> files = new TreeMap<>();
+        int written = 0;
+        int deleted = 0;
+
         try {
-            File file = new File("./Generation");
-            file.delete();
             for (JavaFile javaFile : toBuild) {
-                javaFile.writeTo(file);
+                String path = javaFile.packageName.replace('.', '/') + "/" + javaFile.typeSpec.name + ".java";
+                byte[] content = javaFile.toString().getBytes(StandardCharsets.UTF_8);
+                File target = new File(output, path);
+
+                files.put(path, GenerationManifest.hash(content));
+
+                if (target.exists() && Arrays.equals(Files.readAllBytes(target.toPath()), content))
+                    continue;
+
+                target.getParentFile().mkdirs();
+                Files.write(target.toPath(), content);
+                written++;
+            }
+
+            // Without manifest, every source found is from an older generation
+            Set<String> stale = new HashSet<>(previous.getFiles());
+
+            if (stale.isEmpty() && output.exists())
+                stale.addAll(listSources(output, output));
+
+            for (String path : stale) {
+                File target = new File(output, path);
+
+                if (!files.containsKey(path) && target.delete()) {
+                    deleted++;
+
+                    for (File parent = target.getParentFile(); !parent.equals(output) && parent.delete(); parent = parent.getParentFile())
+                        ;
+                }
             }
+
+            new GenerationManifest(fingerprint, files).save(output);
         } catch (IOException e) {
             e.printStackTrace();
         }
+
+        System.out.println("Generation: " + written + " written, " + (files.size() - written) + " unchanged, " + deleted + " deleted");
+    }
+
+    /**
+     * Fingerprint the beans' schemas and the generator's own code,
+     * a change in one of them requires a new generation
+     *
+     * @return SHA-256 hash, in hexadecimal
+     */
+    public static String getFingerprint() {
+        StringBuilder schema = new StringBuilder();
+        Set<Class<?>> beans = new LinkedHashSet<>();
+
+        beans.add(PlayerStatisticsBean.class);
+
+        for (Field field : PlayerStatisticsBean.class.getDeclaredFields())
+            beans.add(field.getType());
+
+        beans.add(PlayerSettingsBean.class);
+        beans.add(TransactionBean.class);
+        beans.add(ItemDescriptionBean.class);
+
+        for (Class<?> bean : beans) {
+            List<String> members = new ArrayList<>();
+
+            for (Field field : bean.getDeclaredFields())
+                members.add(field.toGenericString());
+
+            for (Method method : bean.getDeclaredMethods())
+                members.add(method.toGenericString());
+
+            // Reflection has no order, the fingerprint must not depend on it
+            Collections.sort(members);
+            schema.append(bean.getName()).append(members).append('\n');
+        }
+
+        try (ByteArrayOutputStream content = new ByteArrayOutputStream()) {
+            content.write(schema.toString().getBytes(StandardCharsets.UTF_8));
+
+            for (Class<?> generator : new Class<?>[]{Generator.class, DataClassGenerator.class, GenerationManifest.class}) {
+                try (InputStream classFile = generator.getResourceAsStream(generator.getSimpleName() + ".class")) {
+                    byte[] buffer = new byte[8192];
+                    int read;
+
+                    while ((read = classFile.read(buffer)) != -1)
+                        content.write(buffer, 0, read);
+                }
+            }
+
+            return GenerationManifest.hash(content.toByteArray());
+        } catch (IOException e) {
+            // Unknown fingerprint, always generate
+            return "";
+        }
+    }
+
+    private static List<String> listSources(File root, File folder) {
+        List<String> sources = new ArrayList<>();
+        File[] children = folder.listFiles();
+
+        if (children == null)
+            return sources;
+
+        for (File child : children) {
+            if (child.isDirectory())
+                sources.addAll(listSources(root, child));
+            else if (child.getName().endsWith(".java"))
+                sources.add(root.toURI().relativize(child.toURI()).getPath());
+        }
+
+        return sources;
+    }
+
+    @SuppressWarnings("rawtypes")
+    public static void addDataClassOfType(Class type, String package_) {
+        TypeSpec dataClass = DataClassGenerator.createDataClassOfType(type);
+
+        if (dataClass != null)
+            toBuild.add(JavaFile.builder(package_, dataClass).build());
     }
 
     public static MethodSpec getMethod(String name, TypeName retur) {
@@ -138,15 +305,7 @@ public class Generator {
             String methodName = method.getName();
             if (method.getParameters().length > 0) {
                 if (methodName.startsWith("set") && useIncrement) {
-                    boolean isIncrementable = false;
-                    Class<?> type1 = method.getParameters()[0].getType();
-                    if (type1.equals(int.class)
-                            || type1.equals(long.class)
-                            || type1.equals(double.class)
-                            || type1.equals(float.class))
-                        isIncrementable = true;
-
-                    if (isIncrementable) {
+                    if (isIncrementable(method.getParameters()[0].getType())) {
                         methodName = "incrBy" + methodName.substring(3);
                     }
                 }
@@ -165,4 +324,183 @@ public class Generator {
         }
         return object.build();
     }
+
+    /**
+     * Create the delta-tracking implementation of a statistics interface:
+     * every incrBy accumulates into a primitive delta field and marks it
+     * dirty, only the dirty fields are sent as increments on update.
+     *
+     * @param type          Statistics bean
+     * @param statInterface Generated interface of the bean
+     * @param dataClass     Generated data class of the bean, {@code null} if none
+     * @return Abstract class, the core implements the remaining methods
+     */
+    @SuppressWarnings("rawtypes")
+    public static TypeSpec createDeltaClassOfType(Class type, ClassName statInterface, ClassName dataClass) {
+        String statistics = type.getSimpleName().replaceAll("Bean", "");
+        List<Method> incrementables = getIncrementableSetters(type);
+
+        if (incrementables.size() > 64)
+            throw new IllegalStateException(statistics + " has more than 64 incrementable fields");
+
+        TypeSpec.Builder object = TypeSpec.classBuilder("Delta" + statistics)
+                .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                .addSuperinterface(statInterface)
+                .addSuperinterface(deltaStatistics);
+        object.addJavadoc(header);
+
+        object.addField(UUID.class, "statsPlayer", Modifier.PRIVATE, Modifier.FINAL);
+        object.addField(long.class, "dirtyMask", Modifier.PRIVATE);
+
+        object.addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PROTECTED)
+                .addParameter(UUID.class, "statsPlayer")
+                .addStatement("this.statsPlayer = statsPlayer")
+                .build());
+
+        ParameterizedTypeName incrementsType = ParameterizedTypeName.get(Map.class, String.class, Number.class);
+        MethodSpec.Builder drainDelta = MethodSpec.methodBuilder("drainDelta")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC, Modifier.SYNCHRONIZED)
+                .returns(statsDelta)
+                .beginControlFlow("if (this.dirtyMask == 0L)")
+                .addStatement("return null")
+                .endControlFlow()
+                .addStatement("$T increments = new $T<>()", incrementsType, LinkedHashMap.class);
+
+        CodeBlock.Builder restoreCases = CodeBlock.builder()
+                .beginControlFlow("switch (increment.getKey())");
+
+        MethodSpec.Builder setBase = MethodSpec.methodBuilder("setBase")
+                .addModifiers(Modifier.PROTECTED, Modifier.SYNCHRONIZED);
+
+        if (dataClass != null)
+            setBase.addParameter(dataClass, "data");
+
+        for (int i = 0; i < incrementables.size(); i++) {
+            String property = incrementables.get(i).getName().substring(3);
+            String field = Character.toLowerCase(property.charAt(0)) + property.substring(1);
+            String delta = field + "Delta";
+            Class<?> fieldType = incrementables.get(i).getParameterTypes()[0];
+            String mask = "1L << " + i;
+
+            object.addField(fieldType, field, Modifier.PRIVATE);
+            object.addField(fieldType, delta, Modifier.PRIVATE);
+
+            if (hasGetter(type, property, fieldType)) {
+                object.addMethod(MethodSpec.methodBuilder("get" + property)
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC, Modifier.SYNCHRONIZED)
+                        .returns(fieldType)
+                        .addStatement("return this.$L + this.$L", field, delta)
+                        .build());
+            }
+
+            object.addMethod(MethodSpec.methodBuilder("incrBy" + property)
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC, Modifier.SYNCHRONIZED)
+                    .addParameter(fieldType, "value")
+                    .addStatement("this.$L += value", delta)
+                    .addStatement("this.dirtyMask |= $L", mask)
+                    .build());
+
+            object.addMethod(MethodSpec.methodBuilder("setBase" + property)
+                    .addModifiers(Modifier.PROTECTED, Modifier.SYNCHRONIZED)
+                    .addParameter(fieldType, "value")
+                    .addStatement("this.$L = value", field)
+                    .build());
+
+            if (hasField(type, field, fieldType))
+                setBase.addStatement("this.$L = data.get$L()", field, property);
+
+            drainDelta.beginControlFlow("if ((this.dirtyMask & ($L)) != 0L)", mask)
+                    .addStatement("increments.put($S, this.$L)", field, delta)
+                    .addStatement("this.$L += this.$L", field, delta)
+                    .addStatement("this.$L = 0", delta)
+                    .endControlFlow();
+
+            restoreCases.add("case $S:\n", field)
+                    .indent()
+                    .addStatement("this.$L -= increment.getValue().$LValue()", field, fieldType.getName())
+                    .addStatement("this.$L += increment.getValue().$LValue()", delta, fieldType.getName())
+                    .addStatement("this.dirtyMask |= $L", mask)
+                    .addStatement("break")
+                    .unindent();
+        }
+
+        if (dataClass != null)
+            object.addMethod(setBase.build());
+
+        object.addMethod(drainDelta
+                .addStatement("this.dirtyMask = 0L")
+                .addStatement("return new $T(this.statsPlayer, $S, increments)", statsDelta, statistics)
+                .build());
+
+        object.addMethod(MethodSpec.methodBuilder("restoreDelta")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC, Modifier.SYNCHRONIZED)
+                .addParameter(statsDelta, "delta")
+                .beginControlFlow("for ($T.Entry<String, Number> increment : delta.getIncrements().entrySet())", Map.class)
+                .addCode(restoreCases.endControlFlow().build())
+                .endControlFlow()
+                .build());
+
+        object.addMethod(MethodSpec.methodBuilder("isDirty")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC, Modifier.SYNCHRONIZED)
+                .returns(boolean.class)
+                .addStatement("return this.dirtyMask != 0L")
+                .build());
+
+        object.addMethod(MethodSpec.methodBuilder("update")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addStatement("$T.flush($T.singletonList(this), this.getDeltaWriter())", statsDeltaBatch, Collections.class)
+                .build());
+
+        object.addMethod(MethodSpec.methodBuilder("getDeltaWriter")
+                .addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
+                .returns(statsDeltaWriter)
+                .build());
+
+        return object.build();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static List<Method> getIncrementableSetters(Class type) {
+        List<Method> setters = new ArrayList<>();
+
+        for (Method method : type.getDeclaredMethods())
+            if (method.getName().startsWith("set") && method.getParameterCount() == 1 && isIncrementable(method.getParameterTypes()[0]))
+                setters.add(method);
+
+        // getDeclaredMethods() has no order, the dirty bits must not move between builds
+        setters.sort(Comparator.comparing(Method::getName));
+        return setters;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static boolean hasGetter(Class type, String property, Class<?> fieldType) {
+        try {
+            return type.getDeclaredMethod("get" + property).getReturnType().equals(fieldType);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static boolean hasField(Class type, String name, Class<?> fieldType) {
+        try {
+            return type.getDeclaredField(name).getType().equals(fieldType);
+        } catch (NoSuchFieldException e) {
+            return false;
+        }
+    }
+
+    private static boolean isIncrementable(Class<?> type) {
+        return type.equals(int.class)
+                || type.equals(long.class)
+                || type.equals(double.class)
+                || type.equals(float.class);
+    }
 }
@@ -0,0 +1,81 @@
+package net.samagames.api.pubsub;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocalPubSubBenchmark {
+    private static final String[] CHANNELS = {"moderationchan", "discordbot", "shutdownChannel", "cheat:Hub_1", "parties.events", "friends.update"};
+
+    @Param({"10", "200"})
+    public int patternSubscribers;
+
+    private LocalPubSubAPI pubSub;
+    private LongAdder delivered;
+
+    @Setup
+    public void setup() {
+        this.pubSub = new LocalPubSubAPI(Logger.getLogger("benchmark"), 65536, 2);
+        this.delivered = new LongAdder();
+
+        for (String channel : CHANNELS)
+            this.pubSub.subscribe(channel, (IPacketsReceiver) (c, message) -> this.delivered.increment());
+
+        // Mostly non matching patterns, as many plugins listening to unrelated prefixes
+        for (int i = 0; i < this.patternSubscribers; i++)
+            this.pubSub.subscribe("plugin" + i + ":*", (IPatternReceiver) (pattern, c, message) -> this.delivered.increment());
+
+        this.pubSub.subscribe("cheat:*", (IPatternReceiver) (pattern, c, message) -> this.delivered.increment());
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.pubSub.shutdown(5000L);
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        private int next;
+
+        private String channel() {
+            this.next = (this.next + 1) % CHANNELS.length;
+            return CHANNELS[this.next];
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void publishSingleProducer(Producer producer) {
+        this.pubSub.send(producer.channel(), "Hub_1/42/payload");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void publishFourProducers(Producer producer) {
+        this.pubSub.send(producer.channel(), "Hub_1/42/payload");
+    }
+}
@@ -0,0 +1,117 @@
+package net.samagames.api.pubsub;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageCodecBenchmark {
+    private static final String CHANNEL = "moderationchan";
+
+    private final Gson gson = new Gson();
+    private final MessageCodecRegistry registry = new MessageCodecRegistry(Logger.getLogger("benchmark"));
+    private ModerationMessage message;
+    private String jsonFrame;
+    private String binaryFrame;
+    private long jsonFrameBytes;
+    private long binaryFrameBytes;
+
+    @Setup
+    public void setup() {
+        this.registry.register(CHANNEL, ModerationMessage.class, 1, new ModerationMessageCodec());
+        this.message = new ModerationMessage(UUID.randomUUID(), "Silvanosky", 2, System.currentTimeMillis(), "Joueur signalé pour anti-knockback sur le serveur UHCRun_12");
+        this.jsonFrame = this.gson.toJson(this.message);
+        this.binaryFrame = this.registry.encode(CHANNEL, this.message);
+        this.jsonFrameBytes = this.jsonFrame.getBytes(StandardCharsets.UTF_8).length;
+        this.binaryFrameBytes = this.binaryFrame.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    @Benchmark
+    public String gsonEncode(FrameSize size) {
+        size.frameBytes = this.jsonFrameBytes;
+        return this.gson.toJson(this.message);
+    }
+
+    @Benchmark
+    public ModerationMessage gsonDecode() {
+        return this.gson.fromJson(this.jsonFrame, ModerationMessage.class);
+    }
+
+    @Benchmark
+    public String codecEncode(FrameSize size) {
+        size.frameBytes = this.binaryFrameBytes;
+        return this.registry.encode(CHANNEL, this.message);
+    }
+
+    @Benchmark
+    public ModerationMessage codecDecode() {
+        return this.registry.decode(CHANNEL, this.binaryFrame);
+    }
+
+    /**
+     * Size of the encoded frame once in UTF-8, as Jedis sends it,
+     * reported next to the encoding time
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class FrameSize {
+        public long frameBytes;
+    }
+
+    public static class ModerationMessage {
+        private final UUID sender;
+        private final String senderName;
+        private final int modChannel;
+        private final long timestamp;
+        private final String message;
+
+        public ModerationMessage(UUID sender, String senderName, int modChannel, long timestamp, String message) {
+            this.sender = sender;
+            this.senderName = senderName;
+            this.modChannel = modChannel;
+            this.timestamp = timestamp;
+            this.message = message;
+        }
+    }
+
+    private static class ModerationMessageCodec implements IMessageCodec<ModerationMessage> {
+        @Override
+        public void encode(ModerationMessage message, PacketWriter writer) {
+            writer.writeUUID(message.sender)
+                    .writeString(message.senderName)
+                    .writeVarInt(message.modChannel)
+                    .writeVarLong(message.timestamp)
+                    .writeString(message.message);
+        }
+
+        @Override
+        public ModerationMessage decode(PacketReader reader) {
+            return new ModerationMessage(reader.readUUID(), reader.readString(), reader.readVarInt(), reader.readVarLong(), reader.readString());
+        }
+    }
+}
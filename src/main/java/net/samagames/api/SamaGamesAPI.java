@@ -3,7 +3,12 @@ package net.samagames.api;
 import in.ashwanthkumar.slack.webhook.Slack;
 import in.ashwanthkumar.slack.webhook.SlackAttachment;
 import in.ashwanthkumar.slack.webhook.SlackMessage;
+import net.samagames.api.achievements.AchievementAnnouncer;
+import net.samagames.api.achievements.AchievementProgressStore;
+import net.samagames.api.achievements.IAchievementProgressWriter;
 import net.samagames.api.achievements.IAchievementManager;
+import net.samagames.api.achievements.triggers.AchievementTriggerEngine;
+import net.samagames.api.friends.CachedFriendsManager;
 import net.samagames.api.friends.IFriendsManager;
 import net.samagames.api.games.IGameManager;
 import net.samagames.api.gui.IGuiManager;
@@ -11,20 +16,45 @@ import net.samagames.api.names.IUUIDTranslator;
 import net.samagames.api.network.IJoinManager;
 import net.samagames.api.options.IServerOptions;
 import net.samagames.api.parties.IPartiesManager;
+import net.samagames.api.parties.PartiesSnapshot;
+import net.samagames.api.parties.PartyChangePublisher;
+import net.samagames.api.parties.PartyReplica;
+import net.samagames.api.permissions.IPermissionsEntity;
 import net.samagames.api.permissions.IPermissionsManager;
+import net.samagames.api.permissions.PermissionsCache;
+import net.samagames.api.permissions.PermissionsGroup;
+import net.samagames.api.permissions.PermissionsGroupRegistry;
+import net.samagames.api.player.CoinsLedger;
 import net.samagames.api.player.IPlayerDataManager;
+import net.samagames.api.pubsub.BatchingSender;
 import net.samagames.api.pubsub.IPubSubAPI;
+import net.samagames.api.pubsub.LocalPubSubAPI;
+import net.samagames.api.pubsub.ManagedPubSubAPI;
+import net.samagames.api.pubsub.PubSubDispatcher;
+import net.samagames.api.redis.ManagedRedis;
 import net.samagames.api.resourcepacks.IResourcePacksManager;
 import net.samagames.api.settings.ISettingsManager;
 import net.samagames.api.shops.IShopsManager;
 import net.samagames.api.stats.IStatsManager;
+import net.samagames.api.stats.leaderboards.LeaderboardEngine;
+import net.samagames.api.stats.leaderboards.RedisLeaderboardStore;
+import net.samagames.api.stats.storage.IStatsStorage;
 import net.samagames.tools.SkyFactory;
 import net.samagames.tools.cameras.CameraManager;
 import net.samagames.tools.npc.NPCManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 import redis.clients.jedis.Jedis;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
 import java.util.logging.Level;
 
 /*
@@ -46,6 +76,23 @@ import java.util.logging.Level;
 public abstract class SamaGamesAPI {
     private static SamaGamesAPI instance;
     private final JavaPlugin plugin;
+    private final List<Runnable> disableHooks;
+    private Listener disableListener;
+    private volatile IPubSubAPI localPubSub;
+    private volatile ManagedPubSubAPI managedPubSub;
+    private volatile IStatsStorage statsStorage;
+    private boolean statsStorageHook;
+    private volatile ManagedRedis redis;
+    private volatile CoinsLedger coinsLedger;
+    private volatile LeaderboardEngine leaderboardEngine;
+    private volatile AchievementProgressStore achievementProgressStore;
+    private volatile AchievementAnnouncer achievementAnnouncer;
+    private volatile AchievementTriggerEngine achievementTriggerEngine;
+    private volatile PermissionsCache permissionsCache;
+    private volatile PermissionsGroupRegistry permissionsGroupRegistry;
+    private volatile CachedFriendsManager cachedFriendsManager;
+    private volatile PartyReplica partyReplica;
+    private volatile PartyChangePublisher partyChangePublisher;
 
     /**
      * Constructor
@@ -55,6 +102,10 @@ public abstract class SamaGamesAPI {
     public SamaGamesAPI(JavaPlugin plugin) {
         instance = this;
         this.plugin = plugin;
+        this.disableHooks = new ArrayList<>();
+
+        // At the first tick, so the recovery of the coins journal starts with the server
+        plugin.getServer().getScheduler().runTask(plugin, this::getCoinsLedger);
     }
 
     /**
@@ -85,12 +136,30 @@ public abstract class SamaGamesAPI {
     public abstract IServerOptions getServerOptions();
 
     /**
-     * Get an instance of the Redis database
+     * Get an instance of the Redis database, it has to be closed
+     * after use. Prefer {@link #getRedis()}.
      *
      * @return Jedis {@link Jedis} instance
      */
     public abstract Jedis getBungeeResource();
 
+    /**
+     * Get the managed access to the Redis database, giving the
+     * connections back to the pool by itself
+     *
+     * @return Instance
+     */
+    public ManagedRedis getRedis() {
+        if (this.redis == null) {
+            synchronized (this) {
+                if (this.redis == null)
+                    this.redis = new ManagedRedis(this::getBungeeResource, this.plugin.getLogger());
+            }
+        }
+
+        return this.redis;
+    }
+
     /**
      * Get the server name (for exemple UHCRun_435fvb345)
      *
@@ -105,6 +174,32 @@ public abstract class SamaGamesAPI {
      */
     public abstract IStatsManager getStatsManager();
 
+    /**
+     * Get the leaderboards engine, backed by Redis sorted sets
+     * shared by every server, or by the local statistics storage
+     * when one is set
+     *
+     * @return Instance
+     */
+    public LeaderboardEngine getLeaderboardEngine() {
+        if (this.leaderboardEngine == null) {
+            synchronized (this) {
+                if (this.leaderboardEngine == null)
+                    this.leaderboardEngine = new LeaderboardEngine((game, stat) ->
+                    {
+                        IStatsStorage storage = this.statsStorage;
+
+                        if (storage != null)
+                            return storage.getLeaderboard(game, stat);
+
+                        return new RedisLeaderboardStore(this.getRedis(), "leaderboard:" + game.name() + ":" + stat);
+                    }, this.getUUIDTranslator(), this.getManagedPubSub(), this.getServerName(), this.plugin.getLogger());
+            }
+        }
+
+        return this.leaderboardEngine;
+    }
+
     /**
      * Get a new instance of the shop manager of
      * a given game code name
@@ -134,6 +229,82 @@ public abstract class SamaGamesAPI {
      */
     public abstract IAchievementManager getAchievementManager();
 
+    /**
+     * Get the progress of the players on the achievements, with
+     * the achievements indexed by ID. Getting it starts nothing, the
+     * periodic flush is started by
+     * {@link #setAchievementProgressWriter(IAchievementProgressWriter)}.
+     *
+     * @return Instance
+     */
+    public AchievementProgressStore getAchievementProgressStore() {
+        if (this.achievementProgressStore == null) {
+            synchronized (this) {
+                if (this.achievementProgressStore == null) {
+                    AchievementProgressStore store = new AchievementProgressStore(() -> this.getAchievementManager().getAchievements());
+
+                    this.plugin.getServer().getPluginManager().registerEvents(store, this.plugin);
+                    this.achievementProgressStore = store;
+                }
+            }
+        }
+
+        return this.achievementProgressStore;
+    }
+
+    /**
+     * Write the changed achievement progresses with a given writer,
+     * every 30 seconds, at the end of the games and when the plugin
+     * is disabled. Until a writer is set, the progresses are left to
+     * the achievement manager.
+     *
+     * @param writer Writer
+     */
+    public void setAchievementProgressWriter(IAchievementProgressWriter writer) {
+        AchievementProgressStore store = this.getAchievementProgressStore();
+        boolean first = !store.hasWriter();
+
+        store.setWriter(writer);
+        store.start(this.plugin, 20L * 30);
+
+        if (first)
+            this.addDisableHook(store::stop);
+    }
+
+    /**
+     * Get the queue of the achievement unlock announcements, sent
+     * at most 20 per tick with at most 5 fireworks
+     *
+     * @return Instance
+     */
+    public AchievementAnnouncer getAchievementAnnouncer() {
+        if (this.achievementAnnouncer == null) {
+            synchronized (this) {
+                if (this.achievementAnnouncer == null)
+                    this.achievementAnnouncer = new AchievementAnnouncer(this.plugin, 20, 5);
+            }
+        }
+
+        return this.achievementAnnouncer;
+    }
+
+    /**
+     * Get the rules linking the game events to the achievements,
+     * with the network achievements already registered
+     *
+     * @return Instance
+     */
+    public AchievementTriggerEngine getAchievementTriggerEngine() {
+        if (this.achievementTriggerEngine == null) {
+            synchronized (this) {
+                if (this.achievementTriggerEngine == null)
+                    this.achievementTriggerEngine = new AchievementTriggerEngine(this.getAchievementProgressStore()).registerDefaults();
+            }
+        }
+
+        return this.achievementTriggerEngine;
+    }
+
     /**
      * Get the instance of the player data manager
      *
@@ -148,6 +319,120 @@ public abstract class SamaGamesAPI {
      */
     public abstract IPubSubAPI getPubSub();
 
+    /**
+     * Get the PubSub API used by the services of the API: the local
+     * one if it was set with {@link #setLocalPubSub(IPubSubAPI)},
+     * otherwise {@link #getPubSub()} with the messages published in
+     * pipelined batches of at most 256, waiting at most 5 milliseconds,
+     * and 4 worker threads for the receivers subscribed with
+     * {@link net.samagames.api.pubsub.DispatchMode#WORKER_POOL}
+     *
+     * @return Instance
+     */
+    public IPubSubAPI getManagedPubSub() {
+        IPubSubAPI local = this.localPubSub;
+
+        if (local != null)
+            return local;
+
+        if (this.managedPubSub == null) {
+            synchronized (this) {
+                if (this.managedPubSub == null) {
+                    ManagedPubSubAPI pubSub = new ManagedPubSubAPI(this.getPubSub(), new BatchingSender(this::getBungeeResource, this.plugin.getLogger(), 256, 5L),
+                            new PubSubDispatcher(this.plugin.getLogger(), 4, 4096));
+
+                    this.addDisableHook(() -> pubSub.shutdown(5000L));
+                    this.managedPubSub = pubSub;
+                }
+            }
+        }
+
+        return this.managedPubSub;
+    }
+
+    /**
+     * Get the write-behind ledger of coins and powders, created at
+     * the first tick, flushed every 30 seconds, at the end of the
+     * games and when the plugin is disabled
+     *
+     * @return Instance
+     */
+    public CoinsLedger getCoinsLedger() {
+        if (this.coinsLedger == null) {
+            synchronized (this) {
+                if (this.coinsLedger == null) {
+                    CoinsLedger ledger = new CoinsLedger(this.getPlayerManager(), player ->
+                    {
+                        IPermissionsEntity entity = this.getPermissionsManager().getPlayer(player);
+                        return entity == null ? 1 : entity.getMultiplier();
+                    }, new File(this.plugin.getDataFolder(), "coins.journal"), this.plugin.getLogger());
+
+                    ledger.start(this.plugin, 20L * 30);
+                    this.addDisableHook(() -> ledger.stop(5000L));
+                    this.coinsLedger = ledger;
+                }
+            }
+        }
+
+        return this.coinsLedger;
+    }
+
+    /**
+     * Replace the Redis PubSub API by an in-process one, like
+     * {@link LocalPubSubAPI}, for tests and single-node servers, in
+     * {@link #getManagedPubSub()}, which every publisher of the API
+     * goes through. Must be called before the services of the API are
+     * used.
+     *
+     * @param pubSub Local PubSub API, {@code null} to go back to Redis
+     */
+    public void setLocalPubSub(IPubSubAPI pubSub) {
+        this.localPubSub = pubSub;
+    }
+
+    /**
+     * Get the local storage of the statistics
+     *
+     * @return Instance, {@code null} if the statistics go to the
+     * remote backend
+     */
+    public IStatsStorage getStatsStorage() {
+        return this.statsStorage;
+    }
+
+    /**
+     * Keep the statistics in a local storage instead of the remote
+     * backend, like an {@link net.samagames.api.stats.storage.EmbeddedStatsStorage}
+     * for offline tournaments. The increments are then written to it
+     * at the end of the games, the leaderboards are read from it and
+     * it is closed when the plugin is disabled. Nothing is forwarded to
+     * the remote backend: the statistics of this server stay local.
+     *
+     * @param statsStorage Local storage, {@code null} to go back to
+     *                     the remote backend
+     */
+    public synchronized void setStatsStorage(IStatsStorage statsStorage) {
+        this.statsStorage = statsStorage;
+
+        if (this.leaderboardEngine != null)
+            this.leaderboardEngine.reload();
+
+        if (statsStorage != null && !this.statsStorageHook) {
+            this.statsStorageHook = true;
+            this.addDisableHook(() ->
+            {
+                IStatsStorage storage = this.statsStorage;
+
+                try {
+                    if (storage != null)
+                        storage.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
     /**
      * Get the instance of the game manager
      *
@@ -162,6 +447,29 @@ public abstract class SamaGamesAPI {
      */
     public abstract IFriendsManager getFriendsManager();
 
+    /**
+     * Get the friends manager keeping the friends of the players in
+     * memory for 5 minutes, the expired ones being removed every
+     * minute, shared by the features rendering them often
+     *
+     * @return Instance
+     */
+    public CachedFriendsManager getCachedFriendsManager() {
+        if (this.cachedFriendsManager == null) {
+            synchronized (this) {
+                if (this.cachedFriendsManager == null) {
+                    CachedFriendsManager friendsManager = new CachedFriendsManager(this.getFriendsManager(), this.getUUIDTranslator(), this.getManagedPubSub(), this.getServerName(), this.plugin.getLogger(), 5L, TimeUnit.MINUTES);
+                    this.plugin.getServer().getPluginManager().registerEvents(friendsManager, this.plugin);
+                    this.plugin.getServer().getScheduler().runTaskTimerAsynchronously(this.plugin, friendsManager::cleanUp, 20L * 60, 20L * 60);
+
+                    this.cachedFriendsManager = friendsManager;
+                }
+            }
+        }
+
+        return this.cachedFriendsManager;
+    }
+
     /**
      * Get the instance of the resource packs manager
      *
@@ -183,6 +491,55 @@ public abstract class SamaGamesAPI {
      */
     public abstract IPermissionsManager getPermissionsManager();
 
+    /**
+     * Get the resolved permissions of the entities, used by the
+     * permission checks by ID
+     *
+     * @return Instance
+     */
+    public PermissionsCache getPermissionsCache() {
+        if (this.permissionsCache == null) {
+            synchronized (this) {
+                if (this.permissionsCache == null) {
+                    PermissionsCache cache = new PermissionsCache(this.getManagedPubSub(), this.getServerName(), this.plugin.getLogger());
+                    this.plugin.getServer().getPluginManager().registerEvents(cache, this.plugin);
+
+                    this.permissionsCache = cache;
+                }
+            }
+        }
+
+        return this.permissionsCache;
+    }
+
+    /**
+     * Get the shared snapshots of the permissions groups
+     *
+     * @return Instance, {@code null} until a loader is set with
+     * {@link #setPermissionsGroupLoader(LongFunction)}
+     */
+    public PermissionsGroupRegistry getPermissionsGroupRegistry() {
+        return this.permissionsGroupRegistry;
+    }
+
+    /**
+     * Share the snapshots of the permissions groups between the players,
+     * loaded with a given loader. The groups changed on the other servers
+     * are loaded again in the background.
+     *
+     * @param loader Loads the snapshot of a group from the database,
+     *               {@code null} if it doesn't exist
+     */
+    public synchronized void setPermissionsGroupLoader(LongFunction<PermissionsGroup> loader) {
+        if (this.permissionsGroupRegistry != null)
+            throw new IllegalStateException("Permissions group loader is already set");
+
+        PermissionsGroupRegistry registry = new PermissionsGroupRegistry(loader, this.getPermissionsCache(), this.getManagedPubSub(), this.getServerName(), this.plugin.getLogger());
+        this.addDisableHook(() -> registry.shutdown(5000L));
+
+        this.permissionsGroupRegistry = registry;
+    }
+
     /**
      * Get the instance of the NPC manager
      *
@@ -223,6 +580,54 @@ public abstract class SamaGamesAPI {
      */
     public abstract IPartiesManager getPartiesManager();
 
+    /**
+     * Get the read-only copy of the parties kept on this server, read
+     * without any network round-trip. It follows the changes sent with
+     * {@link #getPartyChangePublisher()} and is loaded again every
+     * minute. It is loaded in the background, so it is empty right
+     * after the first call.
+     *
+     * @return Instance
+     */
+    public PartyReplica getPartyReplica() {
+        if (this.partyReplica == null) {
+            synchronized (this) {
+                if (this.partyReplica == null) {
+                    PartyReplica replica = new PartyReplica(() ->
+                    {
+                        // Read first, the changes sent during the load are applied again on top of it
+                        long version = this.getPartyChangePublisher().getVersion();
+                        return new PartiesSnapshot(version, this.getPartiesManager().getParties().values());
+                    }, this.getManagedPubSub(), 1L, TimeUnit.MINUTES, this.plugin.getLogger());
+                    this.addDisableHook(replica::shutdown);
+
+                    this.partyReplica = replica;
+                }
+            }
+        }
+
+        return this.partyReplica;
+    }
+
+    /**
+     * Get the sender of the parties changes read by the
+     * {@link PartyReplica} of every server, for the parties owner
+     *
+     * @return Instance
+     */
+    public PartyChangePublisher getPartyChangePublisher() {
+        if (this.partyChangePublisher == null) {
+            synchronized (this) {
+                if (this.partyChangePublisher == null) {
+                    IPubSubAPI local = this.localPubSub;
+                    this.partyChangePublisher = local != null ? new PartyChangePublisher(local) : new PartyChangePublisher(this.getRedis());
+                }
+            }
+        }
+
+        return this.partyChangePublisher;
+    }
+
     public void slackLog(Level level, SlackMessage message) {
         String color;
 
@@ -241,6 +646,46 @@ public abstract class SamaGamesAPI {
         }
     }
 
+    /**
+     * Run a given task when the root plugin is disabled, before its
+     * own {@code onDisable()}. The last registered task is run first,
+     * so a service is stopped before the ones it was built on.
+     *
+     * @param hook Task
+     */
+    public synchronized void addDisableHook(Runnable hook) {
+        if (this.disableListener == null) {
+            this.disableListener = new Listener() {
+                @EventHandler
+                public void onPluginDisable(PluginDisableEvent event) {
+                    if (event.getPlugin().equals(SamaGamesAPI.this.plugin))
+                        SamaGamesAPI.this.runDisableHooks();
+                }
+            };
+
+            this.plugin.getServer().getPluginManager().registerEvents(this.disableListener, this.plugin);
+        }
+
+        this.disableHooks.add(0, hook);
+    }
+
+    private void runDisableHooks() {
+        List<Runnable> hooks;
+
+        synchronized (this) {
+            hooks = new ArrayList<>(this.disableHooks);
+            this.disableHooks.clear();
+        }
+
+        for (Runnable hook : hooks) {
+            try {
+                hook.run();
+            } catch (Exception e) {
+                this.plugin.getLogger().log(Level.SEVERE, "Failed to stop a service of the API", e);
+            }
+        }
+    }
+
     /**
      * Get the root plugin of the API
      *
@@ -1,23 +1,13 @@
 package net.samagames.api.achievements;
 
-import fr.farmvivi.api.commons.Servers;
 import net.samagames.api.SamaGamesAPI;
-import net.samagames.tools.Reflection;
-import net.samagames.tools.chat.fanciful.FancyMessage;
-import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.Color;
-import org.bukkit.FireworkEffect;
-import org.bukkit.entity.Firework;
-import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.FireworkMeta;
-
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
+
 import java.sql.Timestamp;
-import java.time.Instant;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /*
@@ -37,16 +27,18 @@ import java.util.UUID;
  * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
  */
 public class Achievement {
-    private static final FireworkEffect FIREWORK_EFFECT;
-
-    static {
-        FIREWORK_EFFECT = FireworkEffect.builder().with(FireworkEffect.Type.STAR).withColor(Color.BLUE).withColor(Color.AQUA).withColor(Color.WHITE).build();
-    }
-
     protected final int id;
     protected final String displayName;
     protected final AchievementCategory parentCategory;
     protected final String[] description;
+    /**
+     * View of the players' progress on this achievement, kept in the
+     * {@link AchievementProgressStore}. Iterating it gives a snapshot.
+     *
+     * @deprecated Use {@link #getProgress(UUID)}, {@link #addProgress(UUID, long, int, Timestamp, Timestamp)}
+     * and {@link #removeProgress(UUID)}
+     */
+    @Deprecated
     protected Map<UUID, AchievementProgress> progress;
 
     /**
@@ -64,7 +56,7 @@ public class Achievement {
         this.description = new String[description.length];
         for (int i = 0; i < description.length; i++)
             this.description[i] = ChatColor.translateAlternateColorCodes('&', description[i]);
-        this.progress = new HashMap<>();
+        this.progress = new ProgressView();
     }
 
     /**
@@ -76,82 +68,18 @@ public class Achievement {
         if (this instanceof IncrementationAchievement)
             throw new IllegalStateException("Try to unlock incrementation achievement");
 
-        AchievementProgress progress = this.progress.get(player);
-
-        if (progress != null && progress.getUnlockTime() != null)
-            return;
-
-        if (progress == null) {
-            progress = new AchievementProgress(-1, 0, Timestamp.from(Instant.now()), null, true);
-            this.progress.put(player, progress);
-        }
-
-        progress.unlock();
-        progress.setProgress(1);
-
-        this.sendRewardMessage(player);
+        if (this.getStore().unlock(player, this.id))
+            this.sendRewardMessage(player);
     }
 
     /**
-     * Send reward message to player
+     * Send reward message to player, queued to be sent with
+     * the other unlocks of the tick
      *
      * @param uuid Player
      */
     protected void sendRewardMessage(UUID uuid) {
-        Bukkit.getScheduler().runTask(SamaGamesAPI.get().getPlugin(), () ->
-        {
-            Player player = Bukkit.getPlayer(uuid);
-
-            if (player == null)
-                return;
-
-            Reflection.playSound(player, player.getLocation(), Reflection.PackageType.getServerVersion().equals("v1_8_R3") ? "LEVEL_UP" : "ENTITY_PLAYER_LEVELUP", 1L, 1L);
-
-            Firework firework = player.getWorld().spawn(player.getLocation(), Firework.class);
-            FireworkMeta fireworkMeta = firework.getFireworkMeta();
-            fireworkMeta.setPower(2);
-            fireworkMeta.addEffect(FIREWORK_EFFECT);
-            firework.setFireworkMeta(fireworkMeta);
-
-            String[] array = new String[this.description.length + 2];
-            array[0] = ChatColor.AQUA + this.displayName;
-            array[1] = "";
-
-            for (int i = 0; i < this.description.length; i++)
-                array[i + 2] = ChatColor.GRAY + this.description[i];
-
-            StringBuilder finalDisplayName = new StringBuilder();
-
-            for (char letter : this.getDisplayName().toCharArray())
-                finalDisplayName.append(ChatColor.AQUA).append(letter);
-
-            FancyMessage message = new FancyMessage(ChatColor.DARK_AQUA + "\u25A0 ")
-                    .then(ChatColor.AQUA + player.getName())
-                    .then(ChatColor.WHITE + " a débloqué l'objectif : ")
-                    .then(finalDisplayName.toString())
-                    .tooltip(array)
-                    .then(ChatColor.WHITE + " ! ")
-                    .then(ChatColor.DARK_AQUA + "\u25A0");
-
-            try {
-                FancyMessage personalMessage = new FancyMessage(ChatColor.DARK_AQUA + "\u25A0 ")
-                        .then(ChatColor.AQUA + player.getName())
-                        .then(ChatColor.WHITE + " a débloqué l'objectif : ")
-                        .then(finalDisplayName.toString())
-                        .tooltip(array)
-                        .then(ChatColor.WHITE + " ! ")
-                        .then(ChatColor.DARK_AQUA + "[Tweeter]")
-                        .tooltip(ChatColor.AQUA + "Partager sur Twitter")
-                        .link("https://twitter.com/intent/tweet?text=Je+viens+de+d%C3%A9bloquer+l%27objectif+%27" + URLEncoder.encode(this.getDisplayName(), "UTF-8") + "%27+sur+%40" + Servers.DEFAULT.getTwitter() + "+%21")
-                        .then(ChatColor.DARK_AQUA + " \u25A0");
-
-                personalMessage.send(player);
-                Bukkit.getOnlinePlayers().stream().filter(p -> p.getUniqueId() != uuid).forEach(message::send);
-            } catch (UnsupportedEncodingException e) {
-                e.printStackTrace();
-                Bukkit.getOnlinePlayers().forEach(message::send);
-            }
-        });
+        SamaGamesAPI.get().getAchievementAnnouncer().announce(uuid, this);
     }
 
     /**
@@ -197,8 +125,7 @@ public class Achievement {
      * @return {@code true} if unlocked
      */
     public boolean isUnlocked(UUID player) {
-        AchievementProgress progress = this.progress.get(player);
-        return progress != null && progress.getUnlockTime() != null;
+        return this.getStore().isUnlocked(player, this.id);
     }
 
     /**
@@ -211,7 +138,7 @@ public class Achievement {
      * @param unlockTime Unlock time
      */
     public void addProgress(UUID uuid, long progressId, int progress, Timestamp startTime, Timestamp unlockTime) {
-        this.progress.put(uuid, new AchievementProgress(progressId, progress, startTime, unlockTime, false));
+        this.getStore().put(uuid, this.id, new AchievementProgress(progressId, progress, startTime, unlockTime, false));
     }
 
     /**
@@ -220,7 +147,7 @@ public class Achievement {
      * @param uuid Player
      */
     public void removeProgress(UUID uuid) {
-        this.progress.remove(uuid);
+        this.getStore().remove(uuid, this.id);
     }
 
     /**
@@ -230,6 +157,50 @@ public class Achievement {
      * @return Progress
      */
     public AchievementProgress getProgress(UUID uuid) {
-        return this.progress.get(uuid);
+        return this.getStore().get(uuid, this.id);
+    }
+
+    /**
+     * Get the store of the progresses, resolved when first needed so
+     * creating an achievement has no side effect
+     *
+     * @return Store
+     */
+    protected AchievementProgressStore getStore() {
+        return SamaGamesAPI.get().getAchievementProgressStore();
+    }
+
+    private class ProgressView extends AbstractMap<UUID, AchievementProgress> {
+        @Override
+        public AchievementProgress get(Object key) {
+            return key instanceof UUID ? Achievement.this.getStore().get((UUID) key, Achievement.this.id) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return this.get(key) != null;
+        }
+
+        @Override
+        public AchievementProgress put(UUID key, AchievementProgress value) {
+            AchievementProgress previous = this.get(key);
+            Achievement.this.getStore().put(key, Achievement.this.id, value);
+            return previous;
+        }
+
+        @Override
+        public AchievementProgress remove(Object key) {
+            AchievementProgress previous = this.get(key);
+
+            if (previous != null)
+                Achievement.this.getStore().remove((UUID) key, Achievement.this.id);
+
+            return previous;
+        }
+
+        @Override
+        public Set<Entry<UUID, AchievementProgress>> entrySet() {
+            return Collections.unmodifiableMap(Achievement.this.getStore().getAll(Achievement.this.id)).entrySet();
+        }
     }
 }
@@ -0,0 +1,235 @@
+package net.samagames.api.achievements;
+
+import fr.farmvivi.api.commons.Servers;
+import net.samagames.tools.Reflection;
+import net.samagames.tools.chat.fanciful.FancyMessage;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Color;
+import org.bukkit.FireworkEffect;
+import org.bukkit.entity.Firework;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.meta.FireworkMeta;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Queue of the achievement unlock announcements, sent from the main
+ * thread a few at each tick. The unlocks of a same achievement in a
+ * tick are announced to the other players with a single message, and
+ * the fireworks are capped per tick.
+ */
+public class AchievementAnnouncer {
+    private static final FireworkEffect FIREWORK_EFFECT;
+    private static final int MAX_NAMES = 3;
+
+    static {
+        FIREWORK_EFFECT = FireworkEffect.builder().with(FireworkEffect.Type.STAR).withColor(Color.BLUE).withColor(Color.AQUA).withColor(Color.WHITE).build();
+    }
+
+    private final JavaPlugin plugin;
+    private final int maxAnnouncementsPerTick;
+    private final int maxFireworksPerTick;
+    private final Queue<Announcement> queue;
+    private final Map<Achievement, AchievementTexts> texts;
+    private BukkitTask task;
+
+    /**
+     * Constructor
+     *
+     * @param plugin                  Plugin owning the task
+     * @param maxAnnouncementsPerTick Maximum number of unlocks announced in a tick
+     * @param maxFireworksPerTick     Maximum number of fireworks spawned in a tick
+     */
+    public AchievementAnnouncer(JavaPlugin plugin, int maxAnnouncementsPerTick, int maxFireworksPerTick) {
+        this.plugin = plugin;
+        this.maxAnnouncementsPerTick = maxAnnouncementsPerTick;
+        this.maxFireworksPerTick = maxFireworksPerTick;
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.texts = new HashMap<>();
+        this.task = null;
+    }
+
+    /**
+     * Announce that a given player unlocked a given achievement,
+     * can be called from any thread
+     *
+     * @param player      Player
+     * @param achievement Achievement
+     */
+    public void announce(UUID player, Achievement achievement) {
+        this.queue.add(new Announcement(player, achievement));
+        this.schedule();
+    }
+
+    /**
+     * Count the announcements waiting to be sent
+     *
+     * @return Number of announcements
+     */
+    public int getPendingCount() {
+        return this.queue.size();
+    }
+
+    private synchronized void schedule() {
+        if (this.task == null)
+            this.task = Bukkit.getScheduler().runTaskTimer(this.plugin, this::tick, 1L, 1L);
+    }
+
+    private void tick() {
+        Map<Achievement, List<Player>> unlocks = new LinkedHashMap<>();
+
+        for (int i = 0; i < this.maxAnnouncementsPerTick; i++) {
+            Announcement announcement = this.queue.poll();
+
+            if (announcement == null)
+                break;
+
+            Player player = Bukkit.getPlayer(announcement.player);
+
+            if (player != null)
+                unlocks.computeIfAbsent(announcement.achievement, key -> new ArrayList<>()).add(player);
+        }
+
+        int fireworks = 0;
+
+        for (Map.Entry<Achievement, List<Player>> entry : unlocks.entrySet()) {
+            AchievementTexts texts = this.texts.computeIfAbsent(entry.getKey(), AchievementTexts::new);
+            List<Player> players = entry.getValue();
+
+            for (Player player : players) {
+                Reflection.playSound(player, player.getLocation(), Reflection.PackageType.getServerVersion().equals("v1_8_R3") ? "LEVEL_UP" : "ENTITY_PLAYER_LEVELUP", 1L, 1L);
+
+                if (fireworks++ < this.maxFireworksPerTick) {
+                    Firework firework = player.getWorld().spawn(player.getLocation(), Firework.class);
+                    FireworkMeta fireworkMeta = firework.getFireworkMeta();
+                    fireworkMeta.setPower(2);
+                    fireworkMeta.addEffect(FIREWORK_EFFECT);
+                    firework.setFireworkMeta(fireworkMeta);
+                }
+
+                texts.personalMessage(player).send(player);
+            }
+
+            Set<Player> unlockers = new HashSet<>(players);
+            texts.broadcastMessage(players).send(Bukkit.getOnlinePlayers().stream().filter(p -> !unlockers.contains(p)).collect(Collectors.toList()));
+        }
+
+        synchronized (this) {
+            if (this.queue.isEmpty() && this.task != null) {
+                this.task.cancel();
+                this.task = null;
+            }
+        }
+    }
+
+    private static class Announcement {
+        private final UUID player;
+        private final Achievement achievement;
+
+        private Announcement(UUID player, Achievement achievement) {
+            this.player = player;
+            this.achievement = achievement;
+        }
+    }
+
+    /**
+     * Parts of the messages which are the same for every unlock of
+     * an achievement
+     */
+    private static class AchievementTexts {
+        private final String[] tooltip;
+        private final String displayName;
+        private final String twitterLink;
+
+        private AchievementTexts(Achievement achievement) {
+            this.tooltip = new String[achievement.getDescription().length + 2];
+            this.tooltip[0] = ChatColor.AQUA + achievement.getDisplayName();
+            this.tooltip[1] = "";
+
+            for (int i = 0; i < achievement.getDescription().length; i++)
+                this.tooltip[i + 2] = ChatColor.GRAY + achievement.getDescription()[i];
+
+            StringBuilder finalDisplayName = new StringBuilder();
+
+            for (char letter : achievement.getDisplayName().toCharArray())
+                finalDisplayName.append(ChatColor.AQUA).append(letter);
+
+            this.displayName = finalDisplayName.toString();
+
+            String twitterLink;
+
+            try {
+                twitterLink = "https://twitter.com/intent/tweet?text=Je+viens+de+d%C3%A9bloquer+l%27objectif+%27" + URLEncoder.encode(achievement.getDisplayName(), "UTF-8") + "%27+sur+%40" + Servers.DEFAULT.getTwitter() + "+%21";
+            } catch (UnsupportedEncodingException e) {
+                e.printStackTrace();
+                twitterLink = null;
+            }
+
+            this.twitterLink = twitterLink;
+        }
+
+        private FancyMessage personalMessage(Player player) {
+            FancyMessage message = new FancyMessage(ChatColor.DARK_AQUA + "\u25A0 ")
+                    .then(ChatColor.AQUA + player.getName())
+                    .then(ChatColor.WHITE + " a débloqué l'objectif : ")
+                    .then(this.displayName)
+                    .tooltip(this.tooltip)
+                    .then(ChatColor.WHITE + " ! ");
+
+            if (this.twitterLink == null)
+                return message.then(ChatColor.DARK_AQUA + "\u25A0");
+
+            return message.then(ChatColor.DARK_AQUA + "[Tweeter]")
+                    .tooltip(ChatColor.AQUA + "Partager sur Twitter")
+                    .link(this.twitterLink)
+                    .then(ChatColor.DARK_AQUA + " \u25A0");
+        }
+
+        private FancyMessage broadcastMessage(List<Player> players) {
+            StringBuilder names = new StringBuilder();
+            int shown = Math.min(players.size(), MAX_NAMES);
+
+            for (int i = 0; i < shown; i++) {
+                if (i > 0)
+                    names.append(ChatColor.WHITE).append(i == players.size() - 1 ? " et " : ", ");
+
+                names.append(ChatColor.AQUA).append(players.get(i).getName());
+            }
+
+            if (players.size() > shown)
+                names.append(ChatColor.WHITE).append(" et ").append(ChatColor.AQUA).append(players.size() - shown).append(" autres joueurs");
+
+            return new FancyMessage(ChatColor.DARK_AQUA + "\u25A0 ")
+                    .then(names.toString())
+                    .then(ChatColor.WHITE + (players.size() > 1 ? " ont débloqué l'objectif : " : " a débloqué l'objectif : "))
+                    .then(this.displayName)
+                    .tooltip(this.tooltip)
+                    .then(ChatColor.WHITE + " ! ")
+                    .then(ChatColor.DARK_AQUA + "\u25A0");
+        }
+    }
+}
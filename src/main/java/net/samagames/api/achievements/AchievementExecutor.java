@@ -0,0 +1,35 @@
+package net.samagames.api.achievements;
+
+import net.samagames.api.SamaGamesAPI;
+import org.bukkit.Bukkit;
+
+import java.util.concurrent.Executor;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Asynchronous tasks of the plugin running the default
+ * {@link IAchievementManager} methods, so they never hold the threads
+ * of the common pool
+ */
+final class AchievementExecutor {
+    static final Executor INSTANCE = task -> Bukkit.getScheduler().runTaskAsynchronously(SamaGamesAPI.get().getPlugin(), task);
+
+    private AchievementExecutor() {
+    }
+}
@@ -20,11 +20,11 @@ import java.time.Instant;
  * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
  */
 public class AchievementProgress {
-    private final long progressId;
+    private volatile long progressId;
     private final Timestamp startTime;
-    private int progress;
-    private Timestamp unlockTime;
-    private boolean changed;
+    private volatile int progress;
+    private volatile Timestamp unlockTime;
+    private volatile boolean changed;
 
     AchievementProgress(long progressId, int progress, Timestamp startTime, Timestamp unlockTime, boolean changed) {
         this.progressId = progressId;
@@ -80,6 +80,25 @@ public class AchievementProgress {
         return this.progressId;
     }
 
+    /**
+     * Internal
+     * Set the id given by the database once inserted
+     *
+     * @param progressId Id
+     */
+    void setProgressId(long progressId) {
+        this.progressId = progressId;
+    }
+
+    /**
+     * Internal
+     *
+     * @param changed {@code true} if this progress must be written
+     */
+    void setChanged(boolean changed) {
+        this.changed = changed;
+    }
+
     /**
      * Internal
      * Unlock achievement
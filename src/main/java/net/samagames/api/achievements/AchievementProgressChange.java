@@ -0,0 +1,74 @@
+package net.samagames.api.achievements;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * State of a changed achievement progress at the time it was taken
+ * to be written.
+ */
+public class AchievementProgressChange {
+    private final UUID player;
+    private final int achievementId;
+    private final long progressId;
+    private final int progress;
+    private final Timestamp startTime;
+    private final Timestamp unlockTime;
+    final AchievementProgress source;
+
+    AchievementProgressChange(UUID player, int achievementId, AchievementProgress source) {
+        this.player = player;
+        this.achievementId = achievementId;
+        this.progressId = source.getProgressId();
+        this.progress = source.getProgress();
+        this.startTime = source.getStartTime();
+        this.unlockTime = source.getUnlockTime();
+        this.source = source;
+    }
+
+    public UUID getPlayer() {
+        return this.player;
+    }
+
+    public int getAchievementId() {
+        return this.achievementId;
+    }
+
+    /**
+     * Get the progress id in the database
+     *
+     * @return Id, {@code -1} if it must be inserted
+     */
+    public long getProgressId() {
+        return this.progressId;
+    }
+
+    public int getProgress() {
+        return this.progress;
+    }
+
+    public Timestamp getStartTime() {
+        return this.startTime;
+    }
+
+    public Timestamp getUnlockTime() {
+        return this.unlockTime;
+    }
+}
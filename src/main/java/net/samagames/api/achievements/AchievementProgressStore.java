@@ -0,0 +1,725 @@
+package net.samagames.api.achievements;
+
+import net.samagames.api.SamaGamesAPI;
+import net.samagames.api.exceptions.DataNotFoundException;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Progress of the achievements, stored by player. Each player has
+ * his own row indexed by achievement ID, every change of a row is
+ * made under its lock so increments coming from many tasks can't
+ * be lost.
+ * <p>
+ * The rows with changed progresses are kept apart, so a flush
+ * only writes what changed instead of looking at every progress.
+ * The row of a player who left is removed once it was written.
+ */
+public class AchievementProgressStore implements Listener {
+    private final Supplier<List<Achievement>> achievements;
+    private final ConcurrentHashMap<UUID, Row> rows;
+    private final Set<Row> dirty;
+    private final Set<UUID> leaving;
+    private volatile Achievement[] index;
+    private volatile int indexedCount;
+    private volatile IAchievementProgressWriter writer;
+    private BukkitTask flushTask;
+
+    /**
+     * Constructor
+     *
+     * @param achievements Supplier of all the achievements, used to
+     *                     index them by ID
+     */
+    public AchievementProgressStore(Supplier<List<Achievement>> achievements) {
+        this.achievements = achievements;
+        this.rows = new ConcurrentHashMap<>();
+        this.dirty = ConcurrentHashMap.newKeySet();
+        this.leaving = ConcurrentHashMap.newKeySet();
+        this.index = new Achievement[0];
+        this.indexedCount = -1;
+    }
+
+    /**
+     * Get the achievement with the given ID without searching
+     * the list of achievements
+     *
+     * @param id ID
+     * @return Achievement
+     * @throws DataNotFoundException If no achievement has this ID
+     */
+    public Achievement getAchievement(int id) throws DataNotFoundException {
+        Achievement achievement = this.lookup(id);
+
+        if (achievement == null) {
+            this.reindex();
+            achievement = this.lookup(id);
+        }
+
+        if (achievement == null)
+            throw new DataNotFoundException("Achievement " + id + " not found");
+
+        return achievement;
+    }
+
+    /**
+     * Get the progress of a given player on a given achievement
+     *
+     * @param player      Player
+     * @param achievement Achievement's ID
+     * @return Progress, {@code null} if none
+     */
+    public AchievementProgress get(UUID player, int achievement) {
+        Row row = this.rows.get(player);
+
+        if (row == null)
+            return null;
+
+        synchronized (row) {
+            return row.get(achievement);
+        }
+    }
+
+    /**
+     * Know if a given player unlocked a given achievement
+     *
+     * @param player      Player
+     * @param achievement Achievement's ID
+     * @return {@code true} if unlocked
+     */
+    public boolean isUnlocked(UUID player, int achievement) {
+        AchievementProgress progress = this.get(player, achievement);
+        return progress != null && progress.getUnlockTime() != null;
+    }
+
+    /**
+     * Set the progress of a given player on a given achievement, as
+     * loaded from the database
+     *
+     * @param player      Player
+     * @param achievement Achievement's ID
+     * @param progress    Progress
+     */
+    public void put(UUID player, int achievement, AchievementProgress progress) {
+        while (true) {
+            Row row = this.rows.computeIfAbsent(player, Row::new);
+
+            synchronized (row) {
+                if (row.removed)
+                    continue;
+
+                row.put(achievement, progress);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remove the progress of a given player on a given achievement
+     *
+     * @param player      Player
+     * @param achievement Achievement's ID
+     */
+    public void remove(UUID player, int achievement) {
+        Row row = this.rows.get(player);
+
+        if (row == null)
+            return;
+
+        synchronized (row) {
+            row.remove(achievement);
+
+            if (row.size == 0 && !row.removed) {
+                row.removed = true;
+                this.rows.remove(player, row);
+            }
+        }
+    }
+
+    /**
+     * Remove the progress of a given player on every achievement,
+     * what was not flushed yet will still be written by the next
+     * flush
+     *
+     * @param player Player
+     */
+    public void removePlayer(UUID player) {
+        Row row = this.rows.get(player);
+
+        if (row == null)
+            return;
+
+        synchronized (row) {
+            row.removed = true;
+            this.rows.remove(player, row);
+        }
+    }
+
+    /**
+     * Unlock a given achievement for a given player
+     *
+     * @param player      Player
+     * @param achievement Achievement's ID
+     * @return {@code true} if it was not unlocked before
+     */
+    public boolean unlock(UUID player, int achievement) {
+        while (true) {
+            Row row = this.rows.computeIfAbsent(player, Row::new);
+
+            synchronized (row) {
+                if (row.removed)
+                    continue;
+
+                boolean unlocked = row.unlock(achievement, 1);
+                this.markDirty(row);
+
+                return unlocked;
+            }
+        }
+    }
+
+    /**
+     * Increase the progress of a given player on a given achievement,
+     * and unlock it once the progress goes past the objective
+     *
+     * @param player      Player
+     * @param achievement Achievement's ID
+     * @param amount      Amount
+     * @param objective   Objective to unlock the achievement
+     * @return {@code true} if this increment unlocked the achievement
+     */
+    public boolean increment(UUID player, int achievement, int amount, int objective) {
+        while (true) {
+            Row row = this.rows.computeIfAbsent(player, Row::new);
+
+            synchronized (row) {
+                if (row.removed)
+                    continue;
+
+                boolean unlocked = row.increment(achievement, amount, objective);
+                this.markDirty(row);
+
+                return unlocked;
+            }
+        }
+    }
+
+    /**
+     * Increase the progress of a given player on many achievements in
+     * one pass on his row. Achievements which are not incrementation
+     * ones are unlocked. The reward messages are sent once the row is
+     * released.
+     *
+     * @param player       Player
+     * @param achievements Achievements' ID
+     * @param amount       Amount
+     * @return Achievements unlocked by this increment
+     * @throws DataNotFoundException If an achievement doesn't exist,
+     *                               nothing was increased
+     */
+    public List<Achievement> incrementAchievements(UUID player, int[] achievements, int amount) throws DataNotFoundException {
+        int[] amounts = new int[achievements.length];
+        Arrays.fill(amounts, amount);
+
+        return this.incrementAchievements(player, achievements, amounts);
+    }
+
+    /**
+     * Increase the progress of a given player on many achievements in
+     * one pass on his row, each with its own amount
+     *
+     * @param player       Player
+     * @param achievements Achievements' ID
+     * @param amounts      Amount of each achievement
+     * @return Achievements unlocked by this increment
+     * @throws DataNotFoundException If an achievement doesn't exist,
+     *                               nothing was increased
+     */
+    public List<Achievement> incrementAchievements(UUID player, int[] achievements, int[] amounts) throws DataNotFoundException {
+        if (achievements.length != amounts.length)
+            throw new IllegalArgumentException("One amount is expected for each achievement");
+
+        Achievement[] resolved = new Achievement[achievements.length];
+
+        for (int i = 0; i < achievements.length; i++)
+            resolved[i] = this.getAchievement(achievements[i]);
+
+        List<Achievement> unlocked = new ArrayList<>();
+
+        while (true) {
+            Row row = this.rows.computeIfAbsent(player, Row::new);
+
+            synchronized (row) {
+                if (row.removed)
+                    continue;
+
+                for (int i = 0; i < resolved.length; i++) {
+                    Achievement achievement = resolved[i];
+                    boolean changed;
+
+                    if (achievement instanceof IncrementationAchievement)
+                        changed = row.increment(achievement.getID(), amounts[i], ((IncrementationAchievement) achievement).getObjective());
+                    else
+                        changed = row.unlock(achievement.getID(), 1);
+
+                    if (changed)
+                        unlocked.add(achievement);
+                }
+
+                this.markDirty(row);
+                break;
+            }
+        }
+
+        unlocked.forEach(achievement -> achievement.sendRewardMessage(player));
+        return unlocked;
+    }
+
+    /**
+     * Unlock many achievements of a given player in one pass on his
+     * row, incrementation achievements being completed up to their
+     * objective. The reward messages are sent once the row is released.
+     *
+     * @param player       Player
+     * @param achievements Achievements' ID
+     * @return Achievements unlocked by this call
+     * @throws DataNotFoundException If an achievement doesn't exist,
+     *                               nothing was unlocked
+     */
+    public List<Achievement> unlockAchievements(UUID player, int[] achievements) throws DataNotFoundException {
+        Achievement[] resolved = new Achievement[achievements.length];
+
+        for (int i = 0; i < achievements.length; i++)
+            resolved[i] = this.getAchievement(achievements[i]);
+
+        List<Achievement> unlocked = new ArrayList<>();
+
+        while (true) {
+            Row row = this.rows.computeIfAbsent(player, Row::new);
+
+            synchronized (row) {
+                if (row.removed)
+                    continue;
+
+                for (Achievement achievement : resolved)
+                    if (row.unlock(achievement.getID(), achievement instanceof IncrementationAchievement ? ((IncrementationAchievement) achievement).getObjective() : 1))
+                        unlocked.add(achievement);
+
+                this.markDirty(row);
+                break;
+            }
+        }
+
+        unlocked.forEach(achievement -> achievement.sendRewardMessage(player));
+        return unlocked;
+    }
+
+    /**
+     * Get the progress of every player on a given achievement
+     *
+     * @param achievement Achievement's ID
+     * @return Copy of the progresses, by player
+     */
+    public Map<UUID, AchievementProgress> getAll(int achievement) {
+        Map<UUID, AchievementProgress> result = new HashMap<>();
+
+        for (Row row : this.rows.values()) {
+            synchronized (row) {
+                AchievementProgress progress = row.get(achievement);
+
+                if (progress != null)
+                    result.put(row.player, progress);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Set the writer used by {@link #flushDirty()}
+     *
+     * @param writer Writer
+     */
+    public void setWriter(IAchievementProgressWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Know if a writer was set
+     *
+     * @return {@code true} if {@link #flushDirty()} can be called
+     */
+    public boolean hasWriter() {
+        return this.writer != null;
+    }
+
+    /**
+     * Write the changed progresses with the writer set by
+     * {@link #setWriter(IAchievementProgressWriter)}
+     *
+     * @return {@code true} if everything was written, {@code false}
+     * if a write failed
+     * @throws IllegalStateException If no writer is set
+     */
+    public boolean flushDirty() {
+        IAchievementProgressWriter writer = this.writer;
+
+        if (writer == null)
+            throw new IllegalStateException("No achievement progress writer is set");
+
+        return this.flushDirty(writer);
+    }
+
+    /**
+     * Write the changed progresses: one insert for the progresses
+     * which are not in the database yet and one update for the
+     * others. If a write fails, its progresses stay changed to be
+     * written by the next flush.
+     *
+     * @param writer Writer
+     * @return {@code true} if everything was written
+     */
+    public synchronized boolean flushDirty(IAchievementProgressWriter writer) {
+        List<AchievementProgressChange> inserts = new ArrayList<>();
+        List<Row> insertRows = new ArrayList<>();
+        List<AchievementProgressChange> updates = new ArrayList<>();
+        List<Row> updateRows = new ArrayList<>();
+
+        for (Row row : this.dirty) {
+            if (!this.dirty.remove(row))
+                continue;
+
+            synchronized (row) {
+                row.collect(inserts, insertRows, updates, updateRows);
+            }
+        }
+
+        boolean written = true;
+
+        if (!inserts.isEmpty()) {
+            try {
+                long[] ids = writer.insert(Collections.unmodifiableList(inserts));
+
+                if (ids == null || ids.length != inserts.size())
+                    throw new IllegalStateException("Expected " + inserts.size() + " progress ids");
+
+                for (int i = 0; i < ids.length; i++)
+                    inserts.get(i).source.setProgressId(ids[i]);
+            } catch (Exception e) {
+                this.restore(inserts, insertRows);
+                SamaGamesAPI.get().getPlugin().getLogger().log(Level.WARNING, "Failed to insert " + inserts.size() + " achievement progresses, kept for the next flush", e);
+                written = false;
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            try {
+                writer.update(Collections.unmodifiableList(updates));
+            } catch (Exception e) {
+                this.restore(updates, updateRows);
+                SamaGamesAPI.get().getPlugin().getLogger().log(Level.WARNING, "Failed to update " + updates.size() + " achievement progresses, kept for the next flush", e);
+                written = false;
+            }
+        }
+
+        this.removeLeaving();
+        return written;
+    }
+
+    /**
+     * Count the players with changed progresses
+     *
+     * @return Number of rows
+     */
+    public int getDirtyCount() {
+        return this.dirty.size();
+    }
+
+    /**
+     * Flush the changed progresses at a fixed rate
+     *
+     * @param plugin      Plugin owning the task
+     * @param periodTicks Period between two flushes
+     * @throws IllegalStateException If no writer is set
+     */
+    public synchronized void start(JavaPlugin plugin, long periodTicks) {
+        if (this.writer == null)
+            throw new IllegalStateException("No achievement progress writer is set");
+
+        if (this.flushTask == null)
+            this.flushTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> this.flushDirty(), periodTicks, periodTicks);
+    }
+
+    /**
+     * Stop the periodic flush and write what changed
+     */
+    public synchronized void stop() {
+        if (this.flushTask != null) {
+            this.flushTask.cancel();
+            this.flushTask = null;
+        }
+
+        if (this.writer != null)
+            this.flushDirty();
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        this.leaving.remove(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        UUID player = event.getPlayer().getUniqueId();
+
+        // Without a writer the progresses are left to the achievement manager, nothing waits for a flush
+        if (this.writer == null)
+            this.removePlayer(player);
+        else
+            this.leaving.add(player);
+    }
+
+    private void removeLeaving() {
+        for (UUID player : this.leaving) {
+            Row row = this.rows.get(player);
+
+            if (row != null) {
+                synchronized (row) {
+                    // Changed again since the flush, kept for the next one
+                    if (row.changed || this.dirty.contains(row))
+                        continue;
+
+                    row.removed = true;
+                    this.rows.remove(player, row);
+                }
+            }
+
+            this.leaving.remove(player);
+        }
+    }
+
+    private void markDirty(Row row) {
+        if (row.changed) {
+            row.changed = false;
+            this.dirty.add(row);
+        }
+    }
+
+    private void restore(List<AchievementProgressChange> changes, List<Row> rows) {
+        for (int i = 0; i < changes.size(); i++) {
+            Row row = rows.get(i);
+
+            synchronized (row) {
+                changes.get(i).source.setChanged(true);
+                this.dirty.add(row);
+            }
+        }
+    }
+
+    private Achievement lookup(int id) {
+        Achievement[] index = this.index;
+        return id >= 0 && id < index.length ? index[id] : null;
+    }
+
+    private synchronized void reindex() {
+        List<Achievement> achievements = this.achievements.get();
+
+        if (achievements == null || achievements.size() == this.indexedCount)
+            return;
+
+        int max = -1;
+
+        for (Achievement achievement : achievements)
+            max = Math.max(max, achievement.getID());
+
+        Achievement[] index = new Achievement[max + 1];
+
+        for (Achievement achievement : achievements)
+            if (achievement.getID() >= 0)
+                index[achievement.getID()] = achievement;
+
+        this.index = index;
+        this.indexedCount = achievements.size();
+    }
+
+    /**
+     * Progress of a player, open addressing table keyed by
+     * achievement ID
+     */
+    private static final class Row {
+        private final UUID player;
+        private int[] keys;
+        private AchievementProgress[] values;
+        private int size;
+        private boolean removed;
+        private boolean changed;
+
+        private Row(UUID player) {
+            this.player = player;
+            this.keys = new int[16];
+            this.values = new AchievementProgress[16];
+            this.size = 0;
+            this.removed = false;
+            this.changed = false;
+        }
+
+        private AchievementProgress get(int key) {
+            int mask = this.keys.length - 1;
+
+            for (int slot = mix(key) & mask; this.values[slot] != null; slot = (slot + 1) & mask)
+                if (this.keys[slot] == key)
+                    return this.values[slot];
+
+            return null;
+        }
+
+        private void put(int key, AchievementProgress value) {
+            if ((this.size + 1) * 2 > this.keys.length)
+                this.resize(this.keys.length * 2);
+
+            int mask = this.keys.length - 1;
+            int slot = mix(key) & mask;
+
+            while (this.values[slot] != null && this.keys[slot] != key)
+                slot = (slot + 1) & mask;
+
+            if (this.values[slot] == null)
+                this.size++;
+
+            this.keys[slot] = key;
+            this.values[slot] = value;
+        }
+
+        private void remove(int key) {
+            int mask = this.keys.length - 1;
+            int slot = mix(key) & mask;
+
+            while (this.values[slot] != null && this.keys[slot] != key)
+                slot = (slot + 1) & mask;
+
+            if (this.values[slot] == null)
+                return;
+
+            this.values[slot] = null;
+            this.size--;
+
+            for (int next = (slot + 1) & mask; this.values[next] != null; next = (next + 1) & mask) {
+                int home = mix(this.keys[next]) & mask;
+
+                if (((next - home) & mask) >= ((next - slot) & mask)) {
+                    this.keys[slot] = this.keys[next];
+                    this.values[slot] = this.values[next];
+                    this.values[next] = null;
+                    slot = next;
+                }
+            }
+        }
+
+        private boolean increment(int key, int amount, int objective) {
+            AchievementProgress progress = this.get(key);
+
+            if (progress == null) {
+                progress = new AchievementProgress(-1, 0, Timestamp.from(Instant.now()), null, true);
+                this.put(key, progress);
+            }
+
+            if (progress.getUnlockTime() != null)
+                return false;
+
+            this.changed = true;
+
+            if ((long) progress.getProgress() + amount > objective) {
+                progress.setProgress(objective);
+                progress.unlock();
+                return true;
+            }
+
+            progress.setProgress(progress.getProgress() + amount);
+            return false;
+        }
+
+        private boolean unlock(int key, int value) {
+            AchievementProgress progress = this.get(key);
+
+            if (progress == null) {
+                progress = new AchievementProgress(-1, 0, Timestamp.from(Instant.now()), null, true);
+                this.put(key, progress);
+            }
+
+            if (progress.getUnlockTime() != null)
+                return false;
+
+            this.changed = true;
+            progress.unlock();
+            progress.setProgress(value);
+            return true;
+        }
+
+        private void collect(List<AchievementProgressChange> inserts, List<Row> insertRows, List<AchievementProgressChange> updates, List<Row> updateRows) {
+            for (int i = 0; i < this.keys.length; i++) {
+                AchievementProgress progress = this.values[i];
+
+                if (progress == null || !progress.isChanged())
+                    continue;
+
+                progress.setChanged(false);
+
+                if (progress.getProgressId() == -1) {
+                    inserts.add(new AchievementProgressChange(this.player, this.keys[i], progress));
+                    insertRows.add(this);
+                } else {
+                    updates.add(new AchievementProgressChange(this.player, this.keys[i], progress));
+                    updateRows.add(this);
+                }
+            }
+        }
+
+        private void resize(int capacity) {
+            int[] keys = this.keys;
+            AchievementProgress[] values = this.values;
+
+            this.keys = new int[capacity];
+            this.values = new AchievementProgress[capacity];
+            this.size = 0;
+
+            for (int i = 0; i < keys.length; i++)
+                if (values[i] != null)
+                    this.put(keys[i], values[i]);
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
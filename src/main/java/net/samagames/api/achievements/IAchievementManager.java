@@ -2,8 +2,11 @@ package net.samagames.api.achievements;
 
 import net.samagames.api.exceptions.DataNotFoundException;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /*
  * This file is part of SamaGamesAPI.
@@ -96,4 +99,103 @@ public interface IAchievementManager {
      * @return {@code true} if unlocked
      */
     boolean isUnlocked(UUID player, int id) throws DataNotFoundException;
+
+    /**
+     * Increase the progress of a given achievement to a given player,
+     * out of the main thread
+     *
+     * @param player      Player
+     * @param achievement Achievement's ID
+     * @param amount      Amount
+     * @return Future completed when increased, exceptionally with a
+     * {@link DataNotFoundException} if the achievement doesn't exist
+     */
+    default CompletableFuture<Void> incrementAchievementAsync(UUID player, int achievement, int amount) {
+        return CompletableFuture.runAsync(() ->
+        {
+            try {
+                this.incrementAchievement(player, achievement, amount);
+            } catch (DataNotFoundException e) {
+                throw new CompletionException(e);
+            }
+        }, AchievementExecutor.INSTANCE);
+    }
+
+    /**
+     * Return if the given player has unlocked the given achievement
+     * ID, out of the main thread
+     *
+     * @param player Player
+     * @param id     Achievement's ID
+     * @return Future of {@code true} if unlocked, completed
+     * exceptionally with a {@link DataNotFoundException} if the
+     * achievement doesn't exist
+     */
+    default CompletableFuture<Boolean> isUnlockedAsync(UUID player, int id) {
+        return CompletableFuture.supplyAsync(() ->
+        {
+            try {
+                return this.isUnlocked(player, id);
+            } catch (DataNotFoundException e) {
+                throw new CompletionException(e);
+            }
+        }, AchievementExecutor.INSTANCE);
+    }
+
+    /**
+     * Increase the progress of many achievements to many players, out
+     * of the main thread
+     *
+     * @param players      Players
+     * @param achievements Achievements' ID
+     * @param amount       Amount
+     * @return Future completed when increased, exceptionally with a
+     * {@link DataNotFoundException} if an achievement doesn't exist
+     */
+    default CompletableFuture<Void> incrementAchievementsAsync(Collection<UUID> players, int[] achievements, int amount) {
+        return CompletableFuture.runAsync(() ->
+        {
+            try {
+                for (UUID player : players)
+                    this.incrementAchievements(player, achievements, amount);
+            } catch (DataNotFoundException e) {
+                throw new CompletionException(e);
+            }
+        }, AchievementExecutor.INSTANCE);
+    }
+
+    /**
+     * Unlock many achievements to many players, incrementation
+     * achievements being completed up to their objective, out of the
+     * main thread
+     *
+     * @param players      Players
+     * @param achievements Achievements' ID
+     * @return Future completed when unlocked, exceptionally with a
+     * {@link DataNotFoundException} if an achievement doesn't exist
+     */
+    default CompletableFuture<Void> unlockAchievementsAsync(Collection<UUID> players, int[] achievements) {
+        return CompletableFuture.runAsync(() ->
+        {
+            try {
+                for (int id : achievements) {
+                    Achievement achievement = this.getAchievementByID(id);
+
+                    for (UUID player : players) {
+                        if (achievement instanceof IncrementationAchievement) {
+                            IncrementationAchievement incrementation = (IncrementationAchievement) achievement;
+                            int missing = incrementation.getObjective() - incrementation.getActualState(player);
+
+                            if (missing > 0)
+                                this.incrementAchievement(player, incrementation, missing);
+                        } else if (!this.isUnlocked(player, achievement)) {
+                            achievement.unlock(player);
+                        }
+                    }
+                }
+            } catch (DataNotFoundException e) {
+                throw new CompletionException(e);
+            }
+        }, AchievementExecutor.INSTANCE);
+    }
 }
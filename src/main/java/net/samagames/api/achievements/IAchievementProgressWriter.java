@@ -0,0 +1,40 @@
+package net.samagames.api.achievements;
+
+import java.util.List;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public interface IAchievementProgressWriter {
+    /**
+     * Insert progresses which are not in the database yet, in a
+     * single batched write
+     *
+     * @param changes Progresses to insert
+     * @return Progress id given to each progress, in the same order
+     * @throws Exception If the write failed, nothing was inserted
+     */
+    long[] insert(List<AchievementProgressChange> changes) throws Exception;
+
+    /**
+     * Update progresses already in the database, in a single batched
+     * write
+     *
+     * @param changes Progresses to update
+     * @throws Exception If the write failed, nothing was updated
+     */
+    void update(List<AchievementProgressChange> changes) throws Exception;
+}
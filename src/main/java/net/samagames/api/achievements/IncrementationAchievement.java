@@ -1,7 +1,5 @@
 package net.samagames.api.achievements;
 
-import java.sql.Timestamp;
-import java.time.Instant;
 import java.util.UUID;
 
 /*
@@ -44,20 +42,8 @@ public class IncrementationAchievement extends Achievement {
      * @param amount Amount
      */
     public void increment(UUID player, int amount) {
-        AchievementProgress progress = this.progress.get(player);
-
-        if (progress == null) {
-            progress = new AchievementProgress(-1, 0, Timestamp.from(Instant.now()), null, true);
-            this.progress.put(player, progress);
-        }
-
-        if (progress.getProgress() + amount > this.objective && progress.getUnlockTime() == null) {
-            progress.unlock();
-            progress.setProgress(this.objective);
+        if (this.getStore().increment(player, this.id, amount, this.objective))
             this.sendRewardMessage(player);
-        } else if (progress.getUnlockTime() == null) {
-            progress.setProgress(progress.getProgress() + amount);
-        }
     }
 
     /**
@@ -67,7 +53,7 @@ public class IncrementationAchievement extends Achievement {
      * @return Actual progress
      */
     public int getActualState(UUID player) {
-        AchievementProgress progress = this.progress.get(player);
+        AchievementProgress progress = this.getStore().get(player, this.id);
         return progress == null ? 0 : progress.getProgress();
     }
 
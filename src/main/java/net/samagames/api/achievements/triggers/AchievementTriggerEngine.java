@@ -0,0 +1,168 @@
+package net.samagames.api.achievements.triggers;
+
+import net.samagames.api.achievements.AchievementProgressStore;
+import net.samagames.api.exceptions.DataNotFoundException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Rules linking the game events to the achievements. When an event is
+ * fired, every rule registered for its class is evaluated and all the
+ * matching achievements are increased in one pass on the player's
+ * progress.
+ * <p>
+ * Games can register their own rules, without editing the game end.
+ */
+public class AchievementTriggerEngine {
+    private final AchievementProgressStore store;
+    private final Map<Class<? extends AchievementEvent>, List<Rule>> rules;
+
+    /**
+     * Constructor
+     *
+     * @param store Progress of the players on the achievements
+     */
+    public AchievementTriggerEngine(AchievementProgressStore store) {
+        this.store = store;
+        this.rules = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Register the rules of the network achievements: wins, coins and
+     * players met
+     *
+     * @return This instance
+     */
+    public AchievementTriggerEngine registerDefaults() {
+        this.registerUnlock(GameWinEvent.class, 25, event -> true);
+
+        for (int id : new int[]{26, 27, 28, 29})
+            this.registerIncrement(GameWinEvent.class, id, event -> 1);
+
+        this.registerUnlock(GameEndEvent.class, 13, event -> event.getContext().wasACoupaing());
+        this.registerUnlock(GameEndEvent.class, 14, event -> event.getContext().wasASamAllie());
+        this.registerUnlock(GameEndEvent.class, 15, event -> event.getContext().wasAStaffMember());
+        this.registerUnlock(GameEndEvent.class, 16, event -> event.getContext().wasAGameCreator());
+        this.registerUnlock(GameEndEvent.class, 17, event -> event.getContext().wasAnHidden());
+
+        for (int id : new int[]{30, 31, 32, 33, 34})
+            this.registerIncrement(CoinsEarnedEvent.class, id, CoinsEarnedEvent::getCoins);
+
+        return this;
+    }
+
+    /**
+     * Unlock an achievement when an event matches a predicate
+     *
+     * @param type        Class of the event
+     * @param achievement Achievement's ID
+     * @param predicate   Predicate
+     * @param <E>         Type of the event
+     */
+    public <E extends AchievementEvent> void registerUnlock(Class<E> type, int achievement, Predicate<? super E> predicate) {
+        this.registerIncrement(type, achievement, event -> predicate.test(event) ? 1 : 0);
+    }
+
+    /**
+     * Increase an achievement by an amount computed from an event,
+     * nothing is done when the amount is not positive
+     *
+     * @param type        Class of the event
+     * @param achievement Achievement's ID
+     * @param amount      Amount
+     * @param <E>         Type of the event
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends AchievementEvent> void registerIncrement(Class<E> type, int achievement, ToIntFunction<? super E> amount) {
+        this.rules.computeIfAbsent(type, key -> new CopyOnWriteArrayList<>()).add(new Rule(achievement, (ToIntFunction<AchievementEvent>) amount));
+    }
+
+    /**
+     * Remove the rules of an achievement
+     *
+     * @param achievement Achievement's ID
+     */
+    public void unregister(int achievement) {
+        this.rules.values().forEach(rules -> rules.removeIf(rule -> rule.achievement == achievement));
+    }
+
+    /**
+     * Evaluate the rules registered for the class of an event and
+     * increase the matching achievements
+     *
+     * @param event Event
+     */
+    public void fire(AchievementEvent event) {
+        List<Rule> rules = this.rules.get(event.getClass());
+
+        if (rules == null)
+            return;
+
+        int[] achievements = new int[rules.size()];
+        int[] amounts = new int[rules.size()];
+        int matched = 0;
+
+        for (Rule rule : rules) {
+            if (matched == achievements.length)
+                break;
+
+            int amount = rule.amount.applyAsInt(event);
+
+            if (amount > 0) {
+                achievements[matched] = rule.achievement;
+                amounts[matched] = amount;
+                matched++;
+            }
+        }
+
+        if (matched == 0)
+            return;
+
+        try {
+            this.store.incrementAchievements(event.getPlayer(), Arrays.copyOf(achievements, matched), Arrays.copyOf(amounts, matched));
+        } catch (DataNotFoundException e) {
+            e.printStackTrace();
+
+            // An unknown achievement must not prevent the others from progressing
+            for (int i = 0; i < matched; i++) {
+                try {
+                    this.store.incrementAchievements(event.getPlayer(), new int[]{achievements[i]}, new int[]{amounts[i]});
+                } catch (DataNotFoundException ignored) {
+                }
+            }
+        }
+    }
+
+    private static class Rule {
+        private final int achievement;
+        private final ToIntFunction<AchievementEvent> amount;
+
+        private Rule(int achievement, ToIntFunction<AchievementEvent> amount) {
+            this.achievement = achievement;
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package net.samagames.api.achievements.triggers;
+
+import java.util.UUID;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Coins earned by a player during the game, fired at its end
+ */
+public class CoinsEarnedEvent extends AchievementEvent {
+    private final int coins;
+
+    /**
+     * Constructor
+     *
+     * @param player Player
+     * @param coins  Coins earned
+     */
+    public CoinsEarnedEvent(UUID player, int coins) {
+        super(player);
+        this.coins = coins;
+    }
+
+    public int getCoins() {
+        return this.coins;
+    }
+}
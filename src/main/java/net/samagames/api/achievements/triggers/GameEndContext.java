@@ -0,0 +1,67 @@
+package net.samagames.api.achievements.triggers;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Who was in the game, computed once at its end for all the players
+ */
+public class GameEndContext {
+    private final boolean staffMember;
+    private final boolean gameCreator;
+    private final boolean coupaing;
+    private final boolean samAllie;
+    private final boolean hidden;
+
+    /**
+     * Constructor
+     *
+     * @param staffMember {@code true} if a staff member played
+     * @param gameCreator {@code true} if a creator of the game played
+     * @param coupaing    {@code true} if a Coupaing played
+     * @param samAllie    {@code true} if a SamAllié played
+     * @param hidden      {@code true} if a Coupaing or a SamAllié played
+     *                    with a nickname
+     */
+    public GameEndContext(boolean staffMember, boolean gameCreator, boolean coupaing, boolean samAllie, boolean hidden) {
+        this.staffMember = staffMember;
+        this.gameCreator = gameCreator;
+        this.coupaing = coupaing;
+        this.samAllie = samAllie;
+        this.hidden = hidden;
+    }
+
+    public boolean wasAStaffMember() {
+        return this.staffMember;
+    }
+
+    public boolean wasAGameCreator() {
+        return this.gameCreator;
+    }
+
+    public boolean wasACoupaing() {
+        return this.coupaing;
+    }
+
+    public boolean wasASamAllie() {
+        return this.samAllie;
+    }
+
+    public boolean wasAnHidden() {
+        return this.hidden;
+    }
+}
@@ -0,0 +1,42 @@
+package net.samagames.api.achievements.triggers;
+
+import java.util.UUID;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * The game ended for a player still online
+ */
+public class GameEndEvent extends AchievementEvent {
+    private final GameEndContext context;
+
+    /**
+     * Constructor
+     *
+     * @param player  Player
+     * @param context Context of the game, shared by all the players
+     */
+    public GameEndEvent(UUID player, GameEndContext context) {
+        super(player);
+        this.context = context;
+    }
+
+    public GameEndContext getContext() {
+        return this.context;
+    }
+}
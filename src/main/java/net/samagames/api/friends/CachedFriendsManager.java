@@ -0,0 +1,270 @@
+package net.samagames.api.friends;
+
+import net.samagames.api.names.IUUIDTranslator;
+import net.samagames.api.pubsub.IPacketsReceiver;
+import net.samagames.api.pubsub.IPubSubAPI;
+import net.samagames.tools.UUIDSet;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Friends manager keeping the friends of each player in memory, loaded
+ * from the wrapped manager. The names are only translated when they
+ * are asked.
+ * <p>
+ * The friends of a player are forgotten when he leaves the server, after
+ * a time to live, and when a friendship of him is created or removed.
+ * The expired ones of the players who are not online are removed by
+ * {@link #cleanUp()}.
+ * The changes are announced on the {@link #CHANNEL} channel as
+ * {@code <origin>/<player one>/<player two>}, which is also to be sent by
+ * the proxy when it accepts a friend request.
+ */
+public class CachedFriendsManager implements IFriendsManager, IPacketsReceiver, Listener {
+    public static final String CHANNEL = "friends.changes";
+
+    private final IFriendsManager delegate;
+    private final IUUIDTranslator translator;
+    private final IPubSubAPI pubSub;
+    private final String origin;
+    private final Logger logger;
+    private final long timeToLiveNanos;
+    private final Map<UUID, Entry> friends;
+
+    /**
+     * Constructor
+     *
+     * @param delegate   Manager reading the friends from the database
+     * @param translator Translator used for the names
+     * @param pubSub     PubSub used to announce the changes, {@code null}
+     *                   to keep them on this server
+     * @param origin     Name of this server, to ignore its own changes
+     * @param logger     Logger
+     * @param timeToLive Time after which the friends of a player are
+     *                   loaded again
+     * @param unit       Unit of the time to live
+     */
+    public CachedFriendsManager(IFriendsManager delegate, IUUIDTranslator translator, IPubSubAPI pubSub, String origin, Logger logger, long timeToLive, TimeUnit unit) {
+        if (timeToLive <= 0)
+            throw new IllegalArgumentException("Time to live must be positive");
+
+        this.delegate = delegate;
+        this.translator = translator;
+        this.pubSub = pubSub;
+        this.origin = origin;
+        this.logger = logger;
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+        this.friends = new ConcurrentHashMap<>();
+
+        if (pubSub != null)
+            pubSub.subscribe(CHANNEL, this);
+    }
+
+    /**
+     * Get the friends of a given player, loaded on first use
+     *
+     * @param player Player
+     * @return Immutable set of UUID
+     */
+    public UUIDSet getFriends(UUID player) {
+        UUIDSet cached = this.getCached(player);
+
+        if (cached != null)
+            return cached;
+
+        // Removed by an invalidation of this player during the load, so a change it may miss is not kept
+        Entry loading = new Entry(null, System.nanoTime());
+        this.friends.put(player, loading);
+
+        UUIDSet friends;
+
+        try {
+            List<UUID> loaded = this.delegate.uuidFriendsList(player);
+            friends = loaded == null ? UUIDSet.EMPTY : new UUIDSet(loaded);
+        } catch (RuntimeException e) {
+            this.friends.remove(player, loading);
+            throw e;
+        }
+
+        this.friends.replace(player, loading, new Entry(friends, System.nanoTime()));
+        return friends;
+    }
+
+    @Override
+    public boolean areFriends(UUID p1, UUID p2) {
+        UUIDSet cached = this.getCached(p2);
+
+        // The friendships go both ways, so the other player's friends will do
+        if (cached != null && this.getCached(p1) == null)
+            return cached.contains(p1);
+
+        return this.getFriends(p1).contains(p2);
+    }
+
+    @Override
+    public List<String> namesFriendsList(UUID asking) {
+        UUIDSet friends = this.getFriends(asking);
+        List<String> names = new ArrayList<>(friends.size());
+
+        for (UUID friend : friends) {
+            String name = this.translator.getName(friend);
+
+            if (name != null)
+                names.add(name);
+        }
+
+        return names;
+    }
+
+    @Override
+    public List<UUID> uuidFriendsList(UUID asking) {
+        return new ArrayList<>(this.getFriends(asking));
+    }
+
+    @Override
+    public Map<UUID, String> associatedFriendsList(UUID asking) {
+        UUIDSet friends = this.getFriends(asking);
+        Map<UUID, String> associated = new HashMap<>();
+
+        for (UUID friend : friends) {
+            String name = this.translator.getName(friend);
+
+            if (name != null)
+                associated.put(friend, name);
+        }
+
+        return associated;
+    }
+
+    @Override
+    public List<String> requests(UUID asking) {
+        return this.delegate.requests(asking);
+    }
+
+    @Override
+    public List<String> sentRequests(UUID asking) {
+        return this.delegate.sentRequests(asking);
+    }
+
+    @Override
+    public boolean removeFriend(UUID asking, UUID target) {
+        boolean removed = this.delegate.removeFriend(asking, target);
+
+        if (removed)
+            this.notifyChange(asking, target);
+
+        return removed;
+    }
+
+    /**
+     * Forget the friends of two players whose friendship was created
+     * or removed, here and on the other servers. To be called by the
+     * code accepting a friend request on a game server, the proxy
+     * sends the same packet on the {@link #CHANNEL} channel.
+     *
+     * @param p1 Player one
+     * @param p2 Player two
+     */
+    public void notifyChange(UUID p1, UUID p2) {
+        this.invalidate(p1);
+        this.invalidate(p2);
+
+        if (this.pubSub != null)
+            this.pubSub.send(CHANNEL, this.origin + "/" + p1 + "/" + p2);
+    }
+
+    /**
+     * Forget the friends of a given player, like when the player leaves
+     *
+     * @param player Player
+     */
+    public void invalidate(UUID player) {
+        this.friends.remove(player);
+    }
+
+    /**
+     * Remove the expired friends, kept until then for the players who
+     * are not on this server
+     */
+    public void cleanUp() {
+        long now = System.nanoTime();
+        this.friends.values().removeIf(entry -> now - entry.loadedAt >= this.timeToLiveNanos);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        this.invalidate(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Count the players whose friends are in memory
+     *
+     * @return Number of players
+     */
+    public int getCachedCount() {
+        return this.friends.size();
+    }
+
+    @Override
+    public void receive(String channel, String packet) {
+        String[] parts = packet.split("/");
+
+        if (parts.length < 3 || parts[0].equals(this.origin))
+            return;
+
+        try {
+            this.invalidate(UUID.fromString(parts[1]));
+            this.invalidate(UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException e) {
+            this.logger.warning("Invalid friends change: " + packet);
+        }
+    }
+
+    private UUIDSet getCached(UUID player) {
+        Entry entry = this.friends.get(player);
+
+        if (entry == null || entry.friends == null)
+            return null;
+
+        if (System.nanoTime() - entry.loadedAt >= this.timeToLiveNanos) {
+            this.friends.remove(player, entry);
+            return null;
+        }
+
+        return entry.friends;
+    }
+
+    private static class Entry {
+        private final UUIDSet friends;
+        private final long loadedAt;
+
+        private Entry(UUIDSet friends, long loadedAt) {
+            this.friends = friends;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -2,12 +2,21 @@ package net.samagames.api.games;
 
 import in.ashwanthkumar.slack.webhook.SlackMessage;
 import net.samagames.api.SamaGamesAPI;
-import net.samagames.api.exceptions.DataNotFoundException;
+import net.samagames.api.achievements.triggers.AchievementTriggerEngine;
+import net.samagames.api.achievements.triggers.CoinsEarnedEvent;
+import net.samagames.api.achievements.triggers.GameEndContext;
+import net.samagames.api.achievements.triggers.GameEndEvent;
+import net.samagames.api.achievements.triggers.GameWinEvent;
 import net.samagames.api.games.pearls.Pearl;
 import net.samagames.api.games.themachine.ICoherenceMachine;
 import net.samagames.api.games.themachine.messages.templates.EarningMessageTemplate;
+import net.samagames.api.network.PrefetchJoinHandler;
+import net.samagames.api.permissions.IPermissionsEntity;
+import net.samagames.api.permissions.PermissionNodes;
+import net.samagames.api.player.AbstractPlayerData;
 import net.samagames.tools.Titles;
 import net.samagames.tools.discord.DiscordAPI;
+import net.samagames.tools.discord.DiscordMoveResult;
 import org.apache.commons.lang3.tuple.Pair;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -15,10 +24,10 @@ import org.bukkit.GameMode;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitTask;
-import redis.clients.jedis.Jedis;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
@@ -39,6 +48,8 @@ import java.util.logging.Level;
  * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
  */
 public class Game<GAMEPLAYER extends GamePlayer> {
+    private static final int STAFF = PermissionNodes.getId("network.staff");
+
     protected final IGameManager gameManager;
 
     protected final String gameCodeName;
@@ -57,7 +68,8 @@ public class Game<GAMEPLAYER extends GamePlayer> {
     protected ICoherenceMachine coherenceMachine;
     protected Status status;
     protected long startTime = -1;
-    protected long discordChannelID = -1L;
+    protected volatile long discordChannelID = -1L;
+    private CompletableFuture<Long> discordChannelCreation;
 
     /**
      * @param gameCodeName    The code name of the game, given by an administrator.
@@ -110,18 +122,35 @@ public class Game<GAMEPLAYER extends GamePlayer> {
         if (this.gameManager.isFreeMode())
             throw new UnsupportedOperationException("You can't use this method while using the free mode!");
 
-        Bukkit.getScheduler().runTaskAsynchronously(SamaGamesAPI.get().getPlugin(), () -> {
-            if (!hasDiscordChannel())
-                this.discordChannelID = DiscordAPI.createChannel(SamaGamesAPI.get().getServerName());
-            if (hasDiscordChannel()) {
-                for (GAMEPLAYER player : getInGamePlayers().values()) {
-                    if (player.isOnline()) {
-                        final List<UUID> playerUUID = new ArrayList<>();
-                        playerUUID.add(player.getPlayerIfOnline().getUniqueId());
-                        DiscordAPI.movePlayers(playerUUID, this.discordChannelID);
-                    }
-                }
+        List<UUID> onlinePlayers = new ArrayList<>();
+
+        for (GAMEPLAYER player : this.getInGamePlayers().values())
+            if (player.isOnline())
+                onlinePlayers.add(player.getUUID());
+
+        // Neither the data lookup nor the bot are waited for on the main thread
+        SamaGamesAPI.get().getPlayerManager().getPlayerData(onlinePlayers).thenCombine(this.createDiscordChannel(), (playersData, channelId) ->
+        {
+            List<UUID> discordPlayers = new ArrayList<>();
+
+            for (UUID player : onlinePlayers) {
+                AbstractPlayerData playerData = playersData.get(player);
+
+                if (playerData != null && playerData.isLinkedToDiscord())
+                    discordPlayers.add(player);
             }
+
+            return discordPlayers;
+        }).thenCompose(discordPlayers ->
+        {
+            if (discordPlayers.isEmpty() || !this.hasDiscordChannel())
+                return CompletableFuture.completedFuture(null);
+
+            return DiscordAPI.moveAsync(discordPlayers, this.discordChannelID).thenAccept(this::handleDiscordMove);
+        }).exceptionally(throwable ->
+        {
+            SamaGamesAPI.get().getPlugin().getLogger().warning("[DiscordAPI] Failed to move the players at game start: " + throwable.getMessage());
+            return null;
         });
 
         //Network hook don't touch
@@ -145,6 +174,22 @@ public class Game<GAMEPLAYER extends GamePlayer> {
         this.coherenceMachine.getMessageManager().writeGameStart();
     }
 
+    /**
+     * Called once the Discord-linked players were moved into the game's voice
+     * channel at the start of the game. This is called from the thread receiving
+     * the bot's response, not from the main thread.
+     * <p>
+     * Override this to react to the players the bot could not move.
+     *
+     * @param result The per-player result of the move.
+     */
+    protected void handleDiscordMove(DiscordMoveResult result) {
+        List<UUID> failed = result.getFailed();
+
+        if (!failed.isEmpty())
+            SamaGamesAPI.get().getPlugin().getLogger().info("[DiscordAPI] " + failed.size() + " of " + result.getRequested().size() + " players could not be moved into the game channel");
+    }
+
     /**
      * Override this method to execute something when the game was just registered.
      * <p>
@@ -160,10 +205,44 @@ public class Game<GAMEPLAYER extends GamePlayer> {
         if (this.gameManager.getGameStatisticsHelper() == null)
             Bukkit.getLogger().severe("NO STATISTICS HELPER REGISTERED, PLAYERS WILL LOST THEIR STATISTICS DURING THIS GAME.");
 
-        Bukkit.getScheduler().runTaskAsynchronously(SamaGamesAPI.get().getPlugin(), () -> {
-            if (!hasDiscordChannel())
-                this.discordChannelID = DiscordAPI.createChannel(SamaGamesAPI.get().getServerName());
+        // The parties are loaded in the background, before the players join
+        SamaGamesAPI.get().getPartyReplica();
+        SamaGamesAPI.get().getJoinManager().registerHandler(new PrefetchJoinHandler(), 10);
+        this.createDiscordChannel();
+    }
+
+    /**
+     * Asks the bot for the game's voice channel, once. Later calls share
+     * the same request, unless it failed, then a new one is sent.
+     *
+     * @return The future channel ID, {@code -1} if the bot couldn't create it.
+     */
+    protected synchronized CompletableFuture<Long> createDiscordChannel() {
+        if (this.discordChannelCreation != null)
+            return this.discordChannelCreation;
+
+        if (this.hasDiscordChannel())
+            return CompletableFuture.completedFuture(this.discordChannelID);
+
+        CompletableFuture<Long> creation = DiscordAPI.createChannelAsync(SamaGamesAPI.get().getServerName()).handle((channelId, throwable) ->
+        {
+            if (throwable != null || channelId == -1L) {
+                synchronized (this) {
+                    this.discordChannelCreation = null;
+                }
+
+                return -1L;
+            }
+
+            this.discordChannelID = channelId;
+            return channelId;
         });
+
+        // An already completed failure has cleared the field before it was set
+        if (!creation.isDone() || this.hasDiscordChannel())
+            this.discordChannelCreation = creation;
+
+        return creation;
     }
 
     /**
@@ -186,12 +265,9 @@ public class Game<GAMEPLAYER extends GamePlayer> {
             this.advertisingTask.addPlayer(player);
 
             if (hasDiscordChannel() && SamaGamesAPI.get().getPlayerManager().getPlayerData(player.getUniqueId()).isLinkedToDiscord())
-                Bukkit.getScheduler().runTaskAsynchronously(SamaGamesAPI.get().getPlugin(), () -> {
-                    if (DiscordAPI.isConnected(player.getUniqueId())) {
-                        final List<UUID> playerUUID = new ArrayList<>();
-                        playerUUID.add(player.getUniqueId());
-                        DiscordAPI.movePlayers(playerUUID, this.discordChannelID);
-                    }
+                DiscordAPI.isConnectedAsync(player.getUniqueId()).thenAccept(connected -> {
+                    if (connected)
+                        DiscordAPI.movePlayersAsync(Collections.singletonList(player.getUniqueId()), this.discordChannelID);
                 });
         } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
             e.printStackTrace();
@@ -233,12 +309,10 @@ public class Game<GAMEPLAYER extends GamePlayer> {
     public void handleLogout(Player player) {
         String key = "lastgame:" + player.getPlayer().toString();
 
-        Jedis jedis = SamaGamesAPI.get().getBungeeResource();
-
-        if (jedis != null) {
-            jedis.set(key, this.gameCodeName);
-            jedis.expire(key, 60 * 3);
-            jedis.close();
+        try {
+            SamaGamesAPI.get().getRedis().setex(key, 60 * 3, this.gameCodeName);
+        } catch (Exception e) {
+            SamaGamesAPI.get().getPlugin().getLogger().log(Level.WARNING, "Failed to save the last game of '" + player.getName() + "'", e);
         }
 
         if (this.status == Status.FINISHED)
@@ -327,14 +401,7 @@ public class Game<GAMEPLAYER extends GamePlayer> {
             if (this.gameManager.getGameStatisticsHelper() != null)
                 this.gameManager.getGameStatisticsHelper().increaseWins(uuid);
 
-            SamaGamesAPI.get().getAchievementManager().getAchievementByID(25).unlock(uuid);
-            Arrays.asList(26, 27, 28, 29).forEach(id -> {
-                try {
-                    SamaGamesAPI.get().getAchievementManager().incrementAchievement(uuid, id, 1);
-                } catch (DataNotFoundException e) {
-                    e.printStackTrace();
-                }
-            });
+            SamaGamesAPI.get().getAchievementTriggerEngine().fire(new GameWinEvent(uuid));
         } catch (Exception e) {
             e.printStackTrace();
             SamaGamesAPI.get().slackLog(Level.SEVERE, new SlackMessage("[" + SamaGamesAPI.get().getServerName() + "] Failed to handle '" + SamaGamesAPI.get().getUUIDTranslator().getName(uuid) + "'s win: " + e.getMessage()));
@@ -356,6 +423,7 @@ public class Game<GAMEPLAYER extends GamePlayer> {
         // Network hook don't touch
         this.gameManager.stopTimer();
         this.getInGamePlayers().values().forEach(GamePlayer::stepPlayedTimeCounter);
+        Bukkit.getScheduler().runTaskAsynchronously(SamaGamesAPI.get().getPlugin(), () -> SamaGamesAPI.get().getCoinsLedger().flush());
 
         for (GamePlayer player : this.getRegisteredGamePlayers().values()) {
             try {
@@ -365,91 +433,25 @@ public class Game<GAMEPLAYER extends GamePlayer> {
             }
         }
 
-        boolean wasAStaffMember = false;
-        boolean wasAGameCreator = false;
-        boolean wasACoupaingInGame = false;
-        boolean wasASamAllieInGame = false;
-        boolean wasAnHidden = false;
-
-        for (GamePlayer player : this.gamePlayers.values()) {
-            if (SamaGamesAPI.get().getPermissionsManager().hasPermission(player.getUUID(), "network.staff")) {
-                wasAStaffMember = true;
-
-                if (this.gameCreators != null && this.gameCreators.contains(player.getUUID()))
-                    wasAGameCreator = true;
-            } else if (SamaGamesAPI.get().getPermissionsManager().getPlayer(player.getUUID()).getGroupId() == 4) {
-                wasACoupaingInGame = true;
-
-                if (SamaGamesAPI.get().getPlayerManager().getPlayerData(player.getUUID()).hasNickname())
-                    wasAnHidden = true;
-            } else if (SamaGamesAPI.get().getPermissionsManager().getPlayer(player.getUUID()).getGroupId() == 5) {
-                wasASamAllieInGame = true;
+        // The players are looked up off the main thread, the achievements are then fired back on it
+        this.getGameEndContext().thenAccept(context -> Bukkit.getScheduler().runTask(SamaGamesAPI.get().getPlugin(), () ->
+        {
+            AchievementTriggerEngine achievementTriggers = SamaGamesAPI.get().getAchievementTriggerEngine();
 
-                if (SamaGamesAPI.get().getPlayerManager().getPlayerData(player.getUUID()).hasNickname())
-                    wasAnHidden = true;
+            for (GamePlayer player : this.gamePlayers.values()) {
+                if (player.isOnline()) {
+                    achievementTriggers.fire(new GameEndEvent(player.getUUID(), context));
+                    achievementTriggers.fire(new CoinsEarnedEvent(player.getUUID(), player.getCoins()));
+                }
             }
-        }
-
-        for (GamePlayer player : this.gamePlayers.values()) {
-            if (player.isOnline()) {
-                boolean finalWasAStaffMember = wasAStaffMember;
-                boolean finalWasAGameCreator = wasAGameCreator;
-                boolean finalWasACoupaingInGame = wasACoupaingInGame;
-                boolean finalWasASamAllieInGame = wasASamAllieInGame;
-                boolean finalWasAnHidden = wasAnHidden;
 
-                Bukkit.getScheduler().runTask(SamaGamesAPI.get().getPlugin(), () ->
-                {
-                    if (finalWasAStaffMember) {
-                        try {
-                            SamaGamesAPI.get().getAchievementManager().getAchievementByID(15).unlock(player.getUUID());
-                        } catch (DataNotFoundException e) {
-                            e.printStackTrace();
-                        }
-                    }
-
-                    if (finalWasAGameCreator) {
-                        try {
-                            SamaGamesAPI.get().getAchievementManager().getAchievementByID(16).unlock(player.getUUID());
-                        } catch (DataNotFoundException e) {
-                            e.printStackTrace();
-                        }
-                    }
-
-                    if (finalWasACoupaingInGame) {
-                        try {
-                            SamaGamesAPI.get().getAchievementManager().getAchievementByID(13).unlock(player.getUUID());
-                        } catch (DataNotFoundException e) {
-                            e.printStackTrace();
-                        }
-                    }
-
-                    if (finalWasASamAllieInGame) {
-                        try {
-                            SamaGamesAPI.get().getAchievementManager().getAchievementByID(14).unlock(player.getUUID());
-                        } catch (DataNotFoundException e) {
-                            e.printStackTrace();
-                        }
-                    }
-
-                    if (finalWasAnHidden) {
-                        try {
-                            SamaGamesAPI.get().getAchievementManager().getAchievementByID(17).unlock(player.getUUID());
-                        } catch (DataNotFoundException e) {
-                            e.printStackTrace();
-                        }
-                    }
-
-                    Arrays.asList(30, 31, 32, 33, 34).forEach(id -> {
-                        try {
-                            SamaGamesAPI.get().getAchievementManager().incrementAchievement(player.getUUID(), id, player.getCoins());
-                        } catch (DataNotFoundException e) {
-                            e.printStackTrace();
-                        }
-                    });
-                });
-            }
-        }
+            if (SamaGamesAPI.get().getAchievementProgressStore().hasWriter())
+                Bukkit.getScheduler().runTaskAsynchronously(SamaGamesAPI.get().getPlugin(), () -> SamaGamesAPI.get().getAchievementProgressStore().flushDirty());
+        })).exceptionally(throwable ->
+        {
+            SamaGamesAPI.get().getPlugin().getLogger().log(Level.SEVERE, "Failed to fire the game end achievements", throwable);
+            return null;
+        });
 
         Bukkit.getScheduler().runTaskLater(SamaGamesAPI.get().getPlugin(), () ->
                 this.gamePlayers.keySet().stream().filter(playerUUID -> Bukkit.getPlayer(playerUUID) != null).forEach(playerUUID ->
@@ -469,12 +471,72 @@ public class Game<GAMEPLAYER extends GamePlayer> {
         Bukkit.getScheduler().runTaskLater(SamaGamesAPI.get().getPlugin(), () ->
         {
             if (hasDiscordChannel())
-                DiscordAPI.deleteChannel(this.discordChannelID);
-            SamaGamesAPI.get().getStatsManager().finish();
-            SamaGamesAPI.get().getBungeeResource().publish("shutdownChannel", SamaGamesAPI.get().getServerName());
+                DiscordAPI.deleteChannelAsync(this.discordChannelID);
+            SamaGamesAPI.get().getStatsManager().flush(new ArrayList<>(this.gamePlayers.keySet()));
+
+            // The coins earned since the first flush have to reach the backend before the shutdown
+            Bukkit.getScheduler().runTaskAsynchronously(SamaGamesAPI.get().getPlugin(), () ->
+            {
+                SamaGamesAPI.get().getCoinsLedger().flushAndWait(5000L);
+                SamaGamesAPI.get().getManagedPubSub().send("shutdownChannel", SamaGamesAPI.get().getServerName());
+            });
         }, 20L * 15);
     }
 
+    /**
+     * Compute who was in the game, once for all the players, off the
+     * main thread
+     *
+     * @return Future context given to the game end achievement rules
+     */
+    private CompletableFuture<GameEndContext> getGameEndContext() {
+        List<UUID> players = new ArrayList<>(this.gamePlayers.keySet());
+
+        return SamaGamesAPI.get().getPlayerManager().getPlayerData(players).thenApplyAsync(playersData -> this.getGameEndContext(players, playersData),
+                task -> Bukkit.getScheduler().runTaskAsynchronously(SamaGamesAPI.get().getPlugin(), task));
+    }
+
+    private GameEndContext getGameEndContext(List<UUID> players, Map<UUID, AbstractPlayerData> playersData) {
+        boolean wasAStaffMember = false;
+        boolean wasAGameCreator = false;
+        boolean wasACoupaingInGame = false;
+        boolean wasASamAllieInGame = false;
+        boolean wasAnHidden = false;
+        Map<UUID, IPermissionsEntity> permissionsEntities = SamaGamesAPI.get().getPermissionsManager().getPlayers(players);
+        Map<UUID, Boolean> staff = SamaGamesAPI.get().getPermissionsManager().hasPermission(players, STAFF);
+
+        for (UUID player : players) {
+            AbstractPlayerData playerData = playersData.get(player);
+            IPermissionsEntity permissionsEntity = permissionsEntities.get(player);
+
+            if (staff.getOrDefault(player, false)) {
+                wasAStaffMember = true;
+
+                if (this.gameCreators != null && this.gameCreators.contains(player))
+                    wasAGameCreator = true;
+
+                continue;
+            }
+
+            if (permissionsEntity == null)
+                continue;
+
+            long groupId = permissionsEntity.getGroupId();
+
+            if (groupId == 4)
+                wasACoupaingInGame = true;
+            else if (groupId == 5)
+                wasASamAllieInGame = true;
+            else
+                continue;
+
+            if (playerData != null && playerData.hasNickname())
+                wasAnHidden = true;
+        }
+
+        return new GameEndContext(wasAStaffMember, wasAGameCreator, wasACoupaingInGame, wasASamAllieInGame, wasAnHidden);
+    }
+
     /**
      * Create fireworks to a given player.
      *
@@ -497,7 +559,7 @@ public class Game<GAMEPLAYER extends GamePlayer> {
         if (this.gamePlayers.containsKey(player.getUniqueId()))
             this.gamePlayers.get(player.getUniqueId()).addCoins(coins, reason);
         else
-            SamaGamesAPI.get().getPlayerManager().getPlayerData(player.getUniqueId()).creditCoins(coins, reason, true);
+            SamaGamesAPI.get().getCoinsLedger().creditCoins(player.getUniqueId(), coins, reason, true, null);
     }
 
     /**
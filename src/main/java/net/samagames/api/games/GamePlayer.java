@@ -70,12 +70,15 @@ public class GamePlayer {
 
     /**
      * Credits coins to this player.
+     * <p>
+     * The credit goes through the write-behind {@link net.samagames.api.player.CoinsLedger},
+     * it is sent to the backend with the next flush.
      *
      * @param coins_ The amount of coins to credit.
      * @param reason The displayed reason of the credit.
      */
     public void addCoins(int coins_, String reason) {
-        SamaGamesAPI.get().getPlayerManager().getPlayerData(this.uuid).creditCoins(coins_, reason, true, (newAmount, difference, error) -> coins += difference);
+        SamaGamesAPI.get().getCoinsLedger().creditCoins(this.uuid, coins_, reason, true, (newAmount, difference, error) -> coins += difference);
     }
 
     /**
@@ -17,30 +17,42 @@ package net.samagames.api.games;
  * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
  */
 public enum GamesNames {
-    GLOBAL(0),
-    HEROBATTLE(1),
-    JUKEBOX(2),
-    QUAKE(3),
-    UHCRUN(4),
-    UPPERVOID(5),
-    DIMENSION(6),
-    BOWLING(7),
-    UHCORIGINAL(8),
-    DOUBLERUNNER(9),
-    UHCRANDOM(10),
-    RANDOMRUN(11),
-    ULTRAFLAGKEEPER(12),
-    CHUNKWARS(13),
-    THEDROPPER(14),
-    WEREWOLF(15);
+    GLOBAL(0, null),
+    HEROBATTLE(1, "HeroBattleStatistics"),
+    JUKEBOX(2, "JukeBoxStatistics"),
+    QUAKE(3, "QuakeStatistics"),
+    UHCRUN(4, "UHCRunStatistics"),
+    UPPERVOID(5, "UppervoidStatistics"),
+    DIMENSION(6, "DimensionStatistics"),
+    BOWLING(7, "BowlingStatistics"),
+    UHCORIGINAL(8, "UHCOriginalStatistics"),
+    DOUBLERUNNER(9, "DoubleRunnerStatistics"),
+    UHCRANDOM(10, "UHCRandomStatistics"),
+    RANDOMRUN(11, "RandomRunStatistics"),
+    ULTRAFLAGKEEPER(12, "UltraFlagKeeperStatistics"),
+    CHUNKWARS(13, "ChunkWarsStatistics"),
+    THEDROPPER(14, "TheDropperStatistics"),
+    WEREWOLF(15, "WerewolfStatistics");
 
     private final int value;
+    private final String statisticsName;
 
-    GamesNames(int value) {
+    GamesNames(int value, String statisticsName) {
         this.value = value;
+        this.statisticsName = statisticsName;
     }
 
     public int intValue() {
         return value;
     }
+
+    /**
+     * Get the name of the statistics of the game, the one of their
+     * bean in the persistance API without the {@code Bean} suffix
+     *
+     * @return Statistics' name, {@code null} for {@link #GLOBAL}
+     */
+    public String getStatisticsName() {
+        return statisticsName;
+    }
 }
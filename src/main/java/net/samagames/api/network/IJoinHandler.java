@@ -36,6 +36,9 @@ public interface IJoinHandler {
     /**
      * Called when a party wanted to connect, by right clicking a game sign for example.
      * (Before player is on the server)
+     * The members can be read from {@link net.samagames.api.SamaGamesAPI#getPartyReplica()}
+     * without a network round-trip, up to a minute old if the parties
+     * owner doesn't publish its changes.
      *
      * @param party    Party uuid
      * @param player   The player who join
@@ -0,0 +1,52 @@
+package net.samagames.api.network;
+
+import net.samagames.api.SamaGamesAPI;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Join handler loading the data of the players asking to join in the
+ * background, a whole party in one batch, so it is cached before they
+ * land on the server. It never changes the response.
+ */
+public class PrefetchJoinHandler implements IJoinHandler {
+    @Override
+    public JoinResponse requestJoin(UUID player, JoinResponse response) {
+        this.prefetch(Collections.singletonList(player));
+        return response;
+    }
+
+    @Override
+    public JoinResponse requestPartyJoin(UUID party, UUID player, JoinResponse response) {
+        List<UUID> members = SamaGamesAPI.get().getPartyReplica().getPlayersInParty(party);
+        this.prefetch(members.isEmpty() ? Collections.singletonList(player) : members);
+        return response;
+    }
+
+    private void prefetch(List<UUID> players) {
+        SamaGamesAPI.get().getPlayerManager().prefetch(players).exceptionally(throwable ->
+        {
+            SamaGamesAPI.get().getPlugin().getLogger().warning("Failed to prefetch the data of " + players.size() + " joining players: " + throwable.getMessage());
+            return null;
+        });
+    }
+}
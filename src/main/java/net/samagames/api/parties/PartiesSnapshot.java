@@ -0,0 +1,48 @@
+package net.samagames.api.parties;
+
+import java.util.Collection;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * All the parties at a given version of the parties changes
+ */
+public class PartiesSnapshot {
+    private final long version;
+    private final Collection<? extends IParty> parties;
+
+    /**
+     * Constructor
+     *
+     * @param version Version of the last change included, {@code -1}
+     *                if it is unknown
+     * @param parties Parties
+     */
+    public PartiesSnapshot(long version, Collection<? extends IParty> parties) {
+        this.version = version;
+        this.parties = parties;
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public Collection<? extends IParty> getParties() {
+        return this.parties;
+    }
+}
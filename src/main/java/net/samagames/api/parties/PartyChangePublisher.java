@@ -0,0 +1,116 @@
+package net.samagames.api.parties;
+
+import net.samagames.api.pubsub.IPubSubAPI;
+import net.samagames.api.redis.ManagedRedis;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Sends the numbered changes of the parties read by the
+ * {@link PartyReplica}, to be used by the parties owner each time it
+ * changes a party. On Redis, the number of the last change is kept in
+ * a key, it is incremented and the change published in one script so
+ * the changes are sent in the order of their numbers. On a local
+ * PubSub, the number is kept in memory.
+ */
+public class PartyChangePublisher {
+    public static final String VERSION_KEY = "parties:version";
+
+    private static final String SCRIPT = "local version = redis.call('INCR', KEYS[1]) "
+            + "redis.call('PUBLISH', ARGV[1], version .. '/' .. ARGV[2]) "
+            + "return version";
+
+    private final ManagedRedis redis;
+    private final IPubSubAPI pubSub;
+    private long version;
+
+    /**
+     * Constructor, for the servers sharing Redis
+     *
+     * @param redis Redis keeping the number of the last change
+     */
+    public PartyChangePublisher(ManagedRedis redis) {
+        this.redis = redis;
+        this.pubSub = null;
+    }
+
+    /**
+     * Constructor, for a server running on a local PubSub
+     *
+     * @param pubSub Local PubSub the changes are sent on
+     */
+    public PartyChangePublisher(IPubSubAPI pubSub) {
+        this.redis = null;
+        this.pubSub = pubSub;
+    }
+
+    /**
+     * Get the number of the last change sent, to be read before loading
+     * a snapshot of the parties
+     *
+     * @return Version, {@code 0} if no change was sent yet
+     */
+    public long getVersion() {
+        if (this.redis == null) {
+            synchronized (this) {
+                return this.version;
+            }
+        }
+
+        String version = this.redis.get(VERSION_KEY);
+        return version == null ? 0L : Long.parseLong(version);
+    }
+
+    /**
+     * Send the new state of a party
+     *
+     * @param party Party
+     * @return Number of the change
+     */
+    public long publishUpdate(IParty party) {
+        return this.publish(PartyReplica.encodeUpdate(party));
+    }
+
+    /**
+     * Send the disbanding of a party
+     *
+     * @param party Party's UUID
+     * @return Number of the change
+     */
+    public long publishDisband(UUID party) {
+        return this.publish(PartyReplica.encodeDisband(party));
+    }
+
+    private long publish(String change) {
+        if (this.redis == null) {
+            synchronized (this) {
+                this.version++;
+                this.pubSub.send(PartyReplica.CHANNEL, this.version + "/" + change);
+
+                return this.version;
+            }
+        }
+
+        Object version = this.redis.execute(jedis -> jedis.eval(SCRIPT, Collections.singletonList(VERSION_KEY), Arrays.asList(PartyReplica.CHANNEL, change)));
+        return (Long) version;
+    }
+}
@@ -0,0 +1,354 @@
+package net.samagames.api.parties;
+
+import net.samagames.api.pubsub.IPacketsReceiver;
+import net.samagames.api.pubsub.IPubSubAPI;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Read-only copy of the parties kept on this server, indexed by party
+ * and by player. It is loaded from a snapshot, then kept up to date by
+ * the numbered changes sent on {@link #CHANNEL} by a
+ * {@link PartyChangePublisher}; a missing change makes it load a
+ * snapshot again. A snapshot is also loaded at a fixed rate, for the
+ * changes made without a publisher. The snapshots are loaded in the
+ * background, the changes received meanwhile are applied after it, and
+ * a failed load is tried again with a growing delay. The lookups only
+ * read memory.
+ */
+public class PartyReplica implements IPacketsReceiver {
+    public static final String CHANNEL = "parties.changes";
+    private static final long MIN_RETRY_DELAY_MILLIS = 1000L;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60L * 1000L;
+    private static final int MAX_PENDING = 4096;
+
+    private final Supplier<PartiesSnapshot> loader;
+    private final Logger logger;
+    private final ScheduledExecutorService resyncer;
+    private final NavigableMap<Long, String[]> pending;
+    private volatile Index index;
+    private long version;
+    private boolean resyncing;
+    private long retryDelayMillis;
+
+    /**
+     * Constructor, starts loading the first snapshot in the background.
+     * The parties are empty until it is loaded.
+     *
+     * @param loader       Loads all the parties
+     * @param pubSub       PubSub the changes are received from,
+     *                     {@code null} to only update it with the
+     *                     snapshots
+     * @param resyncPeriod Period between two snapshots
+     * @param unit         Unit of the period
+     * @param logger       Logger
+     */
+    public PartyReplica(Supplier<PartiesSnapshot> loader, IPubSubAPI pubSub, long resyncPeriod, TimeUnit unit, Logger logger) {
+        this.loader = loader;
+        this.logger = logger;
+        this.resyncer = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "Parties-Resync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pending = new TreeMap<>();
+        this.index = new Index();
+        this.version = -1L;
+        this.retryDelayMillis = MIN_RETRY_DELAY_MILLIS;
+
+        // Subscribed first so no change is lost between the snapshot and the first message
+        if (pubSub != null)
+            pubSub.subscribe(CHANNEL, this);
+
+        this.resyncAsync();
+        this.resyncer.scheduleWithFixedDelay(this::resyncAsync, resyncPeriod, resyncPeriod, unit);
+    }
+
+    /**
+     * Encode the change of a party, without its number
+     *
+     * @param party New state of the party
+     * @return Change
+     */
+    static String encodeUpdate(IParty party) {
+        StringJoiner players = new StringJoiner(",");
+
+        for (UUID player : party.getPlayers())
+            players.add(player.toString());
+
+        return "update/" + party.getParty() + "/" + party.getLeader() + "/" + players;
+    }
+
+    /**
+     * Encode the disbanding of a party, without its number
+     *
+     * @param party Party's UUID
+     * @return Change
+     */
+    static String encodeDisband(UUID party) {
+        return "disband/" + party;
+    }
+
+    /**
+     * Load all the parties again, like after a lost connection. It
+     * waits for the load, so it must not be called on the main thread.
+     */
+    public void resync() {
+        synchronized (this) {
+            this.resyncing = true;
+        }
+
+        PartiesSnapshot snapshot;
+
+        try {
+            snapshot = this.loader.get();
+        } catch (Exception e) {
+            // Still resyncing: the changes are kept pending until a snapshot is loaded
+            synchronized (this) {
+                this.logger.log(Level.WARNING, "Failed to load the parties, trying again in " + this.retryDelayMillis + "ms", e);
+
+                try {
+                    this.resyncer.schedule(this::resync, this.retryDelayMillis, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException ignored) {
+                    // Shut down
+                }
+
+                this.retryDelayMillis = Math.min(this.retryDelayMillis * 2L, MAX_RETRY_DELAY_MILLIS);
+            }
+
+            return;
+        }
+
+        this.install(snapshot);
+    }
+
+    /**
+     * Load all the parties again in the background
+     */
+    public synchronized void resyncAsync() {
+        if (this.resyncing)
+            return;
+
+        this.resyncing = true;
+
+        try {
+            this.resyncer.execute(this::resync);
+        } catch (RejectedExecutionException e) {
+            this.resyncing = false;
+        }
+    }
+
+    /**
+     * Get the number of the last change applied
+     *
+     * @return Version, {@code -1} if it is unknown
+     */
+    public synchronized long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Stop loading the snapshots
+     */
+    public void shutdown() {
+        this.resyncer.shutdownNow();
+    }
+
+    /**
+     * Get the party of a given player
+     *
+     * @param player Player's UUID
+     * @return Party, {@code null} if he is in none
+     */
+    public ReplicatedParty getPartyForPlayer(UUID player) {
+        Index index = this.index;
+        UUID party = index.playerParties.get(player);
+        return party == null ? null : index.parties.get(party);
+    }
+
+    /**
+     * Get a given party
+     *
+     * @param party Party's UUID
+     * @return Party, {@code null} if it doesn't exist
+     */
+    public ReplicatedParty getParty(UUID party) {
+        return this.index.parties.get(party);
+    }
+
+    /**
+     * Get the members of a given party
+     *
+     * @param party Party's UUID
+     * @return Members' UUID, empty if it doesn't exist
+     */
+    public List<UUID> getPlayersInParty(UUID party) {
+        ReplicatedParty replicatedParty = this.index.parties.get(party);
+        return replicatedParty == null ? Collections.emptyList() : replicatedParty.getPlayers();
+    }
+
+    /**
+     * Get the leader of a given party
+     *
+     * @param party Party's UUID
+     * @return Leader's UUID, {@code null} if it doesn't exist
+     */
+    public UUID getLeader(UUID party) {
+        ReplicatedParty replicatedParty = this.index.parties.get(party);
+        return replicatedParty == null ? null : replicatedParty.getLeader();
+    }
+
+    /**
+     * Get every party
+     *
+     * @return Copy of the parties, by UUID
+     */
+    public Map<UUID, ReplicatedParty> getParties() {
+        return new HashMap<>(this.index.parties);
+    }
+
+    @Override
+    public synchronized void receive(String channel, String packet) {
+        String[] parts = packet.split("/");
+        long version;
+
+        if (parts.length < 2) {
+            this.logger.warning("Invalid parties change: " + packet);
+            return;
+        }
+
+        try {
+            version = Long.parseLong(parts[0]);
+        } catch (NumberFormatException e) {
+            this.logger.warning("Invalid parties change: " + packet);
+            return;
+        }
+
+        // Applied once the snapshot is loaded. Past the limit the oldest go, the gap they leave is loaded again
+        if (this.resyncing) {
+            this.pending.put(version, parts);
+
+            while (this.pending.size() > MAX_PENDING)
+                this.pending.pollFirstEntry();
+
+            return;
+        }
+
+        this.apply(version, parts, true);
+    }
+
+    private synchronized void install(PartiesSnapshot snapshot) {
+        Index index = new Index();
+
+        for (IParty party : snapshot.getParties())
+            index.update(ReplicatedParty.of(party));
+
+        this.index = index;
+        this.version = snapshot.getVersion();
+        this.resyncing = false;
+        this.retryDelayMillis = MIN_RETRY_DELAY_MILLIS;
+
+        List<Map.Entry<Long, String[]>> pending = new ArrayList<>(this.pending.entrySet());
+        this.pending.clear();
+
+        // A gap left here is only loaded again with the next change, not to load in a loop
+        for (Map.Entry<Long, String[]> change : pending)
+            if (!this.apply(change.getKey(), change.getValue(), false))
+                break;
+    }
+
+    private boolean apply(long version, String[] parts, boolean resyncOnGap) {
+        // Already in the state, like a change sent during the snapshot load
+        if (this.version >= 0L && version <= this.version)
+            return true;
+
+        if (this.version >= 0L && version > this.version + 1) {
+            this.logger.warning("Missed the parties changes " + (this.version + 1) + " to " + (version - 1) + (resyncOnGap ? ", loading them again" : ""));
+
+            if (resyncOnGap) {
+                this.pending.put(version, parts);
+                this.resyncAsync();
+            }
+
+            return false;
+        }
+
+        try {
+            if (parts[1].equals("update") && parts.length >= 4) {
+                List<UUID> players = new ArrayList<>();
+
+                if (parts.length > 4 && !parts[4].isEmpty())
+                    for (String player : parts[4].split(","))
+                        players.add(UUID.fromString(player));
+
+                this.index.update(new ReplicatedParty(UUID.fromString(parts[2]), UUID.fromString(parts[3]), players));
+            } else if (parts[1].equals("disband") && parts.length >= 3) {
+                this.index.disband(UUID.fromString(parts[2]));
+            } else {
+                this.logger.warning("Invalid parties change: " + String.join("/", parts));
+                return true;
+            }
+        } catch (IllegalArgumentException e) {
+            this.logger.warning("Invalid parties change: " + String.join("/", parts));
+            return true;
+        }
+
+        this.version = version;
+        return true;
+    }
+
+    /**
+     * Parties by UUID and party of each player, only changed
+     * under the lock of the replica
+     */
+    private static class Index {
+        private final Map<UUID, ReplicatedParty> parties = new ConcurrentHashMap<>();
+        private final Map<UUID, UUID> playerParties = new ConcurrentHashMap<>();
+
+        private void update(ReplicatedParty party) {
+            ReplicatedParty previous = this.parties.put(party.getParty(), party);
+
+            if (previous != null)
+                for (UUID player : previous.getPlayers())
+                    if (!party.containsPlayer(player))
+                        this.playerParties.remove(player, party.getParty());
+
+            for (UUID player : party.getPlayers())
+                this.playerParties.put(player, party.getParty());
+        }
+
+        private void disband(UUID party) {
+            ReplicatedParty previous = this.parties.remove(party);
+
+            if (previous != null)
+                for (UUID player : previous.getPlayers())
+                    this.playerParties.remove(player, party);
+        }
+    }
+}
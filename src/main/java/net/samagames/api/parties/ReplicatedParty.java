@@ -0,0 +1,78 @@
+package net.samagames.api.parties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Read-only copy of a party held by a {@link PartyReplica}, the
+ * parties are changed through the {@link IPartiesManager}
+ */
+public class ReplicatedParty {
+    private final UUID party;
+    private final UUID leader;
+    private final List<UUID> players;
+
+    /**
+     * Constructor
+     *
+     * @param party   Party's UUID
+     * @param leader  Leader's UUID
+     * @param players Members' UUID
+     */
+    public ReplicatedParty(UUID party, UUID leader, List<UUID> players) {
+        this.party = party;
+        this.leader = leader;
+        this.players = Collections.unmodifiableList(new ArrayList<>(players));
+    }
+
+    /**
+     * Copy a given party
+     *
+     * @param party Party
+     * @return Instance
+     */
+    public static ReplicatedParty of(IParty party) {
+        return new ReplicatedParty(party.getParty(), party.getLeader(), party.getPlayers());
+    }
+
+    public UUID getParty() {
+        return this.party;
+    }
+
+    public UUID getLeader() {
+        return this.leader;
+    }
+
+    /**
+     * Check if a given player is in this party
+     *
+     * @param player Player's UUID
+     * @return {@code true} if he is a member
+     */
+    public boolean containsPlayer(UUID player) {
+        return this.players.contains(player);
+    }
+
+    public List<UUID> getPlayers() {
+        return this.players;
+    }
+}
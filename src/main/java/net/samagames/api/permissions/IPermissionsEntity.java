@@ -1,5 +1,7 @@
 package net.samagames.api.permissions;
 
+import net.samagames.api.SamaGamesAPI;
+
 import java.util.Map;
 import java.util.UUID;
 
@@ -52,5 +54,32 @@ public interface IPermissionsEntity {
 
     boolean hasPermission(String name);
 
+    /**
+     * Check a permission by its ID, resolved once from the compiled
+     * permissions of this entity then read from a cache
+     *
+     * @param node Permission ID, from {@link PermissionNodes#getId(String)}
+     * @return {@code true} if given
+     */
+    default boolean hasPermission(int node) {
+        return SamaGamesAPI.get().getPermissionsCache().get(this).hasPermission(node);
+    }
+
+    /**
+     * Get the version of the permissions of this entity, to be changed
+     * each time they are modified. With the default one, the compiled
+     * permissions are only dropped by the invalidations of the
+     * {@link PermissionsCache}.
+     *
+     * @return Version
+     */
+    default long getPermissionsVersion() {
+        return 0L;
+    }
+
+    /**
+     * Reload the permissions of this entity. Implementations should
+     * call {@link PermissionsCache#invalidate(UUID)}.
+     */
     void refresh();
 }
@@ -1,9 +1,11 @@
 package net.samagames.api.permissions;
 
+import net.samagames.api.SamaGamesAPI;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Supplier;
 
 /*
  * This file is part of SamaGamesAPI.
@@ -89,4 +91,146 @@ public interface IPermissionsManager {
      * @return {@code true} if the entity has the permission
      */
     boolean hasPermission(CommandSender sender, String permission);
+
+    /**
+     * Checks if a player has a permission by its ID, without resolving
+     * it again once it was checked
+     *
+     * @param player The player you want to check
+     * @param node   The permission ID, from {@link PermissionNodes#getId(String)}
+     * @return {@code true} if the player has the permission
+     */
+    default boolean hasPermission(UUID player, int node) {
+        IPermissionsEntity entity = this.getPlayer(player);
+        return entity != null && entity.hasPermission(node);
+    }
+
+    /**
+     * Get the shared snapshot of a group
+     *
+     * @param groupId Group's ID
+     * @return Snapshot
+     * @throws IllegalArgumentException If the group doesn't exist
+     * @throws IllegalStateException    If no group loader is set with
+     *                                  {@link SamaGamesAPI#setPermissionsGroupLoader(java.util.function.LongFunction)}
+     */
+    default PermissionsGroup getGroup(long groupId) {
+        return getGroupRegistry().getGroup(groupId);
+    }
+
+    /**
+     * Build the permission player of a player on the shared snapshots
+     * of the groups, only keeping his own permissions. Implementations
+     * should use it in {@link #getPlayer(UUID)} once a group loader is
+     * set.
+     *
+     * @param player         UUID of the player
+     * @param groupId        ID of the player's group
+     * @param displayGroupId ID of the group shown to the other players
+     * @param overrides      Permissions of the player himself
+     * @return IPermissionsEntity
+     * @throws IllegalArgumentException If a group doesn't exist
+     * @throws IllegalStateException    If no group loader is set
+     */
+    default IPermissionsEntity createPlayer(UUID player, long groupId, long displayGroupId, Map<String, Boolean> overrides) {
+        return this.createPlayer(player, groupId, displayGroupId, () -> overrides);
+    }
+
+    /**
+     * Build the permission player of a player on the shared snapshots
+     * of the groups, his own permissions being loaded again at each
+     * {@link IPermissionsEntity#refresh()}
+     *
+     * @param player          UUID of the player
+     * @param groupId         ID of the player's group
+     * @param displayGroupId  ID of the group shown to the other players
+     * @param overridesLoader Loader of the permissions of the player himself
+     * @return IPermissionsEntity
+     * @throws IllegalArgumentException If a group doesn't exist
+     * @throws IllegalStateException    If no group loader is set
+     */
+    default IPermissionsEntity createPlayer(UUID player, long groupId, long displayGroupId, Supplier<Map<String, Boolean>> overridesLoader) {
+        PermissionsGroupRegistry registry = getGroupRegistry();
+        return new PlayerPermissions(player, registry.getHandle(groupId), registry.getHandle(displayGroupId), overridesLoader);
+    }
+
+    /**
+     * Replace the snapshot of a group, here and on the other servers
+     *
+     * @param group New snapshot
+     * @throws IllegalStateException If no group loader is set
+     */
+    default void updateGroup(PermissionsGroup group) {
+        getGroupRegistry().update(group);
+    }
+
+    /**
+     * Get the shared snapshots of the permissions groups
+     *
+     * @return Instance
+     * @throws IllegalStateException If no group loader is set
+     */
+    static PermissionsGroupRegistry getGroupRegistry() {
+        PermissionsGroupRegistry registry = SamaGamesAPI.get().getPermissionsGroupRegistry();
+
+        if (registry == null)
+            throw new IllegalStateException("No permissions group loader is set");
+
+        return registry;
+    }
+
+    /**
+     * Get the permission players of many players at once. Implementations
+     * should override this to load the missing ones in one round trip, the
+     * default one gets every player one by one.
+     *
+     * @param players UUID of the players
+     * @return Found players, by UUID
+     */
+    default Map<UUID, IPermissionsEntity> getPlayers(Collection<UUID> players) {
+        Map<UUID, IPermissionsEntity> result = new HashMap<>();
+
+        for (UUID player : players) {
+            if (result.containsKey(player))
+                continue;
+
+            IPermissionsEntity entity = this.getPlayer(player);
+
+            if (entity != null)
+                result.put(player, entity);
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks if many players have a permission, resolving the
+     * permission only once
+     *
+     * @param players    The players you want to check
+     * @param permission The permission you wan't to check
+     * @return {@code true} for each player having the permission, by UUID
+     */
+    default Map<UUID, Boolean> hasPermission(Collection<UUID> players, String permission) {
+        return this.hasPermission(players, PermissionNodes.getId(permission));
+    }
+
+    /**
+     * Checks if many players have a permission by its ID
+     *
+     * @param players The players you want to check
+     * @param node    The permission ID, from {@link PermissionNodes#getId(String)}
+     * @return {@code true} for each player having the permission, by UUID
+     */
+    default Map<UUID, Boolean> hasPermission(Collection<UUID> players, int node) {
+        Map<UUID, IPermissionsEntity> entities = this.getPlayers(players);
+        Map<UUID, Boolean> result = new HashMap<>();
+
+        for (UUID player : players) {
+            IPermissionsEntity entity = entities.get(player);
+            result.put(player, entity != null && entity.hasPermission(node));
+        }
+
+        return result;
+    }
 }
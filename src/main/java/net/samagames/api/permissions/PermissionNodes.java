@@ -0,0 +1,80 @@
+package net.samagames.api.permissions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * IDs given to the checked permissions, so their resolution can be
+ * cached in arrays. Hot paths should keep the ID of their permission
+ * in a constant.
+ */
+public class PermissionNodes {
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static final List<String> NAMES = new ArrayList<>();
+
+    private PermissionNodes() {
+    }
+
+    /**
+     * Get the ID of a given permission, given at its first use
+     *
+     * @param permission Permission
+     * @return ID
+     */
+    public static int getId(String permission) {
+        Integer id = IDS.get(permission);
+
+        if (id != null)
+            return id;
+
+        synchronized (NAMES) {
+            return IDS.computeIfAbsent(permission, key ->
+            {
+                NAMES.add(key);
+                return NAMES.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Get the permission of a given ID
+     *
+     * @param id ID
+     * @return Permission
+     */
+    public static String getName(int id) {
+        synchronized (NAMES) {
+            return NAMES.get(id);
+        }
+    }
+
+    /**
+     * Count the permissions which have an ID
+     *
+     * @return Number of permissions
+     */
+    public static int size() {
+        synchronized (NAMES) {
+            return NAMES.size();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package net.samagames.api.permissions;
+
+import java.util.*;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Permissions compiled into a tree of their dot separated segments.
+ * <p>
+ * {@code a.b} is given by {@code a.b}, else by the deepest wildcard
+ * above it: {@code a.*}, then {@code *}. A permission set to
+ * {@code false}, or prefixed by {@code -}, is a negation. The wildcard
+ * value applying under each node is computed at compilation.
+ */
+public class PermissionTrie {
+    private final Node root;
+
+    private PermissionTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Compile given permissions
+     *
+     * @param permissions Permissions, with their value
+     * @return Compiled permissions
+     */
+    public static PermissionTrie compile(Map<String, Boolean> permissions) {
+        Node root = new Node();
+        List<Map.Entry<String, Boolean>> entries = new ArrayList<>(permissions.entrySet());
+
+        // The negations go last so they win over the same permission given, whatever the map order
+        entries.sort(Comparator.comparing(entry -> entry.getKey().startsWith("-")));
+
+        for (Map.Entry<String, Boolean> entry : entries) {
+            String permission = entry.getKey();
+            boolean value = entry.getValue() == null || entry.getValue();
+
+            if (permission.startsWith("-")) {
+                permission = permission.substring(1);
+                value = false;
+            }
+
+            Node node = root;
+            String[] segments = permission.split("\\.");
+
+            for (int i = 0; i < segments.length; i++) {
+                if (segments[i].equals("*") && i == segments.length - 1) {
+                    node.wildcard = value;
+                    break;
+                }
+
+                node = node.children.computeIfAbsent(segments[i], key -> new Node());
+
+                if (i == segments.length - 1)
+                    node.exact = value;
+            }
+        }
+
+        root.inherit(null);
+        return new PermissionTrie(root);
+    }
+
+    /**
+     * Resolve a permission
+     *
+     * @param permission Permission
+     * @return {@code true} if given, {@code false} if denied or not set
+     */
+    public boolean hasPermission(String permission) {
+        Node node = this.root;
+        int start = 0;
+
+        while (true) {
+            int end = permission.indexOf('.', start);
+            Node child = node.children.get(end == -1 ? permission.substring(start) : permission.substring(start, end));
+
+            if (child == null)
+                return node.below;
+
+            if (end == -1)
+                return child.exact != null ? child.exact : node.below;
+
+            node = child;
+            start = end + 1;
+        }
+    }
+
+    private static class Node {
+        private final Map<String, Node> children;
+        private Boolean exact;
+        private Boolean wildcard;
+        private boolean below;
+
+        private Node() {
+            this.children = new HashMap<>();
+            this.exact = null;
+            this.wildcard = null;
+            this.below = false;
+        }
+
+        private void inherit(Node parent) {
+            this.below = this.wildcard != null ? this.wildcard : parent != null && parent.below;
+            this.children.values().forEach(child -> child.inherit(this));
+        }
+    }
+}
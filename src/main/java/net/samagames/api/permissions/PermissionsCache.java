@@ -0,0 +1,171 @@
+package net.samagames.api.permissions;
+
+import net.samagames.api.pubsub.IPacketsReceiver;
+import net.samagames.api.pubsub.IPubSubAPI;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Resolved permissions of the entities. Entities with the same
+ * permissions, like the players of a group without their own
+ * permissions, share the same compiled permissions.
+ * <p>
+ * The permissions of an entity are compiled again when its
+ * {@link IPermissionsEntity#getPermissionsVersion()} changes, or once
+ * it was invalidated: when it leaves the server, when its change is
+ * announced on the {@link #CHANNEL} channel with
+ * {@link #notifyChange(UUID)}, or when a group of the
+ * {@link PermissionsGroupRegistry} changes.
+ */
+public class PermissionsCache implements IPacketsReceiver, Listener {
+    public static final String CHANNEL = "permissions.changes";
+
+    private static final int MAX_COMPILED = 4096;
+
+    private final IPubSubAPI pubSub;
+    private final String origin;
+    private final Logger logger;
+    private final Map<Map<String, Boolean>, ResolvedPermissions> compiled;
+    private final Map<UUID, Entry> entities;
+    private final AtomicLong invalidations;
+
+    /**
+     * Constructor
+     *
+     * @param pubSub PubSub used to announce the changes, {@code null}
+     *               to keep them on this server
+     * @param origin Name of this server, to ignore its own changes
+     * @param logger Logger
+     */
+    public PermissionsCache(IPubSubAPI pubSub, String origin, Logger logger) {
+        this.pubSub = pubSub;
+        this.origin = origin;
+        this.logger = logger;
+        this.compiled = new ConcurrentHashMap<>();
+        this.entities = new ConcurrentHashMap<>();
+        this.invalidations = new AtomicLong();
+
+        if (pubSub != null)
+            pubSub.subscribe(CHANNEL, this);
+    }
+
+    /**
+     * Get the resolved permissions of an entity
+     *
+     * @param entity Entity
+     * @return Resolved permissions
+     */
+    public ResolvedPermissions get(IPermissionsEntity entity) {
+        long version = entity.getPermissionsVersion();
+        Entry entry = this.entities.get(entity.getUUID());
+
+        if (entry != null && entry.version == version)
+            return entry.resolved;
+
+        long invalidations = this.invalidations.get();
+        ResolvedPermissions resolved = this.compile(entity.getPermissions());
+
+        // An invalidation received during the compilation may not be in it, so it is not kept
+        if (this.invalidations.get() == invalidations)
+            this.entities.put(entity.getUUID(), new Entry(version, resolved));
+
+        return resolved;
+    }
+
+    /**
+     * Forget the resolved permissions of an entity whose permissions
+     * changed, here and on the other servers. To be called when the
+     * permissions of an entity are modified.
+     *
+     * @param entity Entity's UUID
+     */
+    public void notifyChange(UUID entity) {
+        this.invalidate(entity);
+
+        if (this.pubSub != null)
+            this.pubSub.send(CHANNEL, this.origin + "/" + entity);
+    }
+
+    /**
+     * Forget the resolved permissions of an entity
+     *
+     * @param entity Entity's UUID
+     */
+    public void invalidate(UUID entity) {
+        this.invalidations.incrementAndGet();
+        this.entities.remove(entity);
+    }
+
+    /**
+     * Forget every resolved permissions
+     */
+    public void invalidateAll() {
+        this.invalidations.incrementAndGet();
+        this.entities.clear();
+        this.compiled.clear();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        this.invalidate(event.getPlayer().getUniqueId());
+    }
+
+    @Override
+    public void receive(String channel, String packet) {
+        String[] parts = packet.split("/", 2);
+
+        if (parts.length < 2 || parts[0].equals(this.origin))
+            return;
+
+        try {
+            this.invalidate(UUID.fromString(parts[1]));
+        } catch (IllegalArgumentException e) {
+            this.logger.warning("Invalid permissions change: " + packet);
+        }
+    }
+
+    private ResolvedPermissions compile(Map<String, Boolean> permissions) {
+        Map<String, Boolean> copy = permissions == null ? new HashMap<>() : new HashMap<>(permissions);
+
+        if (this.compiled.size() >= MAX_COMPILED)
+            this.compiled.clear();
+
+        return this.compiled.computeIfAbsent(copy, key -> new ResolvedPermissions(PermissionTrie.compile(key)));
+    }
+
+    private static class Entry {
+        private final long version;
+        private final ResolvedPermissions resolved;
+
+        private Entry(long version, ResolvedPermissions resolved) {
+            this.version = version;
+            this.resolved = resolved;
+        }
+    }
+}
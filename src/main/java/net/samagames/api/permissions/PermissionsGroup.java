@@ -0,0 +1,110 @@
+package net.samagames.api.permissions;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Immutable snapshot of a permissions group, shared by all the
+ * players of the group
+ */
+public class PermissionsGroup {
+    private final long groupId;
+    private final String groupName;
+    private final String prefix;
+    private final String suffix;
+    private final String tag;
+    private final int rank;
+    private final int multiplier;
+    private final Map<String, Boolean> permissions;
+    private volatile ResolvedPermissions resolved;
+
+    /**
+     * Constructor
+     *
+     * @param groupId     Group's ID
+     * @param groupName   Group's name
+     * @param prefix      Prefix
+     * @param suffix      Suffix
+     * @param tag         Tag
+     * @param rank        Rank
+     * @param multiplier  Coins multiplier
+     * @param permissions Permissions, with their value
+     */
+    public PermissionsGroup(long groupId, String groupName, String prefix, String suffix, String tag, int rank, int multiplier, Map<String, Boolean> permissions) {
+        this.groupId = groupId;
+        this.groupName = groupName;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.tag = tag;
+        this.rank = rank;
+        this.multiplier = multiplier;
+        this.permissions = Collections.unmodifiableMap(new HashMap<>(permissions));
+    }
+
+    public long getGroupId() {
+        return this.groupId;
+    }
+
+    public String getGroupName() {
+        return this.groupName;
+    }
+
+    public String getPrefix() {
+        return this.prefix;
+    }
+
+    public String getSuffix() {
+        return this.suffix;
+    }
+
+    public String getTag() {
+        return this.tag;
+    }
+
+    public int getRank() {
+        return this.rank;
+    }
+
+    public int getMultiplier() {
+        return this.multiplier;
+    }
+
+    public Map<String, Boolean> getPermissions() {
+        return this.permissions;
+    }
+
+    /**
+     * Get the compiled permissions of this group, shared by the
+     * players without own permissions
+     *
+     * @return Resolved permissions
+     */
+    public ResolvedPermissions getResolvedPermissions() {
+        ResolvedPermissions resolved = this.resolved;
+
+        if (resolved == null) {
+            resolved = new ResolvedPermissions(PermissionTrie.compile(this.permissions));
+            this.resolved = resolved;
+        }
+
+        return resolved;
+    }
+}
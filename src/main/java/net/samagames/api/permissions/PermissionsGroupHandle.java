@@ -0,0 +1,50 @@
+package net.samagames.api.permissions;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Reference to the current snapshot of a group. The players keep the
+ * handle of their group, so replacing the snapshot updates all of
+ * them at once.
+ */
+public class PermissionsGroupHandle {
+    private final long groupId;
+    private volatile PermissionsGroup snapshot;
+
+    PermissionsGroupHandle(long groupId, PermissionsGroup snapshot) {
+        this.groupId = groupId;
+        this.snapshot = snapshot;
+    }
+
+    public long getGroupId() {
+        return this.groupId;
+    }
+
+    /**
+     * Get the current snapshot of the group
+     *
+     * @return Snapshot
+     */
+    public PermissionsGroup get() {
+        return this.snapshot;
+    }
+
+    void set(PermissionsGroup snapshot) {
+        this.snapshot = snapshot;
+    }
+}
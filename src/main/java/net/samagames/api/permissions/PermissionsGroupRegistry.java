@@ -0,0 +1,221 @@
+package net.samagames.api.permissions;
+
+import net.samagames.api.pubsub.IPacketsReceiver;
+import net.samagames.api.pubsub.IPubSubAPI;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Snapshots of the permissions groups, loaded once per server and
+ * shared by the players of each group.
+ * <p>
+ * A group changed with {@link #update(PermissionsGroup)} is announced
+ * on the {@link #CHANNEL} channel, the other servers then load its
+ * new snapshot in the background.
+ */
+public class PermissionsGroupRegistry implements IPacketsReceiver {
+    public static final String CHANNEL = "permissions.groups";
+
+    private final LongFunction<PermissionsGroup> loader;
+    private final PermissionsCache permissionsCache;
+    private final IPubSubAPI pubSub;
+    private final String origin;
+    private final Logger logger;
+    private final Map<Long, PermissionsGroupHandle> handles;
+    private final AtomicLong changes;
+    private final ExecutorService reloader;
+
+    /**
+     * Constructor
+     *
+     * @param loader           Loads the snapshot of a group from the
+     *                         database, {@code null} if it doesn't exist
+     * @param permissionsCache Cache whose resolved permissions are
+     *                         dropped when a group changes, may be
+     *                         {@code null}
+     * @param pubSub           PubSub used to announce the changes,
+     *                         {@code null} to keep them on this server
+     * @param origin           Name of this server, to ignore its own
+     *                         changes
+     * @param logger           Logger
+     */
+    public PermissionsGroupRegistry(LongFunction<PermissionsGroup> loader, PermissionsCache permissionsCache, IPubSubAPI pubSub, String origin, Logger logger) {
+        this.loader = loader;
+        this.permissionsCache = permissionsCache;
+        this.pubSub = pubSub;
+        this.origin = origin;
+        this.logger = logger;
+        this.handles = new ConcurrentHashMap<>();
+        this.changes = new AtomicLong();
+        this.reloader = Executors.newSingleThreadExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "Permissions-Groups-Reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (pubSub != null)
+            pubSub.subscribe(CHANNEL, this);
+    }
+
+    /**
+     * Get the handle of a group, its snapshot is loaded on first use
+     *
+     * @param groupId Group's ID
+     * @return Handle
+     * @throws IllegalArgumentException If the group doesn't exist
+     */
+    public PermissionsGroupHandle getHandle(long groupId) {
+        PermissionsGroupHandle handle = this.handles.get(groupId);
+
+        if (handle != null)
+            return handle;
+
+        // Loaded outside of the map so a slow database doesn't block the other groups
+        long changes = this.changes.get();
+        PermissionsGroup snapshot = this.loader.apply(groupId);
+
+        if (snapshot == null)
+            throw new IllegalArgumentException("Unknown permissions group " + groupId);
+
+        handle = new PermissionsGroupHandle(groupId, snapshot);
+        PermissionsGroupHandle previous = this.handles.putIfAbsent(groupId, handle);
+
+        if (previous != null)
+            return previous;
+
+        // A change received during the load may not be in it
+        if (this.changes.get() != changes)
+            this.reloadAsync(groupId);
+
+        return handle;
+    }
+
+    /**
+     * Get the current snapshot of a group
+     *
+     * @param groupId Group's ID
+     * @return Snapshot
+     * @throws IllegalArgumentException If the group doesn't exist
+     */
+    public PermissionsGroup getGroup(long groupId) {
+        return this.getHandle(groupId).get();
+    }
+
+    /**
+     * Replace the snapshot of a group and announce it to the other
+     * servers
+     *
+     * @param group New snapshot
+     */
+    public void update(PermissionsGroup group) {
+        if (group == null)
+            throw new IllegalArgumentException("Permissions group can't be null");
+
+        this.changes.incrementAndGet();
+        this.handles.computeIfAbsent(group.getGroupId(), id -> new PermissionsGroupHandle(id, group)).set(group);
+        this.onChange();
+
+        if (this.pubSub != null)
+            this.pubSub.send(CHANNEL, this.origin + "/" + group.getGroupId());
+    }
+
+    /**
+     * Load again the snapshot of a group. The current snapshot is kept
+     * if the load fails or doesn't find the group.
+     *
+     * @param groupId Group's ID
+     */
+    public void reload(long groupId) {
+        this.changes.incrementAndGet();
+        PermissionsGroupHandle handle = this.handles.get(groupId);
+
+        // A group never used here will be loaded on first use
+        if (handle == null)
+            return;
+
+        try {
+            PermissionsGroup snapshot = this.loader.apply(groupId);
+
+            if (snapshot == null) {
+                this.logger.warning("Permissions group " + groupId + " not found, the current snapshot is kept");
+                return;
+            }
+
+            handle.set(snapshot);
+            this.onChange();
+        } catch (Exception e) {
+            this.logger.log(Level.WARNING, "Failed to reload the permissions group " + groupId, e);
+        }
+    }
+
+    /**
+     * Load again the snapshot of a group in the background
+     *
+     * @param groupId Group's ID
+     */
+    public void reloadAsync(long groupId) {
+        this.changes.incrementAndGet();
+        this.reloader.execute(() -> this.reload(groupId));
+    }
+
+    /**
+     * Stop the background loads, waiting for the current ones
+     *
+     * @param timeoutMillis Maximum time to wait
+     */
+    public void shutdown(long timeoutMillis) {
+        this.reloader.shutdown();
+
+        try {
+            this.reloader.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void receive(String channel, String packet) {
+        String[] parts = packet.split("/", 2);
+
+        if (parts.length < 2 || parts[0].equals(this.origin))
+            return;
+
+        try {
+            this.reloadAsync(Long.parseLong(parts[1]));
+        } catch (NumberFormatException e) {
+            this.logger.warning("Invalid permissions group update: " + packet);
+        }
+    }
+
+    private void onChange() {
+        // The entities of the core may have compiled the permissions of the old snapshot
+        if (this.permissionsCache != null)
+            this.permissionsCache.invalidateAll();
+    }
+}
@@ -0,0 +1,259 @@
+package net.samagames.api.permissions;
+
+import net.samagames.api.SamaGamesAPI;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Permissions of a player, referencing the shared snapshot of his
+ * group and only keeping his own permissions as a delta over it. A
+ * player without own permissions shares the permissions map, and so
+ * the compiled permissions, of his group.
+ * <p>
+ * The negated permissions, like {@code -a.b}, are stored as
+ * {@code a.b: false} before merging, so an own negation replaces the
+ * permission of the group.
+ */
+public class PlayerPermissions implements IPermissionsEntity {
+    private final UUID uuid;
+    private final PermissionsGroupHandle group;
+    private final PermissionsGroupHandle displayGroup;
+    private final Supplier<Map<String, Boolean>> overridesLoader;
+    private volatile Map<String, Boolean> overrides;
+    private volatile Merged merged;
+    private volatile long version;
+
+    /**
+     * Constructor
+     *
+     * @param uuid         Player's UUID
+     * @param group        Handle of the player's group
+     * @param displayGroup Handle of the group shown to the other
+     *                     players, like for a nickname
+     * @param overrides    Permissions of the player himself, replacing
+     *                     the ones of the group
+     */
+    public PlayerPermissions(UUID uuid, PermissionsGroupHandle group, PermissionsGroupHandle displayGroup, Map<String, Boolean> overrides) {
+        this(uuid, group, displayGroup, () -> overrides);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param uuid            Player's UUID
+     * @param group           Handle of the player's group
+     * @param displayGroup    Handle of the group shown to the other
+     *                        players, like for a nickname
+     * @param overridesLoader Loader of the permissions of the player
+     *                        himself, called again by {@link #refresh()}
+     */
+    public PlayerPermissions(UUID uuid, PermissionsGroupHandle group, PermissionsGroupHandle displayGroup, Supplier<Map<String, Boolean>> overridesLoader) {
+        if (group == null)
+            throw new IllegalArgumentException("Player's group can't be null");
+
+        this.uuid = uuid;
+        this.group = group;
+        this.displayGroup = displayGroup != null ? displayGroup : group;
+        this.overridesLoader = overridesLoader;
+        this.overrides = normalize(overridesLoader.get());
+        this.merged = null;
+        this.version = 0L;
+    }
+
+    @Override
+    public UUID getUUID() {
+        return this.uuid;
+    }
+
+    @Override
+    public long getGroupId() {
+        return this.group.getGroupId();
+    }
+
+    @Override
+    public String getDisplayPrefix() {
+        return this.displayGroup.get().getPrefix();
+    }
+
+    @Override
+    public String getPrefix() {
+        return this.group.get().getPrefix();
+    }
+
+    @Override
+    public String getDisplaySuffix() {
+        return this.displayGroup.get().getSuffix();
+    }
+
+    @Override
+    public String getSuffix() {
+        return this.group.get().getSuffix();
+    }
+
+    @Override
+    public int getDisplayRank() {
+        return this.displayGroup.get().getRank();
+    }
+
+    @Override
+    public int getRank() {
+        return this.group.get().getRank();
+    }
+
+    @Override
+    public String getDisplayTag() {
+        return this.displayGroup.get().getTag();
+    }
+
+    @Override
+    public String getTag() {
+        return this.group.get().getTag();
+    }
+
+    @Override
+    public String getDisplayGroupName() {
+        return this.displayGroup.get().getGroupName();
+    }
+
+    @Override
+    public String getGroupName() {
+        return this.group.get().getGroupName();
+    }
+
+    @Override
+    public long getDisplayGroupId() {
+        return this.displayGroup.getGroupId();
+    }
+
+    @Override
+    public int getMultiplier() {
+        return this.group.get().getMultiplier();
+    }
+
+    @Override
+    public Map<String, Boolean> getPermissions() {
+        PermissionsGroup snapshot = this.group.get();
+
+        if (this.overrides.isEmpty())
+            return snapshot.getPermissions();
+
+        return this.getMerged(snapshot).permissions;
+    }
+
+    private Merged getMerged(PermissionsGroup snapshot) {
+        Merged merged = this.merged;
+
+        if (merged == null || merged.snapshot != snapshot) {
+            Map<String, Boolean> permissions = new HashMap<>(normalize(snapshot.getPermissions()));
+            permissions.putAll(this.overrides);
+
+            merged = new Merged(snapshot, Collections.unmodifiableMap(permissions));
+            this.merged = merged;
+        }
+
+        return merged;
+    }
+
+    /**
+     * Get the permissions of the player himself, the negated ones
+     * stored as {@code false}
+     *
+     * @return Permissions replacing the ones of the group
+     */
+    public Map<String, Boolean> getOverrides() {
+        return this.overrides;
+    }
+
+    @Override
+    public boolean hasPermission(String name) {
+        return this.getResolvedPermissions().hasPermission(name);
+    }
+
+    @Override
+    public boolean hasPermission(int node) {
+        return this.getResolvedPermissions().hasPermission(node);
+    }
+
+    @Override
+    public long getPermissionsVersion() {
+        return this.version;
+    }
+
+    @Override
+    public void refresh() {
+        this.overrides = normalize(this.overridesLoader.get());
+        this.merged = null;
+        this.version++;
+
+        SamaGamesAPI.get().getPermissionsCache().invalidate(this.uuid);
+    }
+
+    private ResolvedPermissions getResolvedPermissions() {
+        PermissionsGroup snapshot = this.group.get();
+
+        if (this.overrides.isEmpty())
+            return snapshot.getResolvedPermissions();
+
+        // The snapshots are immutable, so the merged permissions are compiled once per snapshot
+        Merged merged = this.getMerged(snapshot);
+        ResolvedPermissions resolved = merged.resolved;
+
+        if (resolved == null) {
+            resolved = new ResolvedPermissions(PermissionTrie.compile(merged.permissions));
+            merged.resolved = resolved;
+        }
+
+        return resolved;
+    }
+
+    private static Map<String, Boolean> normalize(Map<String, Boolean> permissions) {
+        if (permissions == null || permissions.isEmpty())
+            return Collections.emptyMap();
+
+        Map<String, Boolean> normalized = new HashMap<>();
+
+        for (Map.Entry<String, Boolean> entry : permissions.entrySet()) {
+            String permission = entry.getKey();
+
+            // A negation wins over the same permission given in the same map
+            if (permission.startsWith("-"))
+                normalized.put(permission.substring(1), false);
+            else
+                normalized.putIfAbsent(permission, entry.getValue() == null || entry.getValue());
+        }
+
+        return Collections.unmodifiableMap(normalized);
+    }
+
+    private static class Merged {
+        private final PermissionsGroup snapshot;
+        private final Map<String, Boolean> permissions;
+        private volatile ResolvedPermissions resolved;
+
+        private Merged(PermissionsGroup snapshot, Map<String, Boolean> permissions) {
+            this.snapshot = snapshot;
+            this.permissions = permissions;
+        }
+    }
+}
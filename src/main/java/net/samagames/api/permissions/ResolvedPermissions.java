@@ -0,0 +1,88 @@
+package net.samagames.api.permissions;
+
+import java.util.Arrays;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Compiled permissions with the result of every permission already
+ * checked, kept two bits per permission ID. Once resolved, a check
+ * is a read in an array.
+ */
+public class ResolvedPermissions {
+    private static final int UNKNOWN = 0;
+    private static final int GRANTED = 1;
+    private static final int DENIED = 2;
+
+    private final PermissionTrie trie;
+    private volatile int[] states;
+
+    /**
+     * Constructor
+     *
+     * @param trie Compiled permissions
+     */
+    public ResolvedPermissions(PermissionTrie trie) {
+        this.trie = trie;
+        this.states = new int[4];
+    }
+
+    /**
+     * Check a permission
+     *
+     * @param permission Permission
+     * @return {@code true} if given
+     */
+    public boolean hasPermission(String permission) {
+        return this.hasPermission(PermissionNodes.getId(permission));
+    }
+
+    /**
+     * Check a permission by its ID
+     *
+     * @param node Permission ID, from {@link PermissionNodes#getId(String)}
+     * @return {@code true} if given
+     */
+    public boolean hasPermission(int node) {
+        int[] states = this.states;
+        int word = node >>> 4;
+
+        if (word < states.length) {
+            int state = (states[word] >>> ((node & 15) << 1)) & 3;
+
+            if (state != UNKNOWN)
+                return state == GRANTED;
+        }
+
+        boolean granted = this.trie.hasPermission(PermissionNodes.getName(node));
+        this.store(node, granted ? GRANTED : DENIED);
+
+        return granted;
+    }
+
+    private synchronized void store(int node, int state) {
+        int word = node >>> 4;
+        int[] states = this.states;
+
+        if (word >= states.length)
+            states = Arrays.copyOf(states, Math.max(states.length * 2, word + 1));
+
+        states[word] |= state << ((node & 15) << 1);
+        this.states = states;
+    }
+}
@@ -0,0 +1,656 @@
+package net.samagames.api.player;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Write-behind ledger for coin and powder credits.
+ * <p>
+ * Credits are applied to an in-memory pending balance and appended to
+ * a local journal, then flushed to the backend in batches: one
+ * operation per player, currency and reason. Callbacks are fired at
+ * once with the optimistic new amount (backend amount plus pending
+ * credits, multiplier included). Withdrawals are not delayed, they go
+ * straight to the backend which checks the funds.
+ * <p>
+ * At flush time the journal is rotated into a numbered batch file,
+ * deleted only once the backend acknowledged every operation of it.
+ * Acknowledged operations are written to a side file, so the recovery
+ * run by {@link #start(JavaPlugin, long)} only sends again the ones of
+ * a batch which got no answer. This is at-least-once: an operation
+ * applied by the backend right before a crash, and not yet marked, is
+ * sent twice.
+ * <p>
+ * The journal is written by a dedicated thread, which commits the
+ * lines of every credit made since its last pass at once, so the
+ * callers never wait for the disk. It starts with the recovery, the
+ * flushes are skipped until it is done.
+ */
+public class CoinsLedger {
+    private static final String SEPARATOR = "|";
+    private static final String BATCH_SUFFIX = ".flushing";
+    private static final String ACKS_SUFFIX = ".acks";
+    private static final long COMMIT_PERIOD_MILLIS = 50L;
+
+    private final IPlayerDataManager playerDataManager;
+    private final ToIntFunction<UUID> multiplierProvider;
+    private final Logger logger;
+    private final File journalFile;
+    private final File rejectedFile;
+    private final ReadWriteLock lock;
+    private final Map<EntryKey, long[]> entries;
+    private final Map<UUID, LongAdder[]> pendingBalances;
+    private final Set<Batch> inFlight;
+    private final AtomicLong batchIds;
+    private final Queue<String> journalLines;
+    private final CountDownLatch recovery;
+    private Writer journal;
+    private volatile ScheduledExecutorService journalWriter;
+    private BukkitTask flushTask;
+
+    /**
+     * Constructor
+     *
+     * @param playerDataManager  Manager used to send the operations
+     * @param multiplierProvider Coins multiplier of a player, used for
+     *                           the optimistic amounts
+     * @param journalFile        Local journal file
+     * @param logger             Logger used to report the failures
+     */
+    public CoinsLedger(IPlayerDataManager playerDataManager, ToIntFunction<UUID> multiplierProvider, File journalFile, Logger logger) {
+        this.playerDataManager = playerDataManager;
+        this.multiplierProvider = multiplierProvider;
+        this.logger = logger;
+        this.journalFile = journalFile;
+        this.rejectedFile = new File(journalFile.getParentFile(), journalFile.getName() + ".rejected");
+        this.lock = new ReentrantReadWriteLock();
+        this.entries = new ConcurrentHashMap<>();
+        this.pendingBalances = new ConcurrentHashMap<>();
+        this.inFlight = ConcurrentHashMap.newKeySet();
+        this.batchIds = new AtomicLong();
+        this.journalLines = new ConcurrentLinkedQueue<>();
+        this.recovery = new CountDownLatch(1);
+    }
+
+    /**
+     * Credit coins to a given player
+     *
+     * @param player            Player
+     * @param amount            Amount to credit
+     * @param reason            Credit's reason
+     * @param applyMultiplier   Have to apply multiplier
+     * @param financialCallback Callback fired with the optimistic amount
+     */
+    public void creditCoins(UUID player, long amount, String reason, boolean applyMultiplier, IFinancialCallback financialCallback) {
+        this.record(player, Currency.COINS, amount, reason, applyMultiplier, financialCallback);
+    }
+
+    /**
+     * Withdraw coins from a given player, at once on the backend. The
+     * pending credits are not spendable until they are flushed.
+     *
+     * @param player            Player
+     * @param amount            Amount to withdraw
+     * @param financialCallback Callback fired with the backend's answer,
+     *                          pending credits added to the new amount
+     */
+    public void withdrawCoins(UUID player, long amount, IFinancialCallback financialCallback) {
+        this.withdraw(player, Currency.COINS, amount, financialCallback);
+    }
+
+    /**
+     * Credit powders to a given player
+     *
+     * @param player            Player
+     * @param amount            Amount to credit
+     * @param financialCallback Callback fired with the optimistic amount
+     */
+    public void creditPowders(UUID player, long amount, IFinancialCallback financialCallback) {
+        this.record(player, Currency.POWDERS, amount, "", false, financialCallback);
+    }
+
+    /**
+     * Withdraw powders from a given player, at once on the backend. The
+     * pending credits are not spendable until they are flushed.
+     *
+     * @param player            Player
+     * @param amount            Amount to withdraw
+     * @param financialCallback Callback fired with the backend's answer,
+     *                          pending credits added to the new amount
+     */
+    public void withdrawPowders(UUID player, long amount, IFinancialCallback financialCallback) {
+        this.withdraw(player, Currency.POWDERS, amount, financialCallback);
+    }
+
+    /**
+     * Get the not yet flushed amount of a given player
+     *
+     * @param player   Player
+     * @param currency Currency
+     * @return Pending amount, multiplier included
+     */
+    public long getPendingAmount(UUID player, Currency currency) {
+        LongAdder[] balances = this.pendingBalances.get(player);
+        return balances == null ? 0L : balances[currency.ordinal()].sum();
+    }
+
+    /**
+     * Send every pending credit to the backend
+     */
+    public void flush() {
+        Batch batch;
+
+        // Rotating the journal before the recovery would mix the credits of this run with the last one
+        if (this.recovery.getCount() > 0L)
+            return;
+
+        this.lock.writeLock().lock();
+
+        try {
+            if (this.entries.isEmpty())
+                return;
+
+            batch = new Batch(this.nextBatchFile(), new HashMap<>(this.entries));
+            this.entries.clear();
+            this.rotateJournal(batch.file);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        this.send(batch);
+    }
+
+    /**
+     * Send every pending credit to the backend and wait a bit for it to
+     * answer, the periodic flush keeps running
+     *
+     * @param timeoutMillis Maximum time to wait for the answers
+     * @return {@code true} if every batch was acknowledged in time
+     */
+    public boolean flushAndWait(long timeoutMillis) {
+        this.flush();
+
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+
+        synchronized (this.inFlight) {
+            long remaining;
+
+            while (!this.inFlight.isEmpty() && (remaining = deadline - System.currentTimeMillis()) > 0L) {
+                try {
+                    this.inFlight.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+
+            return this.inFlight.isEmpty();
+        }
+    }
+
+    /**
+     * Send again the operations left by a previous run which the
+     * backend did not acknowledge, on the journal thread before it
+     * writes anything
+     */
+    private void recover() {
+        try {
+            this.recoverBatches();
+        } catch (Exception e) {
+            this.logger.log(Level.SEVERE, "Failed to recover the coins journal, it is kept for the next start", e);
+        } finally {
+            this.recovery.countDown();
+        }
+    }
+
+    private void recoverBatches() {
+        File directory = this.journalFile.getAbsoluteFile().getParentFile();
+        String prefix = this.journalFile.getName() + BATCH_SUFFIX;
+        File[] batchFiles = directory.listFiles((dir, name) -> name.startsWith(prefix) && !name.endsWith(ACKS_SUFFIX));
+        List<File> files = new ArrayList<>(batchFiles == null ? Collections.emptyList() : Arrays.asList(batchFiles));
+
+        for (File file : files) {
+            String id = file.getName().substring(prefix.length());
+
+            if (id.startsWith("."))
+                this.batchIds.accumulateAndGet(parseId(id.substring(1)) + 1, Math::max);
+        }
+
+        // The journal of the last run is handled like an unanswered batch
+        if (this.journalFile.exists()) {
+            File file = this.nextBatchFile();
+
+            if (this.journalFile.renameTo(file))
+                files.add(file);
+            else
+                this.logger.severe("Failed to rotate the coins journal " + this.journalFile + ", it is kept for the next start");
+        }
+
+        for (File file : files) {
+            Batch batch = this.readBatch(file);
+
+            if (batch != null)
+                this.send(batch);
+        }
+    }
+
+    /**
+     * Recover the operations of the last run and start the journal
+     * thread, off the calling thread, then flush the pending
+     * operations at a fixed rate
+     *
+     * @param plugin      Plugin owning the task
+     * @param periodTicks Period between two flushes
+     */
+    public synchronized void start(JavaPlugin plugin, long periodTicks) {
+        if (this.flushTask != null)
+            return;
+
+        ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "CoinsLedger-Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        writer.execute(this::recover);
+        writer.scheduleWithFixedDelay(this::commit, COMMIT_PERIOD_MILLIS, COMMIT_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+
+        this.journalWriter = writer;
+        this.flushTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::flush, periodTicks, periodTicks);
+    }
+
+    /**
+     * Stop the periodic flush and the journal thread, send what is
+     * pending and wait a bit for the backend to answer. Unanswered
+     * batches stay on the disk for the next start.
+     *
+     * @param timeoutMillis Maximum time to wait for the recovery and
+     *                      the answers
+     */
+    public synchronized void stop(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+
+        if (this.flushTask != null) {
+            this.flushTask.cancel();
+            this.flushTask = null;
+        }
+
+        try {
+            if (!this.recovery.await(timeoutMillis, TimeUnit.MILLISECONDS))
+                this.logger.warning("The coins journal recovery did not end in time, the credits of this run were not journaled");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!this.flushAndWait(Math.max(0L, deadline - System.currentTimeMillis())))
+            this.logger.warning(this.inFlight.size() + " coins batches were not acknowledged, they will be sent again at the next start");
+
+        ScheduledExecutorService writer = this.journalWriter;
+
+        if (writer != null) {
+            this.journalWriter = null;
+            writer.shutdownNow();
+        }
+
+        // The lines queued meanwhile, and the late answers, are written by their caller from now on
+        this.commit();
+    }
+
+    private void record(UUID player, Currency currency, long amount, String nullableReason, boolean applyMultiplier, IFinancialCallback financialCallback) {
+        String reason = nullableReason == null ? "" : nullableReason;
+        long optimisticDifference = applyMultiplier ? amount * Math.max(1, this.multiplierProvider.applyAsInt(player)) : amount;
+
+        this.queue(new EntryKey(player, currency, reason, applyMultiplier), amount, optimisticDifference);
+        this.addPending(player, currency, optimisticDifference);
+
+        if (financialCallback != null) {
+            try {
+                financialCallback.done(this.getBackendAmount(player, currency) + this.getPendingAmount(player, currency), optimisticDifference, null);
+            } catch (Exception e) {
+                this.logger.log(Level.WARNING, "Financial callback failed", e);
+            }
+        }
+    }
+
+    private void queue(EntryKey key, long amount, long optimisticDifference) {
+        this.lock.readLock().lock();
+
+        try {
+            this.appendLine(key, amount, optimisticDifference);
+
+            // compute() is atomic against the flush which clears the map under the write lock
+            this.entries.compute(key, (k, sums) ->
+            {
+                long[] result = sums == null ? new long[2] : sums;
+                result[0] += amount;
+                result[1] += optimisticDifference;
+                return result;
+            });
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void withdraw(UUID player, Currency currency, long amount, IFinancialCallback financialCallback) {
+        IFinancialCallback callback = financialCallback == null ? null : (newAmount, difference, error) ->
+                financialCallback.done(newAmount + this.getPendingAmount(player, currency), difference, error);
+
+        try {
+            AbstractPlayerData playerData = this.playerDataManager.getPlayerData(player);
+
+            if (currency == Currency.COINS)
+                playerData.withdrawCoins(amount, callback);
+            else
+                playerData.withdrawPowders(amount, callback);
+        } catch (Exception e) {
+            this.logger.log(Level.WARNING, "Failed to withdraw " + amount + " " + currency + " of " + player, e);
+
+            if (financialCallback != null)
+                financialCallback.done(this.getBackendAmount(player, currency) + this.getPendingAmount(player, currency), 0L, e);
+        }
+    }
+
+    private void send(Batch batch) {
+        this.inFlight.add(batch);
+
+        if (batch.entries.isEmpty()) {
+            this.complete(batch);
+            return;
+        }
+
+        for (Map.Entry<EntryKey, long[]> entry : batch.entries.entrySet()) {
+            EntryKey key = entry.getKey();
+            long amount = entry.getValue()[0];
+            long optimisticDifference = entry.getValue()[1];
+            AtomicInteger answers = new AtomicInteger();
+
+            IFinancialCallback callback = (newAmount, difference, error) ->
+            {
+                // A backend calling twice must not count the operation twice
+                if (answers.getAndIncrement() > 0)
+                    return;
+
+                if (error != null) {
+                    this.logger.log(Level.WARNING, "Failed to flush " + amount + " " + key.currency + " of " + key.player + ", queued again", error);
+
+                    // Still pending: back in the journal before the batch forgets it
+                    this.queue(key, amount, optimisticDifference);
+                } else {
+                    this.addPending(key.player, key.currency, -optimisticDifference);
+                }
+
+                this.acknowledge(batch, key);
+            };
+
+            try {
+                AbstractPlayerData playerData = this.playerDataManager.getPlayerData(key.player);
+
+                if (amount == 0L)
+                    callback.done(0L, 0L, null);
+                else if (key.currency == Currency.COINS && amount > 0L)
+                    playerData.creditCoins(amount, key.reason, key.applyMultiplier, callback);
+                else if (key.currency == Currency.COINS)
+                    playerData.withdrawCoins(-amount, callback);
+                else if (amount > 0L)
+                    playerData.creditPowders(amount, callback);
+                else
+                    playerData.withdrawPowders(-amount, callback);
+            } catch (Exception e) {
+                callback.done(0L, 0L, e);
+            }
+        }
+    }
+
+    private void acknowledge(Batch batch, EntryKey key) {
+        synchronized (batch) {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(batch.acksFile, true), StandardCharsets.UTF_8)) {
+                writer.write(key.serialize() + "\n");
+            } catch (IOException e) {
+                this.logger.log(Level.SEVERE, "Failed to acknowledge a coins operation of " + key.player, e);
+            }
+        }
+
+        if (batch.remaining.decrementAndGet() == 0)
+            this.complete(batch);
+    }
+
+    private void complete(Batch batch) {
+        if ((!batch.file.delete() && batch.file.exists()) || (!batch.acksFile.delete() && batch.acksFile.exists()))
+            this.logger.warning("Failed to delete the flushed coins journal " + batch.file);
+
+        synchronized (this.inFlight) {
+            this.inFlight.remove(batch);
+            this.inFlight.notifyAll();
+        }
+    }
+
+    private Batch readBatch(File file) {
+        Set<String> acknowledged = new HashSet<>();
+        Map<EntryKey, long[]> entries = new HashMap<>();
+        List<String> rejected = new ArrayList<>();
+        Batch batch = new Batch(file, entries);
+
+        try {
+            if (batch.acksFile.exists())
+                acknowledged.addAll(readLines(batch.acksFile));
+
+            for (String line : readLines(file)) {
+                String[] parts = line.split("\\" + SEPARATOR, 6);
+
+                try {
+                    EntryKey key = new EntryKey(UUID.fromString(parts[0]), Currency.valueOf(parts[1]), parts[5], parts[2].equals("1"));
+
+                    if (acknowledged.contains(key.serialize()))
+                        continue;
+
+                    long amount = Long.parseLong(parts[3]);
+                    long optimisticDifference = Long.parseLong(parts[4]);
+
+                    long[] sums = entries.computeIfAbsent(key, k -> new long[2]);
+                    sums[0] += amount;
+                    sums[1] += optimisticDifference;
+                } catch (RuntimeException e) {
+                    rejected.add(line);
+                }
+            }
+        } catch (IOException e) {
+            this.logger.log(Level.SEVERE, "Failed to read the coins journal " + file + ", it is kept for the next start", e);
+            return null;
+        }
+
+        if (!rejected.isEmpty()) {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(this.rejectedFile, true), StandardCharsets.UTF_8)) {
+                for (String line : rejected)
+                    writer.write(line + "\n");
+            } catch (IOException e) {
+                this.logger.log(Level.SEVERE, "Failed to keep the invalid coins journal lines of " + file + ", it is kept for the next start", e);
+                return null;
+            }
+
+            this.logger.warning(rejected.size() + " invalid coins journal lines were moved to " + this.rejectedFile);
+        }
+
+        for (Map.Entry<EntryKey, long[]> entry : entries.entrySet())
+            this.addPending(entry.getKey().player, entry.getKey().currency, entry.getValue()[1]);
+
+        batch.remaining.set(entries.size());
+        return batch;
+    }
+
+    private void addPending(UUID player, Currency currency, long difference) {
+        this.pendingBalances.computeIfAbsent(player, key -> new LongAdder[]{new LongAdder(), new LongAdder()})[currency.ordinal()].add(difference);
+    }
+
+    private long getBackendAmount(UUID player, Currency currency) {
+        try {
+            AbstractPlayerData playerData = this.playerDataManager.getPlayerData(player);
+            return currency == Currency.COINS ? playerData.getCoins() : playerData.getPowders();
+        } catch (Exception e) {
+            return 0L;
+        }
+    }
+
+    private void appendLine(EntryKey key, long amount, long optimisticDifference) {
+        this.journalLines.add(key.player + SEPARATOR + key.currency.name() + SEPARATOR + (key.applyMultiplier ? "1" : "0") + SEPARATOR + amount + SEPARATOR + optimisticDifference + SEPARATOR + key.reason + "\n");
+
+        if (this.journalWriter == null)
+            this.commit();
+    }
+
+    private void commit() {
+        if (this.recovery.getCount() > 0L)
+            return;
+
+        synchronized (this.journalFile) {
+            try {
+                this.writeJournalLines();
+
+                if (this.journal != null)
+                    this.journal.flush();
+            } catch (IOException e) {
+                this.logger.log(Level.SEVERE, "Failed to write the coins journal " + this.journalFile, e);
+            }
+        }
+    }
+
+    private void writeJournalLines() throws IOException {
+        String line;
+
+        while ((line = this.journalLines.poll()) != null) {
+            if (this.journal == null)
+                this.journal = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.journalFile, true), StandardCharsets.UTF_8));
+
+            this.journal.write(line);
+        }
+    }
+
+    private void rotateJournal(File batchFile) {
+        synchronized (this.journalFile) {
+            try {
+                // The lines of the batch still queued go to its file
+                this.writeJournalLines();
+
+                if (this.journal != null) {
+                    this.journal.close();
+                    this.journal = null;
+                }
+
+                if (this.journalFile.exists() && !this.journalFile.renameTo(batchFile))
+                    this.logger.warning("Failed to rotate the coins journal " + this.journalFile);
+            } catch (IOException e) {
+                this.logger.log(Level.SEVERE, "Failed to rotate the coins journal " + this.journalFile, e);
+            }
+        }
+    }
+
+    private File nextBatchFile() {
+        return new File(this.journalFile.getParentFile(), this.journalFile.getName() + BATCH_SUFFIX + "." + this.batchIds.getAndIncrement());
+    }
+
+    private static long parseId(String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private static List<String> readLines(File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+
+            while ((line = reader.readLine()) != null)
+                if (!line.isEmpty())
+                    lines.add(line);
+        }
+
+        return lines;
+    }
+
+    public enum Currency {
+        COINS,
+        POWDERS
+    }
+
+    private static class Batch {
+        private final File file;
+        private final File acksFile;
+        private final Map<EntryKey, long[]> entries;
+        private final AtomicInteger remaining;
+
+        private Batch(File file, Map<EntryKey, long[]> entries) {
+            this.file = file;
+            this.acksFile = new File(file.getParentFile(), file.getName() + ACKS_SUFFIX);
+            this.entries = entries;
+            this.remaining = new AtomicInteger(entries.size());
+        }
+    }
+
+    private static class EntryKey {
+        private final UUID player;
+        private final Currency currency;
+        private final String reason;
+        private final boolean applyMultiplier;
+
+        private EntryKey(UUID player, Currency currency, String reason, boolean applyMultiplier) {
+            this.player = player;
+            this.currency = currency;
+            this.reason = reason.replace('\n', ' ');
+            this.applyMultiplier = applyMultiplier;
+        }
+
+        private String serialize() {
+            return this.player + SEPARATOR + this.currency.name() + SEPARATOR + (this.applyMultiplier ? "1" : "0") + SEPARATOR + this.reason;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof EntryKey))
+                return false;
+
+            EntryKey other = (EntryKey) o;
+            return this.applyMultiplier == other.applyMultiplier && this.player.equals(other.player) && this.currency == other.currency && this.reason.equals(other.reason);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.player, this.currency, this.reason, this.applyMultiplier);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package net.samagames.api.player;
 
 import net.md_5.bungee.api.chat.TextComponent;
+import net.samagames.tools.cache.CacheMetrics;
+import net.samagames.tools.cache.CachePolicy;
 
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /*
  * This file is part of SamaGamesAPI.
@@ -38,6 +41,117 @@ public interface IPlayerDataManager {
      */
     AbstractPlayerData getPlayerData(UUID player, boolean forceRefresh);
 
+    /**
+     * Get given player's data from the {@link #getPlayerDataCache()},
+     * reloaded in the background once it gets close to a given age,
+     * following the refresh ahead ratio of the {@link #getCachePolicy()}.
+     * Older data is served for at most the stale while revalidate
+     * duration of the policy, after that the read waits for the reload.
+     * A missing player is loaded and cached.
+     *
+     * @param player       Player's UUID
+     * @param maxAgeMillis Maximum age of the data
+     * @return Instance
+     */
+    default AbstractPlayerData getPlayerData(UUID player, long maxAgeMillis) {
+        PlayerDataCache cache = this.getPlayerDataCache();
+        return cache == null ? this.getPlayerData(player) : cache.get(player, maxAgeMillis);
+    }
+
+    /**
+     * Get given player's data, reloaded in the background once it gets
+     * close to the time to live of a given field in the
+     * {@link #getCachePolicy()}
+     *
+     * @param player Player's UUID
+     * @param field  Field about to be read, like {@code coins}
+     * @return Instance
+     */
+    default AbstractPlayerData getPlayerData(UUID player, String field) {
+        PlayerDataCache cache = this.getPlayerDataCache();
+        return cache == null ? this.getPlayerData(player) : cache.get(player, field);
+    }
+
+    /**
+     * Get the cache of the players' data of this manager, which its
+     * other methods read and fill. Managers adopting the cache
+     * policies return their own {@link PlayerDataCache}; without one
+     * the data is loaded by {@link #getPlayerData(UUID)} at each read.
+     *
+     * @return Cache, {@code null} if the manager has none
+     */
+    default PlayerDataCache getPlayerDataCache() {
+        return null;
+    }
+
+    /**
+     * Get the freshness and size rules of the players' data cache,
+     * changes are applied to the next reads
+     *
+     * @return Policy, {@code null} if the manager has no cache
+     */
+    default CachePolicy getCachePolicy() {
+        PlayerDataCache cache = this.getPlayerDataCache();
+        return cache == null ? null : cache.getPolicy();
+    }
+
+    /**
+     * Get the hits, misses and load times of the players' data cache
+     *
+     * @return Metrics, {@code null} if the manager has no cache
+     */
+    default CacheMetrics getCacheMetrics() {
+        PlayerDataCache cache = this.getPlayerDataCache();
+        return cache == null ? null : cache.getMetrics();
+    }
+
+    /**
+     * Get the data of many players at once. The players whose data is
+     * cached in Redis, see {@link #getPlayerDataKey(UUID)}, are read in
+     * one pipelined round-trip; the others fall back to single loads in
+     * parallel, on threads of its own. Implementations may override
+     * this with a batched query of their backend.
+     *
+     * @param players Players' UUID
+     * @return Future completed with the data of the found players
+     */
+    default CompletableFuture<Map<UUID, AbstractPlayerData>> getPlayerData(Collection<UUID> players) {
+        return PlayerDataBatches.load(this, players);
+    }
+
+    /**
+     * Get the Redis hash holding the data of a given player, read by
+     * the bulk loads
+     *
+     * @param player Player's UUID
+     * @return Key, {@code null} if the data is not cached in Redis
+     */
+    default String getPlayerDataKey(UUID player) {
+        return null;
+    }
+
+    /**
+     * Build the data of a given player from its Redis hash
+     *
+     * @param player Player's UUID
+     * @param hash   Fields of the hash
+     * @return Instance, {@code null} to load the player on its own
+     */
+    default AbstractPlayerData readPlayerData(UUID player, Map<String, String> hash) {
+        return null;
+    }
+
+    /**
+     * Load the data of many players in cache before they are needed,
+     * like the players expected on the server
+     *
+     * @param players Players' UUID
+     * @return Future completed when the data is loaded
+     */
+    default CompletableFuture<Map<UUID, AbstractPlayerData>> prefetch(Collection<UUID> players) {
+        return this.getPlayerData(players);
+    }
+
     /**
      * Kick the player from the network (need to add sanction manually)
      *
@@ -0,0 +1,120 @@
+package net.samagames.api.player;
+
+import net.samagames.api.SamaGamesAPI;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Bulk loads of the default {@link IPlayerDataManager#getPlayerData(Collection)}:
+ * the players whose data is cached in Redis are read in one pipelined
+ * round-trip and put in the manager's cache, the others are loaded one
+ * by one on the {@link PlayerDataExecutor} as a fallback.
+ */
+final class PlayerDataBatches {
+    private PlayerDataBatches() {
+    }
+
+    static CompletableFuture<Map<UUID, AbstractPlayerData>> load(IPlayerDataManager manager, Collection<UUID> players) {
+        Set<UUID> distinct = new LinkedHashSet<>(players);
+
+        return CompletableFuture.supplyAsync(() -> readRedis(manager, distinct), PlayerDataExecutor.INSTANCE).thenCompose(found ->
+        {
+            List<UUID> missing = new ArrayList<>();
+
+            for (UUID player : distinct)
+                if (!found.containsKey(player))
+                    missing.add(player);
+
+            if (missing.isEmpty())
+                return CompletableFuture.completedFuture(found);
+
+            return loadEach(manager, missing).thenApply(loaded ->
+            {
+                found.putAll(loaded);
+                return found;
+            });
+        });
+    }
+
+    private static Map<UUID, AbstractPlayerData> readRedis(IPlayerDataManager manager, Set<UUID> players) {
+        Map<UUID, AbstractPlayerData> result = new HashMap<>();
+        List<UUID> cached = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+
+        for (UUID player : players) {
+            String key = manager.getPlayerDataKey(player);
+
+            if (key != null) {
+                cached.add(player);
+                keys.add(key);
+            }
+        }
+
+        if (keys.isEmpty())
+            return result;
+
+        try {
+            List<Map<String, String>> hashes = SamaGamesAPI.get().getRedis().hgetAll(keys);
+
+            for (int i = 0; i < cached.size(); i++) {
+                Map<String, String> hash = hashes.get(i);
+                AbstractPlayerData playerData = hash == null || hash.isEmpty() ? null : manager.readPlayerData(cached.get(i), hash);
+
+                if (playerData != null)
+                    result.put(cached.get(i), playerData);
+            }
+
+            PlayerDataCache cache = manager.getPlayerDataCache();
+
+            if (cache != null)
+                result.forEach(cache::put);
+        } catch (Exception e) {
+            // The players are loaded one by one instead
+            SamaGamesAPI.get().getPlugin().getLogger().log(Level.WARNING, "Failed to read the data of " + keys.size() + " players from Redis", e);
+        }
+
+        return result;
+    }
+
+    private static CompletableFuture<Map<UUID, AbstractPlayerData>> loadEach(IPlayerDataManager manager, List<UUID> players) {
+        Map<UUID, CompletableFuture<AbstractPlayerData>> loads = new HashMap<>();
+
+        for (UUID player : players)
+            loads.put(player, CompletableFuture.supplyAsync(() -> manager.getPlayerData(player), PlayerDataExecutor.INSTANCE));
+
+        return CompletableFuture.allOf(loads.values().toArray(new CompletableFuture[0])).handle((ignored, throwable) ->
+        {
+            Map<UUID, AbstractPlayerData> result = new HashMap<>();
+
+            // A player failing to load must not fail the whole batch
+            loads.forEach((player, load) ->
+            {
+                AbstractPlayerData playerData = load.isCompletedExceptionally() ? null : load.join();
+
+                if (playerData != null)
+                    result.put(player, playerData);
+            });
+
+            return result;
+        });
+    }
+}
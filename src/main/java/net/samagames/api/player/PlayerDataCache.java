@@ -0,0 +1,71 @@
+package net.samagames.api.player;
+
+import net.samagames.tools.cache.CachePolicy;
+import net.samagames.tools.cache.RefreshAheadCache;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Cache of the players' data an {@link IPlayerDataManager} adopts as
+ * its own, see {@link IPlayerDataManager#getPlayerDataCache()}.
+ * <p>
+ * It is reloaded in the background on the threads of the default bulk
+ * loads. The online players are tracked from the join and quit events,
+ * so they are kept above the size limit without calling Bukkit from
+ * the loading threads. It has to be registered as a listener.
+ */
+public class PlayerDataCache extends RefreshAheadCache<UUID, AbstractPlayerData> implements Listener {
+    private final Set<UUID> onlinePlayers;
+
+    /**
+     * Constructor
+     *
+     * @param loader Function loading the data of a player from the
+     *               backend, {@code null} if it does not exist
+     * @param policy Freshness and size rules
+     */
+    public PlayerDataCache(Function<UUID, AbstractPlayerData> loader, CachePolicy policy) {
+        this(loader, policy, ConcurrentHashMap.newKeySet());
+    }
+
+    private PlayerDataCache(Function<UUID, AbstractPlayerData> loader, CachePolicy policy, Set<UUID> onlinePlayers) {
+        super(loader, policy, PlayerDataExecutor.INSTANCE, player -> !onlinePlayers.contains(player));
+        this.onlinePlayers = onlinePlayers;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        this.onlinePlayers.add(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        this.onlinePlayers.remove(event.getPlayer().getUniqueId());
+        this.cleanUp();
+    }
+}
@@ -0,0 +1,221 @@
+package net.samagames.api.pubsub;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * {@link ISender} coalescing the published messages into pipelined
+ * Redis round-trips done on a dedicated flush thread.
+ * <p>
+ * A batch is flushed as soon as it reaches the max batch size or when
+ * the oldest waiting message has lingered for the max linger time.
+ * Callbacks of the messages ({@link PendingMessage#runAfter()}) are
+ * fired on the flush thread once the whole batch has been acknowledged
+ * by Redis.
+ */
+public class BatchingSender implements ISender {
+    private static final PendingMessage POISON = new PendingMessage("", "");
+
+    private final Supplier<Jedis> resourceSupplier;
+    private final Logger logger;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final BlockingQueue<PendingMessage> queue;
+    private final Thread flushThread;
+    private final ReadWriteLock stateLock;
+    private volatile boolean running;
+
+    /**
+     * Constructor
+     *
+     * @param resourceSupplier Supplier of Redis connections, they are closed after each batch
+     * @param logger           Logger used to report the failed batches
+     * @param maxBatchSize     Max number of messages sent in one pipeline
+     * @param maxLingerMillis  Max time a message can wait before its batch is flushed
+     */
+    public BatchingSender(Supplier<Jedis> resourceSupplier, Logger logger, int maxBatchSize, long maxLingerMillis) {
+        if (maxBatchSize <= 0)
+            throw new IllegalArgumentException("Max batch size must be positive");
+
+        this.resourceSupplier = resourceSupplier;
+        this.logger = logger;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, maxLingerMillis));
+        this.queue = new LinkedBlockingQueue<>();
+        this.stateLock = new ReentrantReadWriteLock();
+        this.running = true;
+
+        this.flushThread = new Thread(this::run, "PubSub-BatchingSender");
+        this.flushThread.setDaemon(true);
+        this.flushThread.start();
+    }
+
+    /**
+     * Queue a given message, it will be sent with the next batch.
+     * Once the sender is shut down, the message is sent at once on
+     * the calling thread.
+     *
+     * @param message Message
+     */
+    @Override
+    public void publish(PendingMessage message) {
+        this.stateLock.readLock().lock();
+
+        try {
+            if (this.running) {
+                this.queue.add(message);
+                return;
+            }
+        } finally {
+            this.stateLock.readLock().unlock();
+        }
+
+        this.flush(Collections.singletonList(message));
+    }
+
+    /**
+     * Stop the flush thread after sending the messages
+     * already queued
+     *
+     * @param timeoutMillis Max time to wait for the last batches
+     */
+    public void shutdown(long timeoutMillis) {
+        this.stateLock.writeLock().lock();
+
+        try {
+            if (!this.running)
+                return;
+
+            // Queued under the write lock, so every message queued before is ahead of it
+            this.running = false;
+            this.queue.add(POISON);
+        } finally {
+            this.stateLock.writeLock().unlock();
+        }
+
+        try {
+            this.flushThread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get the number of messages waiting to be sent
+     *
+     * @return Number of messages
+     */
+    public int getPendingCount() {
+        return this.queue.size();
+    }
+
+    private void run() {
+        List<PendingMessage> batch = new ArrayList<>(this.maxBatchSize);
+        boolean stop = false;
+
+        while (!stop) {
+            try {
+                PendingMessage first = this.queue.take();
+
+                if (first == POISON) {
+                    stop = true;
+                } else {
+                    batch.add(first);
+                    stop = this.fill(batch);
+                }
+            } catch (InterruptedException e) {
+                stop = true;
+            }
+
+            if (!batch.isEmpty()) {
+                this.flush(batch);
+                batch.clear();
+            }
+        }
+
+        // Drain what was queued before the shutdown request, in batches
+        while (this.queue.drainTo(batch, this.maxBatchSize) > 0) {
+            batch.remove(POISON);
+
+            if (!batch.isEmpty())
+                this.flush(batch);
+
+            batch.clear();
+        }
+    }
+
+    private boolean fill(List<PendingMessage> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + this.maxLingerNanos;
+
+        while (batch.size() < this.maxBatchSize) {
+            this.queue.drainTo(batch, this.maxBatchSize - batch.size());
+
+            if (batch.remove(POISON))
+                return true;
+
+            long remaining = deadline - System.nanoTime();
+
+            if (batch.size() >= this.maxBatchSize || remaining <= 0L)
+                break;
+
+            PendingMessage next = this.queue.poll(remaining, TimeUnit.NANOSECONDS);
+
+            if (next == null)
+                break;
+            else if (next == POISON)
+                return true;
+
+            batch.add(next);
+        }
+
+        return false;
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        try (Jedis jedis = this.resourceSupplier.get()) {
+            if (jedis == null)
+                throw new IllegalStateException("No Redis connection available");
+
+            Pipeline pipeline = jedis.pipelined();
+
+            for (PendingMessage message : batch)
+                pipeline.publish(message.getChannel(), message.getMessage());
+
+            pipeline.sync();
+        } catch (Exception e) {
+            this.logger.log(Level.SEVERE, "Failed to publish a batch of " + batch.size() + " PubSub messages", e);
+            return;
+        }
+
+        batch.forEach(PendingMessage::runAfter);
+    }
+}
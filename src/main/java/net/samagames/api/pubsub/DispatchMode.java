@@ -0,0 +1,34 @@
+package net.samagames.api.pubsub;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Thread running a PubSub receiver
+ */
+public enum DispatchMode {
+    /**
+     * Run the receiver on the thread receiving the messages
+     */
+    SUBSCRIBER_THREAD,
+
+    /**
+     * Run the receiver on the bounded worker pool, the deliveries
+     * are dropped when it is full
+     */
+    WORKER_POOL
+}
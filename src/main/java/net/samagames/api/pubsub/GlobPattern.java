@@ -0,0 +1,247 @@
+package net.samagames.api.pubsub;
+
+import java.util.Arrays;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Compiled Redis glob pattern, as used by PSUBSCRIBE: {@code *},
+ * {@code ?}, {@code [abc]}, {@code [^abc]}, {@code [a-z]} and
+ * {@code \} to escape a special character.
+ */
+public class GlobPattern {
+    private static final int LITERAL = 0;
+    private static final int ANY_CHAR = 1;
+    private static final int ANY_STRING = 2;
+    private static final int CHAR_CLASS = 3;
+
+    private final String pattern;
+    private final int[] types;
+    private final char[] literals;
+    private final CharClass[] classes;
+    private final String literalPrefix;
+
+    /**
+     * Constructor
+     *
+     * @param pattern Glob pattern
+     */
+    public GlobPattern(String pattern) {
+        this.pattern = pattern;
+
+        int length = pattern.length();
+        int[] types = new int[length];
+        char[] literals = new char[length];
+        CharClass[] classes = new CharClass[length];
+        int count = 0;
+        boolean inPrefix = true;
+        StringBuilder prefix = new StringBuilder();
+
+        for (int i = 0; i < length; i++) {
+            char c = pattern.charAt(i);
+
+            if (c == '*') {
+                // Consecutive stars are equivalent to a single one
+                if (count == 0 || types[count - 1] != ANY_STRING)
+                    types[count++] = ANY_STRING;
+            } else if (c == '?') {
+                types[count++] = ANY_CHAR;
+            } else if (c == '[') {
+                int end = i + 1;
+
+                if (end < length && pattern.charAt(end) == '^')
+                    end++;
+
+                // Redis accepts an unterminated class, it then extends to the end of the pattern
+                while (end < length && pattern.charAt(end) != ']') {
+                    if (pattern.charAt(end) == '\\' && end + 1 < length)
+                        end++;
+
+                    end++;
+                }
+
+                types[count] = CHAR_CLASS;
+                classes[count++] = new CharClass(pattern, i + 1, Math.min(end, length));
+                i = end;
+            } else {
+                if (c == '\\' && i + 1 < length)
+                    c = pattern.charAt(++i);
+
+                types[count] = LITERAL;
+                literals[count++] = c;
+            }
+
+            if (inPrefix && types[count - 1] == LITERAL)
+                prefix.append(literals[count - 1]);
+            else
+                inPrefix = false;
+        }
+
+        this.types = Arrays.copyOf(types, count);
+        this.literals = Arrays.copyOf(literals, count);
+        this.classes = Arrays.copyOf(classes, count);
+        this.literalPrefix = prefix.toString();
+    }
+
+    /**
+     * Check if a given channel matches this pattern
+     *
+     * @param channel Channel
+     * @return {@code true} if matching
+     */
+    public boolean matches(String channel) {
+        int length = channel.length();
+        int token = 0;
+        int index = 0;
+        int starToken = -1;
+        int starIndex = 0;
+
+        while (index < length) {
+            if (token < this.types.length && this.types[token] != ANY_STRING && this.matchesOne(token, channel.charAt(index))) {
+                token++;
+                index++;
+            } else if (token < this.types.length && this.types[token] == ANY_STRING) {
+                starToken = token++;
+                starIndex = index;
+            } else if (starToken != -1) {
+                // Let the last star absorb one more character and retry
+                token = starToken + 1;
+                index = ++starIndex;
+            } else {
+                return false;
+            }
+        }
+
+        while (token < this.types.length && this.types[token] == ANY_STRING)
+            token++;
+
+        return token == this.types.length;
+    }
+
+    /**
+     * Get the literal characters starting the pattern, every
+     * matching channel starts with them
+     *
+     * @return Literal prefix
+     */
+    public String getLiteralPrefix() {
+        return this.literalPrefix;
+    }
+
+    /**
+     * Get if this pattern contains no wildcard
+     *
+     * @return {@code true} if literal
+     */
+    public boolean isLiteral() {
+        return this.literalPrefix.length() == this.types.length;
+    }
+
+    /**
+     * Get the source pattern
+     *
+     * @return Pattern
+     */
+    public String getPattern() {
+        return this.pattern;
+    }
+
+    @Override
+    public String toString() {
+        return this.pattern;
+    }
+
+    /**
+     * Escape the special characters of a literal, so it can be used
+     * in a pattern
+     *
+     * @param literal Literal
+     * @return Pattern matching only the literal
+     */
+    public static String escape(String literal) {
+        StringBuilder escaped = new StringBuilder(literal.length());
+
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+
+            if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\')
+                escaped.append('\\');
+
+            escaped.append(c);
+        }
+
+        return escaped.toString();
+    }
+
+    private boolean matchesOne(int token, char c) {
+        switch (this.types[token]) {
+            case LITERAL:
+                return this.literals[token] == c;
+            case ANY_CHAR:
+                return true;
+            case CHAR_CLASS:
+                return this.classes[token].matches(c);
+            default:
+                return false;
+        }
+    }
+
+    private static class CharClass {
+        private final boolean negated;
+        private final char[] from;
+        private final char[] to;
+
+        private CharClass(String pattern, int start, int end) {
+            boolean negated = start < end && pattern.charAt(start) == '^';
+            char[] from = new char[end - start];
+            char[] to = new char[end - start];
+            int count = 0;
+
+            for (int i = negated ? start + 1 : start; i < end; i++) {
+                char c = pattern.charAt(i);
+
+                if (c == '\\' && i + 1 < end) {
+                    c = pattern.charAt(++i);
+                    from[count] = c;
+                    to[count++] = c;
+                } else if (i + 2 < end && pattern.charAt(i + 1) == '-') {
+                    char other = pattern.charAt(i + 2);
+                    from[count] = (char) Math.min(c, other);
+                    to[count++] = (char) Math.max(c, other);
+                    i += 2;
+                } else {
+                    from[count] = c;
+                    to[count++] = c;
+                }
+            }
+
+            this.negated = negated;
+            this.from = Arrays.copyOf(from, count);
+            this.to = Arrays.copyOf(to, count);
+        }
+
+        private boolean matches(char c) {
+            boolean found = false;
+
+            for (int i = 0; i < this.from.length && !found; i++)
+                found = c >= this.from[i] && c <= this.to[i];
+
+            return found != this.negated;
+        }
+    }
+}
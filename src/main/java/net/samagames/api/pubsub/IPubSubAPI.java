@@ -33,6 +33,32 @@ public interface IPubSubAPI {
      */
     void subscribe(String pattern, IPatternReceiver receiver);
 
+    /**
+     * Subscribe a given {@link IPacketsReceiver} to a given channel,
+     * implementations without a worker pool run it on the subscriber
+     * thread
+     *
+     * @param channel  Channel to listen
+     * @param receiver Receiver
+     * @param mode     Thread used to run the receiver
+     */
+    default void subscribe(String channel, IPacketsReceiver receiver, DispatchMode mode) {
+        this.subscribe(channel, receiver);
+    }
+
+    /**
+     * Subscribe a given {@link IPatternReceiver} to a given pattern,
+     * implementations without a worker pool run it on the subscriber
+     * thread
+     *
+     * @param pattern  Pattern to listen
+     * @param receiver Receiver
+     * @param mode     Thread used to run the receiver
+     */
+    default void subscribe(String pattern, IPatternReceiver receiver, DispatchMode mode) {
+        this.subscribe(pattern, receiver);
+    }
+
     /**
      * Send a given message into the given channel
      *
@@ -0,0 +1,242 @@
+package net.samagames.api.pubsub;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * In-process {@link IPubSubAPI}, without Redis. Used by tests, load
+ * tests and single-node servers.
+ * <p>
+ * Published messages go through a bounded lock-free ring buffer
+ * (multiple producers, one consumer) and are delivered in publication
+ * order by a single dispatch thread. Patterns follow the Redis glob
+ * semantics. When the ring is full, publishers spin until the
+ * dispatch thread frees a slot, except the receivers publishing from
+ * the dispatch thread itself: their messages are delivered at once,
+ * before the ones still in the ring.
+ */
+public class LocalPubSubAPI implements IPubSubAPI, ISender {
+    private final PubSubDispatcher dispatcher;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final String[] channels;
+    private final String[] messages;
+    private final Runnable[] callbacks;
+    private final AtomicLong tail;
+    private final Thread consumer;
+    private long head;
+    private volatile boolean parked;
+    private volatile boolean running;
+
+    /**
+     * Constructor
+     *
+     * @param logger        Logger used to report the failing receivers
+     * @param ringCapacity  Number of slots of the ring buffer, rounded
+     *                      up to a power of two
+     * @param workerThreads Number of threads running the receivers
+     *                      subscribed in {@link DispatchMode#WORKER_POOL}
+     */
+    public LocalPubSubAPI(Logger logger, int ringCapacity, int workerThreads) {
+        int capacity = Integer.highestOneBit(Math.max(2, ringCapacity - 1)) << 1;
+
+        this.dispatcher = new PubSubDispatcher(logger, workerThreads, capacity);
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.channels = new String[capacity];
+        this.messages = new String[capacity];
+        this.callbacks = new Runnable[capacity];
+        this.tail = new AtomicLong();
+        this.head = 0L;
+        this.parked = false;
+        this.running = true;
+
+        for (int i = 0; i < capacity; i++)
+            this.sequences.set(i, i);
+
+        this.consumer = new Thread(this::consume, "PubSub-Local");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Constructor
+     *
+     * @param logger Logger used to report the failing receivers
+     */
+    public LocalPubSubAPI(Logger logger) {
+        this(logger, 65536, 2);
+    }
+
+    @Override
+    public void subscribe(String channel, IPacketsReceiver receiver) {
+        this.dispatcher.subscribe(channel, receiver, DispatchMode.SUBSCRIBER_THREAD);
+    }
+
+    @Override
+    public void subscribe(String pattern, IPatternReceiver receiver) {
+        this.dispatcher.subscribe(pattern, receiver, DispatchMode.SUBSCRIBER_THREAD);
+    }
+
+    /**
+     * Subscribe a given {@link IPacketsReceiver} to a given channel
+     *
+     * @param channel  Channel to listen
+     * @param receiver Receiver
+     * @param mode     Thread used to run the receiver
+     */
+    @Override
+    public void subscribe(String channel, IPacketsReceiver receiver, DispatchMode mode) {
+        this.dispatcher.subscribe(channel, receiver, mode);
+    }
+
+    /**
+     * Subscribe a given {@link IPatternReceiver} to a given pattern
+     *
+     * @param pattern  Pattern to listen
+     * @param receiver Receiver
+     * @param mode     Thread used to run the receiver
+     */
+    @Override
+    public void subscribe(String pattern, IPatternReceiver receiver, DispatchMode mode) {
+        this.dispatcher.subscribe(pattern, receiver, mode);
+    }
+
+    @Override
+    public void send(String channel, String message) {
+        this.offer(channel, message, null);
+    }
+
+    @Override
+    public void send(PendingMessage message) {
+        this.publish(message);
+    }
+
+    @Override
+    public void publish(PendingMessage message) {
+        this.offer(message.getChannel(), message.getMessage(), message::runAfter);
+    }
+
+    @Override
+    public ISender getSender() {
+        return this;
+    }
+
+    /**
+     * Stop the dispatch thread after delivering the messages
+     * already published
+     *
+     * @param timeoutMillis Max time to wait
+     */
+    public void shutdown(long timeoutMillis) {
+        this.running = false;
+        LockSupport.unpark(this.consumer);
+
+        try {
+            this.consumer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.dispatcher.shutdown(timeoutMillis);
+    }
+
+    private void offer(String channel, String message, Runnable callback) {
+        if (!this.running)
+            throw new IllegalStateException("PubSub is shut down");
+
+        while (true) {
+            long position = this.tail.get();
+            int index = (int) position & this.mask;
+            long difference = this.sequences.get(index) - position;
+
+            if (difference == 0L) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    this.channels[index] = channel;
+                    this.messages[index] = message;
+                    this.callbacks[index] = callback;
+
+                    // Publishing the sequence makes the slot visible to the consumer, it is
+                    // a volatile write so either it sees the slot or we see it parked
+                    this.sequences.set(index, position + 1);
+
+                    if (this.parked)
+                        LockSupport.unpark(this.consumer);
+
+                    return;
+                }
+            } else if (difference < 0L) {
+                // Ring is full, the consumer can't free a slot while it waits for one itself
+                if (Thread.currentThread() == this.consumer) {
+                    this.deliver(channel, message, callback);
+                    return;
+                }
+
+                Thread.yield();
+            }
+        }
+    }
+
+    private void consume() {
+        int idleRounds = 0;
+
+        while (this.running || this.sequences.get((int) this.head & this.mask) == this.head + 1) {
+            int index = (int) this.head & this.mask;
+
+            if (this.sequences.get(index) != this.head + 1) {
+                if (++idleRounds < 100) {
+                    Thread.yield();
+                } else {
+                    this.parked = true;
+
+                    if (this.sequences.get(index) != this.head + 1)
+                        LockSupport.parkNanos(100_000L);
+
+                    this.parked = false;
+                }
+
+                continue;
+            }
+
+            idleRounds = 0;
+
+            String channel = this.channels[index];
+            String message = this.messages[index];
+            Runnable callback = this.callbacks[index];
+
+            this.channels[index] = null;
+            this.messages[index] = null;
+            this.callbacks[index] = null;
+            this.sequences.lazySet(index, this.head + this.mask + 1);
+            this.head++;
+
+            this.deliver(channel, message, callback);
+        }
+    }
+
+    private void deliver(String channel, String message, Runnable callback) {
+        this.dispatcher.dispatch(channel, message);
+
+        if (callback != null)
+            callback.run();
+    }
+}
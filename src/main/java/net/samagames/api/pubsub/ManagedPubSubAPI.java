@@ -0,0 +1,128 @@
+package net.samagames.api.pubsub;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * {@link IPubSubAPI} over the Redis one of the implementation, sending
+ * the published messages in pipelined batches with a {@link BatchingSender}.
+ * Receivers can be run on a worker pool instead of the Redis subscriber
+ * thread.
+ * <p>
+ * The pattern receivers are indexed by the {@link PubSubDispatcher}
+ * by the literal prefix of their pattern, with a single Redis
+ * subscription by prefix, so a message is only tested against the
+ * patterns sharing the prefix it was received for.
+ */
+public class ManagedPubSubAPI implements IPubSubAPI {
+    private final IPubSubAPI delegate;
+    private final BatchingSender sender;
+    private final PubSubDispatcher dispatcher;
+    private final Set<String> prefixes;
+
+    /**
+     * Constructor
+     *
+     * @param delegate   Redis PubSub API, used for the subscriptions
+     * @param sender     Sender of the published messages
+     * @param dispatcher Dispatcher owning the worker pool
+     */
+    public ManagedPubSubAPI(IPubSubAPI delegate, BatchingSender sender, PubSubDispatcher dispatcher) {
+        this.delegate = delegate;
+        this.sender = sender;
+        this.dispatcher = dispatcher;
+        this.prefixes = ConcurrentHashMap.newKeySet();
+    }
+
+    @Override
+    public void subscribe(String channel, IPacketsReceiver receiver) {
+        this.delegate.subscribe(channel, receiver);
+    }
+
+    @Override
+    public void subscribe(String pattern, IPatternReceiver receiver) {
+        this.subscribe(pattern, receiver, DispatchMode.SUBSCRIBER_THREAD);
+    }
+
+    /**
+     * Subscribe a given {@link IPacketsReceiver} to a given channel
+     *
+     * @param channel  Channel to listen
+     * @param receiver Receiver
+     * @param mode     Thread used to run the receiver
+     */
+    @Override
+    public void subscribe(String channel, IPacketsReceiver receiver, DispatchMode mode) {
+        this.delegate.subscribe(channel, mode == DispatchMode.WORKER_POOL ? this.dispatcher.onWorkerPool(receiver) : receiver);
+    }
+
+    /**
+     * Subscribe a given {@link IPatternReceiver} to a given pattern
+     *
+     * @param pattern  Pattern to listen
+     * @param receiver Receiver
+     * @param mode     Thread used to run the receiver
+     */
+    @Override
+    public void subscribe(String pattern, IPatternReceiver receiver, DispatchMode mode) {
+        String prefix = new GlobPattern(pattern).getLiteralPrefix();
+        this.dispatcher.subscribe(pattern, receiver, mode);
+
+        if (this.prefixes.add(prefix))
+            this.delegate.subscribe(GlobPattern.escape(prefix) + "*", (IPatternReceiver) (subscribed, channel, packet) -> this.dispatcher.dispatchPrefix(prefix, channel, packet));
+    }
+
+    @Override
+    public void send(String channel, String message) {
+        this.sender.publish(new PendingMessage(channel, message));
+    }
+
+    @Override
+    public void send(PendingMessage message) {
+        this.sender.publish(message);
+    }
+
+    @Override
+    public ISender getSender() {
+        return this.sender;
+    }
+
+    /**
+     * Get the dispatcher owning the worker pool, and its dropped
+     * deliveries count
+     *
+     * @return Instance
+     */
+    public PubSubDispatcher getDispatcher() {
+        return this.dispatcher;
+    }
+
+    /**
+     * Send the messages still queued and stop the sender, the
+     * messages published after are sent one by one. The worker
+     * pool is stopped too.
+     *
+     * @param timeoutMillis Max time to wait for the last batches
+     */
+    public void shutdown(long timeoutMillis) {
+        this.sender.shutdown(timeoutMillis);
+        this.dispatcher.shutdown(timeoutMillis);
+    }
+}
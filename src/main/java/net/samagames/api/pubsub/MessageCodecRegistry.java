@@ -0,0 +1,171 @@
+package net.samagames.api.pubsub;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Typed message layer over the string-based PubSub API.
+ * <p>
+ * Each channel is bound to one message class and one codec. Frames
+ * are made of the schema version (varint) followed by the payload
+ * written by the codec, and travel as packed strings (7 bits per
+ * ASCII char, so one byte each once encoded in UTF-8 by Jedis) so
+ * they go through {@link IPubSubAPI} unchanged.
+ */
+public class MessageCodecRegistry {
+    private static final ThreadLocal<PacketWriter> WRITERS = ThreadLocal.withInitial(() -> new PacketWriter(256));
+
+    private final Map<String, Registration<?>> registrations;
+    private final Logger logger;
+
+    /**
+     * Constructor
+     *
+     * @param logger Logger used to report the undecodable messages
+     */
+    public MessageCodecRegistry(Logger logger) {
+        this.registrations = new ConcurrentHashMap<>();
+        this.logger = logger;
+    }
+
+    /**
+     * Bind a message class and its codec to a given channel
+     *
+     * @param channel Channel
+     * @param type    Message class
+     * @param version Schema version, increase it on every
+     *                incompatible change of the codec
+     * @param codec   Codec
+     * @param <T>     Message type
+     */
+    public <T> void register(String channel, Class<T> type, int version, IMessageCodec<T> codec) {
+        if (this.registrations.putIfAbsent(channel, new Registration<>(type, version, codec)) != null)
+            throw new IllegalStateException("A codec is already registered for channel '" + channel + "'");
+    }
+
+    /**
+     * Encode a given message into a frame of the given channel
+     *
+     * @param channel Channel
+     * @param message Message
+     * @param <T>     Message type
+     * @return Packed frame
+     */
+    public <T> String encode(String channel, T message) {
+        Registration<T> registration = this.getRegistration(channel, message.getClass());
+        PacketWriter writer = WRITERS.get();
+
+        writer.reset();
+        writer.writeVarInt(registration.version);
+        registration.codec.encode(message, writer);
+
+        return writer.toPackedString();
+    }
+
+    /**
+     * Decode a frame received on the given channel
+     *
+     * @param channel Channel
+     * @param packet  Packed frame
+     * @param <T>     Message type
+     * @return Message
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T decode(String channel, String packet) {
+        Registration<T> registration = (Registration<T>) this.registrations.get(channel);
+
+        if (registration == null)
+            throw new IllegalStateException("No codec registered for channel '" + channel + "'");
+
+        PacketReader reader = PacketReader.fromPackedString(packet);
+        int version = reader.readVarInt();
+
+        if (version != registration.version)
+            throw new IllegalStateException("Schema version " + version + " received on channel '" + channel + "', expected " + registration.version);
+
+        return registration.codec.decode(reader);
+    }
+
+    /**
+     * Encode and send a given message
+     *
+     * @param pubSub  PubSub API
+     * @param channel Channel
+     * @param message Message
+     * @param <T>     Message type
+     */
+    public <T> void send(IPubSubAPI pubSub, String channel, T message) {
+        pubSub.send(channel, this.encode(channel, message));
+    }
+
+    /**
+     * Subscribe a typed receiver to a given channel, messages are
+     * decoded once before being given to the receiver
+     *
+     * @param pubSub   PubSub API
+     * @param channel  Channel
+     * @param type     Message class registered for the channel
+     * @param receiver Receiver
+     * @param <T>      Message type
+     */
+    public <T> void subscribe(IPubSubAPI pubSub, String channel, Class<T> type, ITypedReceiver<T> receiver) {
+        this.getRegistration(channel, type);
+
+        pubSub.subscribe(channel, (IPacketsReceiver) (receivedChannel, packet) ->
+        {
+            T message;
+
+            try {
+                message = this.decode(receivedChannel, packet);
+            } catch (RuntimeException e) {
+                this.logger.log(Level.WARNING, "Dropped undecodable message on channel '" + receivedChannel + "'", e);
+                return;
+            }
+
+            receiver.receive(receivedChannel, message);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Registration<T> getRegistration(String channel, Class<?> type) {
+        Registration<?> registration = this.registrations.get(channel);
+
+        if (registration == null)
+            throw new IllegalStateException("No codec registered for channel '" + channel + "'");
+        else if (!registration.type.isAssignableFrom(type))
+            throw new IllegalArgumentException("Channel '" + channel + "' expects " + registration.type.getName() + ", got " + type.getName());
+
+        return (Registration<T>) registration;
+    }
+
+    private static class Registration<T> {
+        private final Class<T> type;
+        private final int version;
+        private final IMessageCodec<T> codec;
+
+        private Registration(Class<T> type, int version, IMessageCodec<T> codec) {
+            this.type = type;
+            this.version = version;
+            this.codec = codec;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package net.samagames.api.pubsub;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class PacketReader {
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    /**
+     * Constructor
+     *
+     * @param buffer Bytes to read
+     */
+    public PacketReader(byte[] buffer) {
+        this.buffer = buffer;
+        this.limit = buffer.length;
+        this.position = 0;
+    }
+
+    /**
+     * Create a reader over a string produced by
+     * {@link PacketWriter#toPackedString()}
+     *
+     * @param packed Packed string
+     * @return New instance
+     */
+    public static PacketReader fromPackedString(String packed) {
+        byte[] buffer = new byte[packed.length() * 7 / 8];
+        int length = 0;
+        int bits = 0;
+        int accumulator = 0;
+
+        // The padding bits of the last char never make a whole byte
+        for (int i = 0; i < packed.length() && length < buffer.length; i++) {
+            char c = packed.charAt(i);
+
+            if (c > 0x7F)
+                throw new IllegalArgumentException("Not a packed string, char " + (int) c + " at " + i);
+
+            accumulator = (accumulator << 7) | c;
+            bits += 7;
+
+            if (bits >= 8) {
+                bits -= 8;
+                buffer[length++] = (byte) (accumulator >>> bits);
+                accumulator &= (1 << bits) - 1;
+            }
+        }
+
+        return new PacketReader(buffer);
+    }
+
+    /**
+     * Read a single byte
+     *
+     * @return Byte
+     */
+    public byte readByte() {
+        this.check(1);
+        return this.buffer[this.position++];
+    }
+
+    /**
+     * Read a boolean
+     *
+     * @return Boolean
+     */
+    public boolean readBoolean() {
+        return this.readByte() != 0;
+    }
+
+    /**
+     * Read an unsigned variable-length integer
+     *
+     * @return Integer
+     */
+    public int readVarInt() {
+        int value = 0;
+
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = this.readByte();
+            value |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0)
+                return value;
+        }
+
+        throw new IllegalStateException("VarInt is too long");
+    }
+
+    /**
+     * Read an unsigned variable-length long
+     *
+     * @return Long
+     */
+    public long readVarLong() {
+        long value = 0L;
+
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = this.readByte();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0)
+                return value;
+        }
+
+        throw new IllegalStateException("VarLong is too long");
+    }
+
+    /**
+     * Read a zig-zag encoded long
+     *
+     * @return Long
+     */
+    public long readSignedVarLong() {
+        long raw = this.readVarLong();
+        return (raw >>> 1) ^ -(raw & 1L);
+    }
+
+    /**
+     * Read a fixed-size long
+     *
+     * @return Long
+     */
+    public long readLong() {
+        this.check(8);
+        long value = 0L;
+
+        for (int i = 0; i < 8; i++)
+            value = (value << 8) | (this.buffer[this.position++] & 0xFF);
+
+        return value;
+    }
+
+    /**
+     * Read a fixed-size double
+     *
+     * @return Double
+     */
+    public double readDouble() {
+        return Double.longBitsToDouble(this.readLong());
+    }
+
+    /**
+     * Read an UUID written on 16 raw bytes
+     *
+     * @return UUID
+     */
+    public UUID readUUID() {
+        return new UUID(this.readLong(), this.readLong());
+    }
+
+    /**
+     * Read an UTF-8 string prefixed by its length
+     *
+     * @return String, may be {@code null}
+     */
+    public String readString() {
+        int length = this.readVarInt();
+
+        if (length == 0)
+            return null;
+
+        length--;
+        this.check(length);
+
+        String value = new String(this.buffer, this.position, length, StandardCharsets.UTF_8);
+        this.position += length;
+        return value;
+    }
+
+    /**
+     * Get the number of bytes left to read
+     *
+     * @return Remaining bytes
+     */
+    public int remaining() {
+        return this.limit - this.position;
+    }
+
+    private void check(int length) {
+        if (this.position + length > this.limit)
+            throw new IllegalStateException("Packet is truncated");
+    }
+}
@@ -0,0 +1,239 @@
+package net.samagames.api.pubsub;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class PacketWriter {
+    private byte[] buffer;
+    private int position;
+
+    /**
+     * Constructor
+     *
+     * @param initialCapacity Initial size of the buffer
+     */
+    public PacketWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+        this.position = 0;
+    }
+
+    /**
+     * Constructor
+     */
+    public PacketWriter() {
+        this(64);
+    }
+
+    /**
+     * Write a single byte
+     *
+     * @param value Byte
+     * @return This writer
+     */
+    public PacketWriter writeByte(int value) {
+        this.ensure(1);
+        this.buffer[this.position++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Write a boolean on one byte
+     *
+     * @param value Boolean
+     * @return This writer
+     */
+    public PacketWriter writeBoolean(boolean value) {
+        return this.writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Write an unsigned variable-length integer
+     *
+     * @param value Integer
+     * @return This writer
+     */
+    public PacketWriter writeVarInt(int value) {
+        this.ensure(5);
+
+        while ((value & ~0x7F) != 0) {
+            this.buffer[this.position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        this.buffer[this.position++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Write an unsigned variable-length long
+     *
+     * @param value Long
+     * @return This writer
+     */
+    public PacketWriter writeVarLong(long value) {
+        this.ensure(10);
+
+        while ((value & ~0x7FL) != 0L) {
+            this.buffer[this.position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        this.buffer[this.position++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Write a signed long with zig-zag encoding, small
+     * negative values stay short
+     *
+     * @param value Long
+     * @return This writer
+     */
+    public PacketWriter writeSignedVarLong(long value) {
+        return this.writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Write a fixed-size long
+     *
+     * @param value Long
+     * @return This writer
+     */
+    public PacketWriter writeLong(long value) {
+        this.ensure(8);
+
+        for (int i = 56; i >= 0; i -= 8)
+            this.buffer[this.position++] = (byte) (value >>> i);
+
+        return this;
+    }
+
+    /**
+     * Write a fixed-size double
+     *
+     * @param value Double
+     * @return This writer
+     */
+    public PacketWriter writeDouble(double value) {
+        return this.writeLong(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Write an UUID as 16 raw bytes
+     *
+     * @param uuid UUID
+     * @return This writer
+     */
+    public PacketWriter writeUUID(UUID uuid) {
+        this.writeLong(uuid.getMostSignificantBits());
+        return this.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Write an UTF-8 string prefixed by its length, {@code null}
+     * is supported
+     *
+     * @param value String
+     * @return This writer
+     */
+    public PacketWriter writeString(String value) {
+        if (value == null)
+            return this.writeVarInt(0);
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        this.writeVarInt(bytes.length + 1);
+        return this.writeBytes(bytes);
+    }
+
+    /**
+     * Write raw bytes
+     *
+     * @param bytes Bytes
+     * @return This writer
+     */
+    public PacketWriter writeBytes(byte[] bytes) {
+        this.ensure(bytes.length);
+        System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+        this.position += bytes.length;
+        return this;
+    }
+
+    /**
+     * Get the number of written bytes
+     *
+     * @return Size
+     */
+    public int size() {
+        return this.position;
+    }
+
+    /**
+     * Forget the written bytes to reuse this writer
+     */
+    public void reset() {
+        this.position = 0;
+    }
+
+    /**
+     * Get a copy of the written bytes
+     *
+     * @return Bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(this.buffer, this.position);
+    }
+
+    /**
+     * Get the written bytes as a string where each char holds 7 bits,
+     * suitable for the string-based PubSub API: the chars are all
+     * ASCII, so Jedis sends them as one byte each in UTF-8 and the
+     * frame only grows by 8/7
+     *
+     * @return Packed string
+     */
+    public String toPackedString() {
+        char[] packed = new char[(this.position * 8 + 6) / 7];
+        int length = 0;
+        int bits = 0;
+        int accumulator = 0;
+
+        for (int i = 0; i < this.position; i++) {
+            accumulator = (accumulator << 8) | (this.buffer[i] & 0xFF);
+            bits += 8;
+
+            while (bits >= 7) {
+                bits -= 7;
+                packed[length++] = (char) ((accumulator >>> bits) & 0x7F);
+            }
+
+            accumulator &= (1 << bits) - 1;
+        }
+
+        if (bits > 0)
+            packed[length++] = (char) ((accumulator << (7 - bits)) & 0x7F);
+
+        return new String(packed, 0, length);
+    }
+
+    private void ensure(int length) {
+        if (this.position + length > this.buffer.length)
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length << 1, this.position + length));
+    }
+}
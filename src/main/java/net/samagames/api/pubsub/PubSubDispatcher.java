@@ -0,0 +1,277 @@
+package net.samagames.api.pubsub;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Delivers the received PubSub messages to the registered receivers.
+ * <p>
+ * Channel receivers are found with a single map lookup. Pattern
+ * receivers are indexed in a trie by the literal prefix of their
+ * pattern, so only the patterns whose prefix starts the channel are
+ * tested against it.
+ * <p>
+ * Receivers registered with {@link DispatchMode#WORKER_POOL} are run
+ * on a bounded pool instead of the thread calling
+ * {@link #dispatch(String, String)}, so a slow receiver can't stall the
+ * others. When the pool queue is full, the delivery is dropped and
+ * counted in {@link #getDroppedCount()}. Receivers subscribed directly
+ * to another PubSub API can use the pool through
+ * {@link #onWorkerPool(IPacketsReceiver)}.
+ */
+public class PubSubDispatcher {
+    private final Logger logger;
+    private final Map<String, List<Subscription<IPacketsReceiver>>> channels;
+    private final TrieNode patterns;
+    private final ThreadPoolExecutor workers;
+    private final LongAdder dropped;
+
+    /**
+     * Constructor
+     *
+     * @param logger        Logger used to report the failing receivers
+     * @param workerThreads Number of threads of the worker pool
+     * @param queueCapacity Max number of deliveries waiting for a worker
+     */
+    public PubSubDispatcher(Logger logger, int workerThreads, int queueCapacity) {
+        this.logger = logger;
+        this.channels = new ConcurrentHashMap<>();
+        this.patterns = new TrieNode();
+        this.dropped = new LongAdder();
+
+        AtomicInteger threadId = new AtomicInteger();
+
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable ->
+        {
+            Thread thread = new Thread(runnable, "PubSub-Worker-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Register a receiver on a given channel
+     *
+     * @param channel  Channel
+     * @param receiver Receiver
+     * @param mode     Thread used to run the receiver
+     */
+    public void subscribe(String channel, IPacketsReceiver receiver, DispatchMode mode) {
+        this.channels.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>()).add(new Subscription<>(null, receiver, mode));
+    }
+
+    /**
+     * Register a receiver on a given pattern
+     *
+     * @param pattern  Redis glob pattern
+     * @param receiver Receiver
+     * @param mode     Thread used to run the receiver
+     */
+    public void subscribe(String pattern, IPatternReceiver receiver, DispatchMode mode) {
+        GlobPattern glob = new GlobPattern(pattern);
+        TrieNode node = this.patterns;
+        String prefix = glob.getLiteralPrefix();
+
+        for (int i = 0; i < prefix.length(); i++)
+            node = node.children.computeIfAbsent(prefix.charAt(i), key -> new TrieNode());
+
+        node.subscriptions.add(new Subscription<>(glob, receiver, mode));
+    }
+
+    /**
+     * Unregister a receiver from every channel and pattern
+     *
+     * @param receiver Receiver, either an {@link IPacketsReceiver}
+     *                 or an {@link IPatternReceiver}
+     */
+    public void unsubscribe(Object receiver) {
+        this.channels.values().forEach(list -> list.removeIf(subscription -> subscription.receiver == receiver));
+        this.patterns.remove(receiver);
+    }
+
+    /**
+     * Deliver a received message to every matching receiver
+     *
+     * @param channel Channel the message was published in
+     * @param message Message
+     * @return Number of receivers the message was given to
+     */
+    public int dispatch(String channel, String message) {
+        int delivered = 0;
+        List<Subscription<IPacketsReceiver>> channelSubscriptions = this.channels.get(channel);
+
+        if (channelSubscriptions != null) {
+            for (Subscription<IPacketsReceiver> subscription : channelSubscriptions) {
+                this.run(subscription.mode, channel, () -> subscription.receiver.receive(channel, message));
+                delivered++;
+            }
+        }
+
+        TrieNode node = this.patterns;
+        int depth = 0;
+
+        while (node != null) {
+            for (Subscription<IPatternReceiver> subscription : node.subscriptions) {
+                if (subscription.pattern.matches(channel)) {
+                    this.run(subscription.mode, channel, () -> subscription.receiver.receive(subscription.pattern.getPattern(), channel, message));
+                    delivered++;
+                }
+            }
+
+            node = depth < channel.length() ? node.children.get(channel.charAt(depth++)) : null;
+        }
+
+        return delivered;
+    }
+
+    /**
+     * Deliver a received message to the pattern receivers whose pattern
+     * has exactly a given literal prefix, for a message received on the
+     * single subscription of that prefix
+     *
+     * @param prefix  Literal prefix of the patterns
+     * @param channel Channel the message was published in
+     * @param message Message
+     * @return Number of receivers the message was given to
+     */
+    public int dispatchPrefix(String prefix, String channel, String message) {
+        TrieNode node = this.patterns;
+
+        for (int i = 0; i < prefix.length() && node != null; i++)
+            node = node.children.get(prefix.charAt(i));
+
+        if (node == null)
+            return 0;
+
+        int delivered = 0;
+
+        for (Subscription<IPatternReceiver> subscription : node.subscriptions) {
+            if (subscription.pattern.matches(channel)) {
+                this.run(subscription.mode, channel, () -> subscription.receiver.receive(subscription.pattern.getPattern(), channel, message));
+                delivered++;
+            }
+        }
+
+        return delivered;
+    }
+
+    /**
+     * Wrap a given receiver so it is run on the worker pool, for the
+     * receivers subscribed directly to another PubSub API
+     *
+     * @param receiver Receiver
+     * @return Receiver running the given one on the worker pool
+     */
+    public IPacketsReceiver onWorkerPool(IPacketsReceiver receiver) {
+        return (channel, packet) -> this.run(DispatchMode.WORKER_POOL, channel, () -> receiver.receive(channel, packet));
+    }
+
+    /**
+     * Wrap a given receiver so it is run on the worker pool, for the
+     * receivers subscribed directly to another PubSub API
+     *
+     * @param receiver Receiver
+     * @return Receiver running the given one on the worker pool
+     */
+    public IPatternReceiver onWorkerPool(IPatternReceiver receiver) {
+        return (pattern, channel, packet) -> this.run(DispatchMode.WORKER_POOL, channel, () -> receiver.receive(pattern, channel, packet));
+    }
+
+    /**
+     * Get the number of deliveries dropped because the worker
+     * pool queue was full
+     *
+     * @return Number of deliveries
+     */
+    public long getDroppedCount() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * Stop the worker pool, waiting for the running deliveries
+     *
+     * @param timeoutMillis Max time to wait
+     */
+    public void shutdown(long timeoutMillis) {
+        this.workers.shutdown();
+
+        try {
+            this.workers.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run(DispatchMode mode, String channel, Runnable delivery) {
+        Runnable guarded = () ->
+        {
+            try {
+                delivery.run();
+            } catch (Exception e) {
+                this.logger.log(Level.SEVERE, "PubSub receiver failed on channel '" + channel + "'", e);
+            }
+        };
+
+        if (mode != DispatchMode.WORKER_POOL || this.workers.isShutdown()) {
+            guarded.run();
+            return;
+        }
+
+        try {
+            this.workers.execute(guarded);
+        } catch (RejectedExecutionException e) {
+            this.dropped.increment();
+            long dropped = this.dropped.sum();
+
+            // Logged at powers of two so a flood doesn't flood the console too
+            if ((dropped & (dropped - 1)) == 0L)
+                this.logger.warning("PubSub worker pool is full, dropped " + dropped + " deliveries so far (last on channel '" + channel + "')");
+        }
+    }
+
+    private static class Subscription<R> {
+        private final GlobPattern pattern;
+        private final R receiver;
+        private final DispatchMode mode;
+
+        private Subscription(GlobPattern pattern, R receiver, DispatchMode mode) {
+            this.pattern = pattern;
+            this.receiver = receiver;
+            this.mode = mode;
+        }
+    }
+
+    private static class TrieNode {
+        private final Map<Character, TrieNode> children = new ConcurrentHashMap<>();
+        private final List<Subscription<IPatternReceiver>> subscriptions = new CopyOnWriteArrayList<>();
+
+        private void remove(Object receiver) {
+            this.subscriptions.removeIf(subscription -> subscription.receiver == receiver);
+            this.children.values().forEach(child -> child.remove(receiver));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package net.samagames.api.pubsub;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Request/response calls over PubSub.
+ * <p>
+ * Requests are published as {@code origin/id/payload} on the request
+ * channel and answered as {@code origin/id/payload} on the response
+ * channel. Waiting calls hold no thread: each one is a future kept in
+ * a correlation map until its response comes, its timeout expires or
+ * the caller cancels it.
+ * <p>
+ * A response whose payload is {@code ERROR} or starts with
+ * {@code ERROR:}, as well as an {@code origin/ERROR/id...} response,
+ * fails its call at once instead of letting it wait for the timeout.
+ */
+public class PubSubRpcClient implements IPacketsReceiver {
+    private static final String ERROR = "ERROR";
+
+    private final IPubSubAPI pubSub;
+    private final String requestChannel;
+    private final String origin;
+    private final Logger logger;
+    private final TimeoutWheel timeoutWheel;
+    private final Map<Integer, CompletableFuture<String>> pending;
+    private final AtomicInteger generator;
+
+    /**
+     * Constructor
+     *
+     * @param pubSub          PubSub API
+     * @param requestChannel  Channel where the requests are sent
+     * @param responseChannel Channel where the responses are received
+     * @param origin          Name of this client in the messages, the
+     *                        responses addressed to another origin are
+     *                        ignored
+     * @param logger          Logger used to report the invalid responses
+     * @param timeoutWheel    Wheel expiring the unanswered calls
+     */
+    public PubSubRpcClient(IPubSubAPI pubSub, String requestChannel, String responseChannel, String origin, Logger logger, TimeoutWheel timeoutWheel) {
+        this.pubSub = pubSub;
+        this.requestChannel = requestChannel;
+        this.origin = origin;
+        this.logger = logger;
+        this.timeoutWheel = timeoutWheel;
+        this.pending = new ConcurrentHashMap<>();
+        this.generator = new AtomicInteger();
+
+        this.pubSub.subscribe(responseChannel, this);
+    }
+
+    /**
+     * Send a request
+     *
+     * @param payload       Request content
+     * @param timeoutMillis Time after which the returned future fails
+     *                      with a {@link TimeoutException}
+     * @return Future completed with the response content
+     */
+    public CompletableFuture<String> call(String payload, long timeoutMillis) {
+        int id = this.generator.getAndIncrement() & Integer.MAX_VALUE;
+        CompletableFuture<String> future = new CompletableFuture<>();
+
+        this.pending.put(id, future);
+
+        TimeoutWheel.Timeout timeout = this.timeoutWheel.schedule(timeoutMillis, () ->
+                future.completeExceptionally(new TimeoutException("No response to request " + id + " after " + timeoutMillis + "ms")));
+
+        // Completion, timeout and cancellation all free the correlation slot
+        future.whenComplete((response, error) ->
+        {
+            this.pending.remove(id, future);
+            timeout.cancel();
+        });
+
+        try {
+            this.pubSub.send(this.requestChannel, this.origin + "/" + id + "/" + payload);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    /**
+     * Get the number of calls waiting for a response
+     *
+     * @return Number of calls
+     */
+    public int getInFlightCount() {
+        return this.pending.size();
+    }
+
+    @Override
+    public void receive(String channel, String packet) {
+        String[] args = packet.split("/", 3);
+
+        if (args.length < 2 || !args[0].equals(this.origin))
+            return;
+
+        if (args[1].equals(ERROR)) {
+            this.receiveError(channel, packet, args.length > 2 ? args[2] : "");
+            return;
+        }
+
+        int id;
+
+        try {
+            id = Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+            this.logger.log(Level.SEVERE, "Uncorrelated response on channel '" + channel + "': " + packet);
+            return;
+        }
+
+        CompletableFuture<String> future = this.pending.remove(id);
+
+        if (future == null)
+            return;
+
+        String payload = args.length > 2 ? args[2] : "";
+
+        if (payload.equals(ERROR) || payload.startsWith(ERROR + ":"))
+            future.completeExceptionally(new IllegalStateException("Request " + id + " failed: " + payload));
+        else
+            future.complete(payload);
+    }
+
+    private void receiveError(String channel, String packet, String content) {
+        // The error replies carry the request id first, before the reason
+        String[] parts = content.split("[/:]", 2);
+        CompletableFuture<String> future = null;
+
+        try {
+            future = this.pending.remove(Integer.parseInt(parts[0]));
+        } catch (NumberFormatException ignored) {
+        }
+
+        if (future == null) {
+            this.logger.log(Level.SEVERE, "Uncorrelated error on channel '" + channel + "': " + packet);
+            return;
+        }
+
+        future.completeExceptionally(new IllegalStateException("Request " + parts[0] + " failed: " + (parts.length > 1 ? parts[1] : "Unknown")));
+    }
+}
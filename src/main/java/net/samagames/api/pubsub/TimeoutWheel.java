@@ -0,0 +1,146 @@
+package net.samagames.api.pubsub;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Hashed timing wheel: timeouts are dropped in a bucket picked from
+ * their deadline and one daemon thread expires a bucket per tick, so
+ * thousands of pending timeouts cost a single thread. Precision is
+ * one tick.
+ */
+public class TimeoutWheel {
+    private final long tickMillis;
+    private final Queue<Timeout>[] buckets;
+    private final long startTime;
+    private final Thread thread;
+    private final Object lock;
+    private long currentTick;
+
+    /**
+     * Constructor
+     *
+     * @param name          Name of the expiration thread
+     * @param tickMillis    Duration of one tick
+     * @param ticksPerWheel Number of buckets of the wheel
+     */
+    @SuppressWarnings("unchecked")
+    public TimeoutWheel(String name, long tickMillis, int ticksPerWheel) {
+        this.tickMillis = tickMillis;
+        this.buckets = new Queue[ticksPerWheel];
+
+        for (int i = 0; i < ticksPerWheel; i++)
+            this.buckets[i] = new ConcurrentLinkedQueue<>();
+
+        this.startTime = System.nanoTime();
+        this.lock = new Object();
+        this.currentTick = 0L;
+
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Schedule a task to run after a given delay, on the
+     * expiration thread
+     *
+     * @param delayMillis Delay
+     * @param task        Task
+     * @return Timeout handle, used to cancel the task
+     */
+    public Timeout schedule(long delayMillis, Runnable task) {
+        long ticks = Math.max(1L, (delayMillis + this.tickMillis - 1) / this.tickMillis);
+        Timeout timeout;
+
+        // The tick can't move until the timeout is in its bucket, so the
+        // bucket is never one the wheel already went past
+        synchronized (this.lock) {
+            timeout = new Timeout(this.currentTick + ticks, task);
+            this.buckets[(int) (timeout.deadlineTick % this.buckets.length)].add(timeout);
+        }
+
+        return timeout;
+    }
+
+    /**
+     * Stop the expiration thread, pending tasks will never run
+     */
+    public void stop() {
+        this.thread.interrupt();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            // Only this thread writes the tick, it can read it unlocked
+            long nextTick = this.currentTick + 1;
+            long sleepNanos = this.startTime + TimeUnit.MILLISECONDS.toNanos(nextTick * this.tickMillis) - System.nanoTime();
+
+            if (sleepNanos > 0L) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            synchronized (this.lock) {
+                this.currentTick = nextTick;
+            }
+
+            Iterator<Timeout> iterator = this.buckets[(int) (nextTick % this.buckets.length)].iterator();
+
+            while (iterator.hasNext()) {
+                Timeout timeout = iterator.next();
+
+                if (timeout.cancelled) {
+                    iterator.remove();
+                } else if (timeout.deadlineTick <= nextTick) {
+                    iterator.remove();
+
+                    try {
+                        timeout.task.run();
+                    } catch (Exception ignored) {
+                    }
+                }
+            }
+        }
+    }
+
+    public static class Timeout {
+        private final long deadlineTick;
+        private final Runnable task;
+        private volatile boolean cancelled;
+
+        private Timeout(long deadlineTick, Runnable task) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        /**
+         * Prevent the task from running
+         */
+        public void cancel() {
+            this.cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package net.samagames.api.redis;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Managed access to the Redis pool: every connection is given back
+ * by the templates themselves, common multi-command operations are
+ * done in a single round-trip, and the borrows are counted so pool
+ * exhaustion and leaks can be diagnosed.
+ */
+public class ManagedRedis {
+    private final Supplier<Jedis> resourceSupplier;
+    private final Logger logger;
+    private final Set<RedisLease> leases;
+    private final AtomicInteger waiting;
+    private final AtomicLong totalBorrows;
+    private final AtomicLong failedBorrows;
+    private final AtomicLong maxBorrowWaitMillis;
+    private final AtomicLong leaksDetected;
+    private volatile long leakThresholdMillis;
+    private ScheduledExecutorService leakChecker;
+
+    /**
+     * Constructor
+     *
+     * @param resourceSupplier Supplier of pooled connections, like
+     *                         {@code SamaGamesAPI#getBungeeResource()}
+     * @param logger           Logger used to report the leaks
+     */
+    public ManagedRedis(Supplier<Jedis> resourceSupplier, Logger logger) {
+        this.resourceSupplier = resourceSupplier;
+        this.logger = logger;
+        this.leases = ConcurrentHashMap.newKeySet();
+        this.waiting = new AtomicInteger();
+        this.totalBorrows = new AtomicLong();
+        this.failedBorrows = new AtomicLong();
+        this.maxBorrowWaitMillis = new AtomicLong();
+        this.leaksDetected = new AtomicLong();
+        this.leakThresholdMillis = 0L;
+    }
+
+    /**
+     * Borrow a connection, to be used in a try-with-resources block
+     *
+     * @return Lease of the connection
+     */
+    public RedisLease borrow() {
+        long start = System.currentTimeMillis();
+        Jedis jedis;
+
+        this.waiting.incrementAndGet();
+
+        try {
+            jedis = this.resourceSupplier.get();
+        } catch (RuntimeException e) {
+            this.failedBorrows.incrementAndGet();
+            throw e;
+        } finally {
+            this.waiting.decrementAndGet();
+        }
+
+        if (jedis == null) {
+            this.failedBorrows.incrementAndGet();
+            throw new IllegalStateException("No Redis connection available");
+        }
+
+        long waited = System.currentTimeMillis() - start;
+        this.maxBorrowWaitMillis.accumulateAndGet(waited, Math::max);
+        this.totalBorrows.incrementAndGet();
+
+        // Capturing the stack is costly, only do it when the leak detection is on
+        RedisLease lease = new RedisLease(this, jedis, this.leakThresholdMillis > 0L ? new Throwable("Redis connection borrowed here") : null);
+        this.leases.add(lease);
+
+        return lease;
+    }
+
+    /**
+     * Run a function with a connection given back afterwards
+     *
+     * @param function Function
+     * @param <T>      Result type
+     * @return Function's result
+     */
+    public <T> T execute(Function<Jedis, T> function) {
+        try (RedisLease lease = this.borrow()) {
+            return function.apply(lease.jedis());
+        }
+    }
+
+    /**
+     * Run an action with a connection given back afterwards
+     *
+     * @param action Action
+     */
+    public void run(Consumer<Jedis> action) {
+        try (RedisLease lease = this.borrow()) {
+            action.accept(lease.jedis());
+        }
+    }
+
+    /**
+     * Queue commands in a pipeline and send them in one round-trip
+     *
+     * @param commands Commands to queue
+     * @return Responses of the commands, in order
+     */
+    public List<Object> pipelined(Consumer<Pipeline> commands) {
+        try (RedisLease lease = this.borrow()) {
+            Pipeline pipeline = lease.jedis().pipelined();
+            commands.accept(pipeline);
+            return pipeline.syncAndReturnAll();
+        }
+    }
+
+    /**
+     * Get the value of a given key
+     *
+     * @param key Key
+     * @return Value, {@code null} if missing
+     */
+    public String get(String key) {
+        return this.execute(jedis -> jedis.get(key));
+    }
+
+    /**
+     * Get the values of many keys in one round-trip
+     *
+     * @param keys Keys
+     * @return Values in the keys order, {@code null} for the missing ones
+     */
+    public List<String> mget(String... keys) {
+        return this.execute(jedis -> jedis.mget(keys));
+    }
+
+    /**
+     * Get the hashes of many keys in one pipelined round-trip
+     *
+     * @param keys Keys
+     * @return Hashes in the keys order, empty for the missing ones
+     */
+    public List<Map<String, String>> hgetAll(List<String> keys) {
+        List<Response<Map<String, String>>> responses = new ArrayList<>(keys.size());
+        List<Map<String, String>> hashes = new ArrayList<>(keys.size());
+
+        this.pipelined(pipeline -> keys.forEach(key -> responses.add(pipeline.hgetAll(key))));
+        responses.forEach(response -> hashes.add(response.get()));
+
+        return hashes;
+    }
+
+    /**
+     * Set a given key with an expiration, in one round-trip
+     *
+     * @param key     Key
+     * @param seconds Time to live
+     * @param value   Value
+     */
+    public void setex(String key, int seconds, String value) {
+        this.run(jedis -> jedis.setex(key, seconds, value));
+    }
+
+    /**
+     * Set many keys with the same expiration in one round-trip
+     *
+     * @param values  Keys and values
+     * @param seconds Time to live
+     */
+    public void setex(Map<String, String> values, int seconds) {
+        this.pipelined(pipeline -> values.forEach((key, value) -> pipeline.setex(key, seconds, value)));
+    }
+
+    /**
+     * Publish a message on a given channel
+     *
+     * @param channel Channel
+     * @param message Message
+     * @return Number of receivers
+     */
+    public long publish(String channel, String message) {
+        return this.execute(jedis -> jedis.publish(channel, message));
+    }
+
+    /**
+     * Report the connections held longer than a given time, with the
+     * stack of their borrower
+     *
+     * @param thresholdMillis Threshold, 0 to disable the detection
+     */
+    public synchronized void setLeakDetectionThreshold(long thresholdMillis) {
+        this.leakThresholdMillis = thresholdMillis;
+
+        if (thresholdMillis > 0L && this.leakChecker == null) {
+            this.leakChecker = Executors.newSingleThreadScheduledExecutor(runnable ->
+            {
+                Thread thread = new Thread(runnable, "Redis-LeakDetector");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            this.leakChecker.scheduleWithFixedDelay(this::checkLeaks, 1L, 1L, TimeUnit.SECONDS);
+        } else if (thresholdMillis <= 0L && this.leakChecker != null) {
+            this.leakChecker.shutdownNow();
+            this.leakChecker = null;
+        }
+    }
+
+    /**
+     * Get a snapshot of the pool usage
+     *
+     * @return Metrics
+     */
+    public RedisPoolMetrics getMetrics() {
+        return new RedisPoolMetrics(this.leases.size(), this.waiting.get(), this.totalBorrows.get(), this.failedBorrows.get(), this.maxBorrowWaitMillis.get(), this.leaksDetected.get());
+    }
+
+    void release(RedisLease lease) {
+        this.leases.remove(lease);
+    }
+
+    private void checkLeaks() {
+        long threshold = this.leakThresholdMillis;
+        long now = System.currentTimeMillis();
+
+        if (threshold <= 0L)
+            return;
+
+        for (RedisLease lease : this.leases) {
+            if (now - lease.getBorrowTime() > threshold && lease.getBorrowTrace() != null && lease.markLeakReported()) {
+                this.leaksDetected.incrementAndGet();
+                this.logger.log(Level.WARNING, "Redis connection held for more than " + threshold + "ms, possible leak. " + this.getMetrics(), lease.getBorrowTrace());
+            }
+        }
+    }
+}
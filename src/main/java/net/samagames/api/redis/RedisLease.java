@@ -0,0 +1,81 @@
+package net.samagames.api.redis;
+
+import redis.clients.jedis.Jedis;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class RedisLease implements AutoCloseable {
+    private final ManagedRedis owner;
+    private final Jedis jedis;
+    private final long borrowTime;
+    private final Throwable borrowTrace;
+    private boolean closed;
+    private boolean leakReported;
+
+    RedisLease(ManagedRedis owner, Jedis jedis, Throwable borrowTrace) {
+        this.owner = owner;
+        this.jedis = jedis;
+        this.borrowTime = System.currentTimeMillis();
+        this.borrowTrace = borrowTrace;
+        this.closed = false;
+        this.leakReported = false;
+    }
+
+    /**
+     * Get the borrowed connection, it must not be used
+     * after this lease is closed
+     *
+     * @return Jedis instance
+     */
+    public Jedis jedis() {
+        if (this.closed)
+            throw new IllegalStateException("Redis lease already closed");
+
+        return this.jedis;
+    }
+
+    /**
+     * Give the connection back to the pool
+     */
+    @Override
+    public void close() {
+        if (this.closed)
+            return;
+
+        this.closed = true;
+
+        try {
+            this.jedis.close();
+        } finally {
+            this.owner.release(this);
+        }
+    }
+
+    long getBorrowTime() {
+        return this.borrowTime;
+    }
+
+    Throwable getBorrowTrace() {
+        return this.borrowTrace;
+    }
+
+    boolean markLeakReported() {
+        boolean alreadyReported = this.leakReported;
+        this.leakReported = true;
+        return !alreadyReported;
+    }
+}
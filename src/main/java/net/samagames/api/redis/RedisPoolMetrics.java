@@ -0,0 +1,75 @@
+package net.samagames.api.redis;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class RedisPoolMetrics {
+    private final int borrowed;
+    private final int waiting;
+    private final long totalBorrows;
+    private final long failedBorrows;
+    private final long maxBorrowWaitMillis;
+    private final long leaksDetected;
+
+    /**
+     * Constructor
+     *
+     * @param borrowed            Connections currently borrowed
+     * @param waiting             Threads currently waiting for a connection
+     * @param totalBorrows        Connections borrowed since the start
+     * @param failedBorrows       Borrows which failed since the start
+     * @param maxBorrowWaitMillis Longest wait for a connection
+     * @param leaksDetected       Leases held longer than the leak threshold
+     */
+    public RedisPoolMetrics(int borrowed, int waiting, long totalBorrows, long failedBorrows, long maxBorrowWaitMillis, long leaksDetected) {
+        this.borrowed = borrowed;
+        this.waiting = waiting;
+        this.totalBorrows = totalBorrows;
+        this.failedBorrows = failedBorrows;
+        this.maxBorrowWaitMillis = maxBorrowWaitMillis;
+        this.leaksDetected = leaksDetected;
+    }
+
+    public int getBorrowed() {
+        return this.borrowed;
+    }
+
+    public int getWaiting() {
+        return this.waiting;
+    }
+
+    public long getTotalBorrows() {
+        return this.totalBorrows;
+    }
+
+    public long getFailedBorrows() {
+        return this.failedBorrows;
+    }
+
+    public long getMaxBorrowWaitMillis() {
+        return this.maxBorrowWaitMillis;
+    }
+
+    public long getLeaksDetected() {
+        return this.leaksDetected;
+    }
+
+    @Override
+    public String toString() {
+        return "RedisPoolMetrics{borrowed=" + this.borrowed + ", waiting=" + this.waiting + ", totalBorrows=" + this.totalBorrows
+                + ", failedBorrows=" + this.failedBorrows + ", maxBorrowWaitMillis=" + this.maxBorrowWaitMillis + ", leaksDetected=" + this.leaksDetected + "}";
+    }
+}
@@ -0,0 +1,47 @@
+package net.samagames.api.stats;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Statistics accumulating their increments until they are flushed,
+ * implemented by the generated {@code Delta*Statistics} classes.
+ */
+public interface IDeltaStatistics {
+    /**
+     * Know if some increments were not flushed yet
+     *
+     * @return {@code true} if dirty
+     */
+    boolean isDirty();
+
+    /**
+     * Take the pending increments, they are considered as written
+     * from now
+     *
+     * @return Increments, {@code null} if nothing is dirty
+     */
+    StatsDelta drainDelta();
+
+    /**
+     * Give back increments taken by {@link #drainDelta()} which
+     * could not be written
+     *
+     * @param delta Increments
+     */
+    void restoreDelta(StatsDelta delta);
+}
@@ -1,7 +1,13 @@
 package net.samagames.api.stats;
 
+import net.samagames.api.SamaGamesAPI;
 import net.samagames.api.games.GamesNames;
+import net.samagames.api.stats.leaderboards.ILeaderboardListener;
+import net.samagames.api.stats.storage.IStatsStorage;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 import java.util.UUID;
 
 /*
@@ -21,6 +27,11 @@ import java.util.UUID;
  * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
  */
 public interface IStatsManager {
+    /**
+     * Flush the statistics of every player, called at the end of the game.
+     * Implementations should send the increments of all the players in one
+     * write with {@link #flushDeltas(Collection, IStatsDeltaWriter)}.
+     */
     void finish();
 
     void clearCache();
@@ -57,4 +68,113 @@ public interface IStatsManager {
      * @return Leaderboard instance {@link Leaderboard}
      */
     Leaderboard getLeaderboard(GamesNames game, String stat);
+
+    /**
+     * Get a page of the leaderboard of a given stat
+     *
+     * @param game   Select game
+     * @param stat   Stat
+     * @param offset Rank of the first player, starting at 0
+     * @param count  Maximum number of players
+     * @return Leaderboard instance {@link Leaderboard}
+     */
+    default Leaderboard getLeaderboard(GamesNames game, String stat, int offset, int count) {
+        return SamaGamesAPI.get().getLeaderboardEngine().getLeaderboard(game, stat, offset, count);
+    }
+
+    /**
+     * Get the rank of a given player in the leaderboard of a given stat
+     *
+     * @param game   Select game
+     * @param stat   Stat
+     * @param player Player's UUID
+     * @return Rank starting at 0, -1 if the player is not ranked
+     */
+    default int getRank(GamesNames game, String stat, UUID player) {
+        return SamaGamesAPI.get().getLeaderboardEngine().getRank(game, stat, player);
+    }
+
+    /**
+     * Watch the top of the leaderboard of a given stat instead of
+     * polling it, like for the lobby holograms
+     *
+     * @param game     Select game
+     * @param stat     Stat
+     * @param size     Size of the top
+     * @param listener Listener called with the current top, then at each change
+     */
+    default void subscribeLeaderboard(GamesNames game, String stat, int size, ILeaderboardListener listener) {
+        SamaGamesAPI.get().getLeaderboardEngine().subscribe(game, stat, size, listener);
+    }
+
+    /**
+     * Send the pending increments of many players in one write. The
+     * increments which could not be written are kept for the next flush.
+     *
+     * @param players Players' UUID
+     * @param writer  Writer of the increments
+     * @return {@code true} if everything was written
+     */
+    default boolean flushDeltas(Collection<UUID> players, IStatsDeltaWriter writer) {
+        StatsDeltaBatch batch = new StatsDeltaBatch();
+
+        for (UUID player : players) {
+            IPlayerStats playerStats = this.getPlayerStats(player);
+
+            if (playerStats != null)
+                playerStats.getDeltaStatistics().forEach(batch::add);
+        }
+
+        return batch.write(writer);
+    }
+
+    /**
+     * Send the pending increments of many players to the local storage
+     * set with {@link SamaGamesAPI#setStatsStorage(IStatsStorage)}, for
+     * the servers running without the remote backend: they are not
+     * forwarded to it
+     *
+     * @param players Players' UUID
+     * @return {@code true} if everything was written, {@code false} if
+     * no local storage is set or if the write failed
+     */
+    default boolean flushDeltas(Collection<UUID> players) {
+        IStatsStorage storage = SamaGamesAPI.get().getStatsStorage();
+
+        if (storage == null || !this.flushDeltas(players, storage))
+            return false;
+
+        SamaGamesAPI.get().getLeaderboardEngine().reload();
+        return true;
+    }
+
+    /**
+     * Flush the statistics at the end of the game, to the local storage
+     * when one is set, else with {@link #finish()}. The increments
+     * written to a local storage never reach the remote backend.
+     *
+     * @param players Players' UUID
+     */
+    default void flush(Collection<UUID> players) {
+        if (SamaGamesAPI.get().getStatsStorage() != null)
+            this.flushDeltas(players);
+        else
+            this.finish();
+    }
+
+    /**
+     * Load the statistics of a player from the local storage set with
+     * {@link SamaGamesAPI#setStatsStorage(IStatsStorage)}. Without it,
+     * the statistics come from {@link #getPlayerStats(UUID)}.
+     *
+     * @param player     Player's UUID
+     * @param statistics Statistics' name, like {@code QuakeStatistics}
+     * @return Values by field name, empty if the player has none or if
+     * no local storage is set
+     * @throws Exception If the load failed
+     */
+    default Map<String, Number> loadStatistics(UUID player, String statistics) throws Exception {
+        IStatsStorage storage = SamaGamesAPI.get().getStatsStorage();
+        return storage == null ? Collections.emptyMap() : storage.load(player, statistics);
+    }
 }
@@ -1,5 +1,11 @@
 package net.samagames.api.stats;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
 /*
  * This file is part of SamaGamesAPI.
  *
@@ -17,7 +23,7 @@ package net.samagames.api.stats;
  * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
  */
 public class Leaderboard {
-    private final PlayerStatData first, second, third;
+    private final List<PlayerStatData> entries;
 
     /**
      * Constructor
@@ -27,9 +33,17 @@ public class Leaderboard {
      * @param third  Third player into the leaderboard {@link PlayerStatData}
      */
     public Leaderboard(PlayerStatData first, PlayerStatData second, PlayerStatData third) {
-        this.first = first;
-        this.second = second;
-        this.third = third;
+        this(Arrays.asList(first, second, third));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param entries Players into the leaderboard {@link PlayerStatData}, from
+     *                the highest to the lowest score
+     */
+    public Leaderboard(List<PlayerStatData> entries) {
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
     }
 
     /**
@@ -38,7 +52,7 @@ public class Leaderboard {
      * @return First player
      */
     public PlayerStatData getFirst() {
-        return this.first;
+        return this.getEntry(0);
     }
 
     /**
@@ -47,7 +61,7 @@ public class Leaderboard {
      * @return Second player
      */
     public PlayerStatData getSecond() {
-        return this.second;
+        return this.getEntry(1);
     }
 
     /**
@@ -56,24 +70,78 @@ public class Leaderboard {
      * @return Third player
      */
     public PlayerStatData getThird() {
-        return this.third;
+        return this.getEntry(2);
+    }
+
+    /**
+     * Get the player at a given position of this page
+     *
+     * @param index Position starting at 0
+     * @return Player, {@code null} if the page is shorter
+     */
+    public PlayerStatData getEntry(int index) {
+        return index < this.entries.size() ? this.entries.get(index) : null;
+    }
+
+    /**
+     * Get every player of this page
+     *
+     * @return Players, from the highest to the lowest score
+     */
+    public List<PlayerStatData> getEntries() {
+        return this.entries;
     }
 
     public static class PlayerStatData {
+        private final UUID uuid;
         private final String name;
-        private final int score;
+        private final long score;
+        private final int rank;
 
         public PlayerStatData(String name, int score) {
+            this(null, name, score, -1);
+        }
+
+        /**
+         * Constructor
+         *
+         * @param uuid  Player's UUID
+         * @param name  Player's name
+         * @param score Player's score
+         * @param rank  Player's rank, starting at 0
+         */
+        public PlayerStatData(UUID uuid, String name, long score, int rank) {
+            this.uuid = uuid;
             this.name = name;
             this.score = score;
+            this.rank = rank;
+        }
+
+        public UUID getUUID() {
+            return this.uuid;
         }
 
         public String getName() {
-            return name;
+            return this.name;
         }
 
+        /**
+         * Get the score, capped to the int range
+         *
+         * @return Score
+         * @deprecated Use {@link #getLongScore()}
+         */
+        @Deprecated
         public int getScore() {
-            return score;
+            return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, this.score));
+        }
+
+        public long getLongScore() {
+            return this.score;
+        }
+
+        public int getRank() {
+            return this.rank;
         }
     }
 }
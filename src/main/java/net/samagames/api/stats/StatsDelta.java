@@ -0,0 +1,64 @@
+package net.samagames.api.stats;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Increments of the dirty fields of one player's statistics, to be
+ * applied atomically by the backend ({@code field = field + ?}) so
+ * the concurrent updates of two servers are never lost.
+ */
+public class StatsDelta {
+    private final UUID player;
+    private final String statistics;
+    private final Map<String, Number> increments;
+
+    /**
+     * Constructor
+     *
+     * @param player     Player's UUID
+     * @param statistics Statistics' name, like {@code QuakeStatistics}
+     * @param increments Increments of the dirty fields, by field name
+     */
+    public StatsDelta(UUID player, String statistics, Map<String, Number> increments) {
+        this.player = player;
+        this.statistics = statistics;
+        this.increments = Collections.unmodifiableMap(new LinkedHashMap<>(increments));
+    }
+
+    public UUID getPlayer() {
+        return this.player;
+    }
+
+    public String getStatistics() {
+        return this.statistics;
+    }
+
+    public Map<String, Number> getIncrements() {
+        return this.increments;
+    }
+
+    @Override
+    public String toString() {
+        return "StatsDelta{player=" + this.player + ", statistics=" + this.statistics + ", increments=" + this.increments + "}";
+    }
+}
@@ -0,0 +1,106 @@
+package net.samagames.api.stats;
+
+import net.samagames.api.SamaGamesAPI;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Increments of many statistics sent in one write. If the write
+ * fails, the increments are given back to their statistics to be
+ * sent with the next flush.
+ */
+public class StatsDeltaBatch {
+    private final List<IDeltaStatistics> sources;
+    private final List<StatsDelta> deltas;
+
+    /**
+     * Constructor
+     */
+    public StatsDeltaBatch() {
+        this.sources = new ArrayList<>();
+        this.deltas = new ArrayList<>();
+    }
+
+    /**
+     * Flush many statistics in one write
+     *
+     * @param statistics Statistics to flush
+     * @param writer     Writer of the increments
+     * @return {@code true} if everything was written
+     */
+    public static boolean flush(Collection<? extends IDeltaStatistics> statistics, IStatsDeltaWriter writer) {
+        StatsDeltaBatch batch = new StatsDeltaBatch();
+        statistics.forEach(batch::add);
+
+        return batch.write(writer);
+    }
+
+    /**
+     * Take the pending increments of given statistics
+     *
+     * @param statistics Statistics
+     */
+    public void add(IDeltaStatistics statistics) {
+        StatsDelta delta = statistics.drainDelta();
+
+        if (delta != null) {
+            this.sources.add(statistics);
+            this.deltas.add(delta);
+        }
+    }
+
+    /**
+     * Count the statistics with increments in this batch
+     *
+     * @return Number of increments
+     */
+    public int size() {
+        return this.deltas.size();
+    }
+
+    /**
+     * Send the increments in one write, and empty this batch
+     *
+     * @param writer Writer of the increments
+     * @return {@code true} if everything was written
+     */
+    public boolean write(IStatsDeltaWriter writer) {
+        if (this.deltas.isEmpty())
+            return true;
+
+        try {
+            writer.write(Collections.unmodifiableList(this.deltas));
+            return true;
+        } catch (Exception e) {
+            for (int i = 0; i < this.deltas.size(); i++)
+                this.sources.get(i).restoreDelta(this.deltas.get(i));
+
+            SamaGamesAPI.get().getPlugin().getLogger().log(Level.WARNING, "Failed to write " + this.deltas.size() + " statistics increments, kept for the next flush", e);
+            return false;
+        } finally {
+            this.sources.clear();
+            this.deltas.clear();
+        }
+    }
+}
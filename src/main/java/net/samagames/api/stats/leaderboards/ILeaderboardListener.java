@@ -0,0 +1,33 @@
+package net.samagames.api.stats.leaderboards;
+
+import net.samagames.api.games.GamesNames;
+
+import java.util.List;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public interface ILeaderboardListener {
+    /**
+     * Fired when the watched top of a leaderboard changed, from the
+     * thread which updated the scores or received the update
+     *
+     * @param game Game
+     * @param stat Stat
+     * @param top  New top, from the highest to the lowest score
+     */
+    void onTopChange(GamesNames game, String stat, List<LeaderboardEntry> top);
+}
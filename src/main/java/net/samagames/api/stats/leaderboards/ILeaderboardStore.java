@@ -0,0 +1,85 @@
+package net.samagames.api.stats.leaderboards;
+
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Scores of one stat of one game, ordered from the highest to the
+ * lowest score. The order of equal scores depends on the store, but
+ * is stable.
+ */
+public interface ILeaderboardStore {
+    /**
+     * Set the score of a given player
+     *
+     * @param player Player's UUID
+     * @param score  New score
+     */
+    void setScore(UUID player, long score);
+
+    /**
+     * Add a given amount to the score of a given player, starting
+     * from 0 if they are not ranked yet
+     *
+     * @param player Player's UUID
+     * @param delta  Amount to add, may be negative
+     * @return New score
+     */
+    long incrementScore(UUID player, long delta);
+
+    /**
+     * Remove a given player from the leaderboard
+     *
+     * @param player Player's UUID
+     */
+    void remove(UUID player);
+
+    /**
+     * Get the score of a given player
+     *
+     * @param player Player's UUID
+     * @return Score, {@code null} if the player is not ranked
+     */
+    Long getScore(UUID player);
+
+    /**
+     * Get the rank of a given player
+     *
+     * @param player Player's UUID
+     * @return Rank starting at 0, -1 if the player is not ranked
+     */
+    int getRank(UUID player);
+
+    /**
+     * Get a page of the leaderboard
+     *
+     * @param offset Rank of the first entry, starting at 0
+     * @param count  Maximum number of entries
+     * @return Entries, from the highest to the lowest score
+     */
+    List<LeaderboardEntry> getRange(int offset, int count);
+
+    /**
+     * Count the ranked players
+     *
+     * @return Number of players
+     */
+    int size();
+}
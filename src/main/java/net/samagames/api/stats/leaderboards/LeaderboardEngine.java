@@ -0,0 +1,331 @@
+package net.samagames.api.stats.leaderboards;
+
+import net.samagames.api.games.GamesNames;
+import net.samagames.api.names.IUUIDTranslator;
+import net.samagames.api.pubsub.IPacketsReceiver;
+import net.samagames.api.pubsub.IPubSubAPI;
+import net.samagames.api.stats.Leaderboard;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Leaderboards of every (game, stat), maintained on each score update
+ * instead of computed on demand.
+ * <p>
+ * Listeners watch the top of a leaderboard and are only called when
+ * it changed. Updates which can't reach the watched top are filtered
+ * out without reading the store. The updated leaderboards are
+ * announced on the PubSub once per second, so the listeners of the
+ * other servers sharing the same stores are called too.
+ */
+public class LeaderboardEngine implements IPacketsReceiver {
+    public static final String CHANNEL = "leaderboards";
+
+    private final BiFunction<GamesNames, String, ILeaderboardStore> storeFactory;
+    private final IUUIDTranslator uuidTranslator;
+    private final IPubSubAPI pubSub;
+    private final String origin;
+    private final Logger logger;
+    private final Map<String, ILeaderboardStore> stores;
+    private final Map<String, List<Subscription>> subscriptions;
+    private final Set<String> updated;
+    private ScheduledExecutorService announcer;
+
+    /**
+     * Constructor
+     *
+     * @param storeFactory   Creates the store of a (game, stat)
+     * @param uuidTranslator Translator resolving the players' names
+     * @param pubSub         PubSub used to announce the updates to the
+     *                       other servers, {@code null} to stay local
+     * @param origin         Name of this server, to ignore its own
+     *                       announces
+     * @param logger         Logger used to report the listeners failures
+     */
+    public LeaderboardEngine(BiFunction<GamesNames, String, ILeaderboardStore> storeFactory, IUUIDTranslator uuidTranslator, IPubSubAPI pubSub, String origin, Logger logger) {
+        this.storeFactory = storeFactory;
+        this.uuidTranslator = uuidTranslator;
+        this.pubSub = pubSub;
+        this.origin = origin;
+        this.logger = logger;
+        this.stores = new ConcurrentHashMap<>();
+        this.subscriptions = new ConcurrentHashMap<>();
+        this.updated = ConcurrentHashMap.newKeySet();
+
+        if (pubSub != null) {
+            pubSub.subscribe(CHANNEL, this);
+
+            this.announcer = Executors.newSingleThreadScheduledExecutor(runnable ->
+            {
+                Thread thread = new Thread(runnable, "Leaderboards-Announcer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            this.announcer.scheduleWithFixedDelay(this::announce, 1L, 1L, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Get the store of a given stat
+     *
+     * @param game Game
+     * @param stat Stat
+     * @return Store
+     */
+    public ILeaderboardStore getStore(GamesNames game, String stat) {
+        return this.stores.computeIfAbsent(key(game, stat), key -> this.storeFactory.apply(game, stat));
+    }
+
+    /**
+     * Set the score of a given player
+     *
+     * @param game   Game
+     * @param stat   Stat
+     * @param player Player's UUID
+     * @param score  New score
+     */
+    public void setScore(GamesNames game, String stat, UUID player, long score) {
+        this.getStore(game, stat).setScore(player, score);
+        this.onUpdate(game, stat, player, score);
+    }
+
+    /**
+     * Add a given amount to the score of a given player
+     *
+     * @param game   Game
+     * @param stat   Stat
+     * @param player Player's UUID
+     * @param delta  Amount to add
+     * @return New score
+     */
+    public long incrementScore(GamesNames game, String stat, UUID player, long delta) {
+        long score = this.getStore(game, stat).incrementScore(player, delta);
+        this.onUpdate(game, stat, player, score);
+
+        return score;
+    }
+
+    /**
+     * Remove a given player from a leaderboard
+     *
+     * @param game   Game
+     * @param stat   Stat
+     * @param player Player's UUID
+     */
+    public void remove(GamesNames game, String stat, UUID player) {
+        this.getStore(game, stat).remove(player);
+        this.onUpdate(game, stat, player, Long.MAX_VALUE);
+    }
+
+    /**
+     * Get the rank of a given player
+     *
+     * @param game   Game
+     * @param stat   Stat
+     * @param player Player's UUID
+     * @return Rank starting at 0, -1 if the player is not ranked
+     */
+    public int getRank(GamesNames game, String stat, UUID player) {
+        return this.getStore(game, stat).getRank(player);
+    }
+
+    /**
+     * Get a page of a leaderboard
+     *
+     * @param game   Game
+     * @param stat   Stat
+     * @param offset Rank of the first entry, starting at 0
+     * @param count  Maximum number of entries
+     * @return Entries
+     */
+    public List<LeaderboardEntry> getRange(GamesNames game, String stat, int offset, int count) {
+        return this.getStore(game, stat).getRange(offset, count);
+    }
+
+    /**
+     * Get a page of a leaderboard with the players' names
+     *
+     * @param game   Game
+     * @param stat   Stat
+     * @param offset Rank of the first entry, starting at 0
+     * @param count  Maximum number of entries
+     * @return Leaderboard instance {@link Leaderboard}
+     */
+    public Leaderboard getLeaderboard(GamesNames game, String stat, int offset, int count) {
+        List<Leaderboard.PlayerStatData> entries = new ArrayList<>();
+
+        for (LeaderboardEntry entry : this.getRange(game, stat, offset, count))
+            entries.add(new Leaderboard.PlayerStatData(entry.getPlayer(), this.uuidTranslator.getName(entry.getPlayer()), entry.getScore(), entry.getRank()));
+
+        return new Leaderboard(entries);
+    }
+
+    /**
+     * Watch the top of a leaderboard, the listener is called at once
+     * with the current top and then at each change
+     *
+     * @param game     Game
+     * @param stat     Stat
+     * @param size     Size of the top
+     * @param listener Listener
+     */
+    public void subscribe(GamesNames game, String stat, int size, ILeaderboardListener listener) {
+        Subscription subscription = new Subscription(game, stat, size, listener);
+
+        this.subscriptions.computeIfAbsent(key(game, stat), key -> new CopyOnWriteArrayList<>()).add(subscription);
+        this.refresh(subscription);
+    }
+
+    /**
+     * Stop watching every leaderboard with a given listener
+     *
+     * @param listener Listener
+     */
+    public void unsubscribe(ILeaderboardListener listener) {
+        this.subscriptions.values().forEach(list -> list.removeIf(subscription -> subscription.listener == listener));
+    }
+
+    /**
+     * Forget the stores and call the listeners whose top changed, when
+     * the stores were replaced or written outside of this engine
+     */
+    public void reload() {
+        this.stores.clear();
+
+        for (Map.Entry<String, List<Subscription>> entry : this.subscriptions.entrySet()) {
+            if (this.pubSub != null)
+                this.updated.add(entry.getKey());
+
+            entry.getValue().forEach(this::refresh);
+        }
+    }
+
+    /**
+     * Stop announcing the updates
+     */
+    public void shutdown() {
+        if (this.announcer != null) {
+            this.announcer.shutdownNow();
+            this.announce();
+        }
+    }
+
+    @Override
+    public void receive(String channel, String packet) {
+        String[] parts = packet.split("/", 2);
+
+        if (parts.length < 2 || parts[0].equals(this.origin))
+            return;
+
+        List<Subscription> list = this.subscriptions.get(parts[1]);
+
+        if (list != null)
+            list.forEach(this::refresh);
+    }
+
+    private void onUpdate(GamesNames game, String stat, UUID player, long score) {
+        String key = key(game, stat);
+        List<Subscription> list = this.subscriptions.get(key);
+
+        if (this.pubSub != null)
+            this.updated.add(key);
+
+        if (list == null)
+            return;
+
+        for (Subscription subscription : list)
+            if (subscription.mayChange(player, score))
+                this.refresh(subscription);
+    }
+
+    private void refresh(Subscription subscription) {
+        List<LeaderboardEntry> top = this.getRange(subscription.game, subscription.stat, 0, subscription.size);
+
+        synchronized (subscription) {
+            if (top.equals(subscription.top))
+                return;
+
+            subscription.top = top;
+        }
+
+        try {
+            subscription.listener.onTopChange(subscription.game, subscription.stat, Collections.unmodifiableList(top));
+        } catch (Exception e) {
+            this.logger.log(Level.WARNING, "Leaderboard listener failed", e);
+        }
+    }
+
+    private void announce() {
+        Iterator<String> iterator = this.updated.iterator();
+
+        while (iterator.hasNext()) {
+            String key = iterator.next();
+            iterator.remove();
+
+            try {
+                this.pubSub.send(CHANNEL, this.origin + "/" + key);
+            } catch (Exception e) {
+                this.logger.log(Level.WARNING, "Failed to announce the leaderboard update of " + key, e);
+            }
+        }
+    }
+
+    private static String key(GamesNames game, String stat) {
+        return game.name() + ":" + stat;
+    }
+
+    private static class Subscription {
+        private final GamesNames game;
+        private final String stat;
+        private final int size;
+        private final ILeaderboardListener listener;
+        private volatile List<LeaderboardEntry> top;
+
+        private Subscription(GamesNames game, String stat, int size, ILeaderboardListener listener) {
+            this.game = game;
+            this.stat = stat;
+            this.size = size;
+            this.listener = listener;
+        }
+
+        private boolean mayChange(UUID player, long score) {
+            List<LeaderboardEntry> current = this.top;
+
+            if (current == null || current.size() < this.size)
+                return true;
+
+            // The player was in the top, or their new score reaches it
+            for (LeaderboardEntry entry : current)
+                if (entry.getPlayer().equals(player))
+                    return true;
+
+            return score >= current.get(current.size() - 1).getScore();
+        }
+    }
+}
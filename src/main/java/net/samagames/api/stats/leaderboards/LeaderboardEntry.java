@@ -0,0 +1,71 @@
+package net.samagames.api.stats.leaderboards;
+
+import java.util.UUID;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class LeaderboardEntry {
+    private final UUID player;
+    private final long score;
+    private final int rank;
+
+    /**
+     * Constructor
+     *
+     * @param player Player's UUID
+     * @param score  Player's score
+     * @param rank   Player's rank, starting at 0
+     */
+    public LeaderboardEntry(UUID player, long score, int rank) {
+        this.player = player;
+        this.score = score;
+        this.rank = rank;
+    }
+
+    public UUID getPlayer() {
+        return this.player;
+    }
+
+    public long getScore() {
+        return this.score;
+    }
+
+    public int getRank() {
+        return this.rank;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof LeaderboardEntry))
+            return false;
+
+        LeaderboardEntry other = (LeaderboardEntry) o;
+        return this.score == other.score && this.rank == other.rank && this.player.equals(other.player);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * this.player.hashCode() + Long.hashCode(this.score)) + this.rank;
+    }
+
+    @Override
+    public String toString() {
+        return "LeaderboardEntry{player=" + this.player + ", score=" + this.score + ", rank=" + this.rank + "}";
+    }
+}
@@ -0,0 +1,94 @@
+package net.samagames.api.stats.leaderboards;
+
+import net.samagames.api.redis.ManagedRedis;
+import redis.clients.jedis.Tuple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Leaderboard store shared by every server, kept in a Redis sorted
+ * set. Redis stores the scores as doubles, they are exact up to 2^53.
+ */
+public class RedisLeaderboardStore implements ILeaderboardStore {
+    private final ManagedRedis redis;
+    private final String key;
+
+    /**
+     * Constructor
+     *
+     * @param redis Redis access
+     * @param key   Key of the sorted set, like {@code leaderboard:QUAKE:kills}
+     */
+    public RedisLeaderboardStore(ManagedRedis redis, String key) {
+        this.redis = redis;
+        this.key = key;
+    }
+
+    @Override
+    public void setScore(UUID player, long score) {
+        this.redis.run(jedis -> jedis.zadd(this.key, score, player.toString()));
+    }
+
+    @Override
+    public long incrementScore(UUID player, long delta) {
+        return this.redis.execute(jedis -> jedis.zincrby(this.key, delta, player.toString())).longValue();
+    }
+
+    @Override
+    public void remove(UUID player) {
+        this.redis.run(jedis -> jedis.zrem(this.key, player.toString()));
+    }
+
+    @Override
+    public Long getScore(UUID player) {
+        Double score = this.redis.execute(jedis -> jedis.zscore(this.key, player.toString()));
+        return score == null ? null : score.longValue();
+    }
+
+    @Override
+    public int getRank(UUID player) {
+        Long rank = this.redis.execute(jedis -> jedis.zrevrank(this.key, player.toString()));
+        return rank == null ? -1 : rank.intValue();
+    }
+
+    @Override
+    public List<LeaderboardEntry> getRange(int offset, int count) {
+        if (offset < 0 || count <= 0)
+            return Collections.emptyList();
+
+        Set<Tuple> tuples = this.redis.execute(jedis -> jedis.zrevrangeWithScores(this.key, offset, offset + count - 1));
+        List<LeaderboardEntry> entries = new ArrayList<>(tuples.size());
+        int rank = offset;
+
+        for (Tuple tuple : tuples)
+            entries.add(new LeaderboardEntry(UUID.fromString(tuple.getElement()), (long) tuple.getScore(), rank++));
+
+        return entries;
+    }
+
+    @Override
+    public int size() {
+        return this.redis.execute(jedis -> jedis.zcard(this.key)).intValue();
+    }
+}
@@ -0,0 +1,294 @@
+package net.samagames.api.stats.leaderboards;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * In-memory leaderboard store, an indexable skip list: every link
+ * knows how many entries it skips, so updates, rank lookups and
+ * page starts are done in O(log n), like the Redis sorted sets.
+ */
+public class SkipListLeaderboardStore implements ILeaderboardStore {
+    private static final int MAX_LEVEL = 32;
+    private static final double LEVEL_PROBABILITY = 0.25D;
+
+    private final ReadWriteLock lock;
+    private final Map<UUID, Long> scores;
+    private final Node head;
+    private int level;
+
+    /**
+     * Constructor
+     */
+    public SkipListLeaderboardStore() {
+        this.lock = new ReentrantReadWriteLock();
+        this.scores = new HashMap<>();
+        this.head = new Node(null, 0L, MAX_LEVEL);
+        this.level = 1;
+    }
+
+    @Override
+    public void setScore(UUID player, long score) {
+        this.lock.writeLock().lock();
+
+        try {
+            this.put(player, score);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long incrementScore(UUID player, long delta) {
+        this.lock.writeLock().lock();
+
+        try {
+            Long current = this.scores.get(player);
+            long score = (current == null ? 0L : current) + delta;
+
+            this.put(player, score);
+            return score;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(UUID player) {
+        this.lock.writeLock().lock();
+
+        try {
+            Long current = this.scores.remove(player);
+
+            if (current != null)
+                this.delete(player, current);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Long getScore(UUID player) {
+        this.lock.readLock().lock();
+
+        try {
+            return this.scores.get(player);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getRank(UUID player) {
+        this.lock.readLock().lock();
+
+        try {
+            Long score = this.scores.get(player);
+
+            if (score == null)
+                return -1;
+
+            Node node = this.head;
+            int rank = 0;
+
+            for (int i = this.level - 1; i >= 0; i--) {
+                while (node.next[i] != null && notAfter(node.next[i], player, score)) {
+                    rank += node.span[i];
+                    node = node.next[i];
+                }
+
+                if (node.player != null && node.player.equals(player))
+                    return rank - 1;
+            }
+
+            return -1;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<LeaderboardEntry> getRange(int offset, int count) {
+        this.lock.readLock().lock();
+
+        try {
+            if (offset < 0 || count <= 0 || offset >= this.scores.size())
+                return Collections.emptyList();
+
+            List<LeaderboardEntry> entries = new ArrayList<>(Math.min(count, this.scores.size() - offset));
+            Node node = this.nodeAt(offset + 1);
+
+            for (int rank = offset; node != null && rank < offset + count; rank++) {
+                entries.add(new LeaderboardEntry(node.player, node.score, rank));
+                node = node.next[0];
+            }
+
+            return entries;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        this.lock.readLock().lock();
+
+        try {
+            return this.scores.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void put(UUID player, long score) {
+        Long previous = this.scores.put(player, score);
+
+        if (previous != null) {
+            if (previous == score)
+                return;
+
+            this.delete(player, previous);
+        }
+
+        this.insert(player, score);
+    }
+
+    private void insert(UUID player, long score) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node node = this.head;
+
+        for (int i = this.level - 1; i >= 0; i--) {
+            rank[i] = i == this.level - 1 ? 0 : rank[i + 1];
+
+            while (node.next[i] != null && before(node.next[i].player, node.next[i].score, player, score)) {
+                rank[i] += node.span[i];
+                node = node.next[i];
+            }
+
+            update[i] = node;
+        }
+
+        int nodeLevel = randomLevel();
+
+        if (nodeLevel > this.level) {
+            for (int i = this.level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = this.head;
+                update[i].span[i] = this.scores.size() - 1;
+            }
+
+            this.level = nodeLevel;
+        }
+
+        Node inserted = new Node(player, score, nodeLevel);
+
+        for (int i = 0; i < nodeLevel; i++) {
+            inserted.next[i] = update[i].next[i];
+            update[i].next[i] = inserted;
+
+            inserted.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+
+        // Links above the new node now skip one more entry
+        for (int i = nodeLevel; i < this.level; i++)
+            update[i].span[i]++;
+    }
+
+    private void delete(UUID player, long score) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node node = this.head;
+
+        for (int i = this.level - 1; i >= 0; i--) {
+            while (node.next[i] != null && before(node.next[i].player, node.next[i].score, player, score))
+                node = node.next[i];
+
+            update[i] = node;
+        }
+
+        Node deleted = node.next[0];
+
+        if (deleted == null || !deleted.player.equals(player))
+            return;
+
+        for (int i = 0; i < this.level; i++) {
+            if (update[i].next[i] == deleted) {
+                update[i].span[i] += deleted.span[i] - 1;
+                update[i].next[i] = deleted.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+
+        while (this.level > 1 && this.head.next[this.level - 1] == null)
+            this.level--;
+    }
+
+    private Node nodeAt(int position) {
+        Node node = this.head;
+        int traversed = 0;
+
+        for (int i = this.level - 1; i >= 0; i--) {
+            while (node.next[i] != null && traversed + node.span[i] <= position) {
+                traversed += node.span[i];
+                node = node.next[i];
+            }
+
+            if (traversed == position)
+                return node;
+        }
+
+        return null;
+    }
+
+    private static boolean notAfter(Node node, UUID player, long score) {
+        return node.player.equals(player) || before(node.player, node.score, player, score);
+    }
+
+    private static boolean before(UUID player, long score, UUID otherPlayer, long otherScore) {
+        return score > otherScore || (score == otherScore && player.compareTo(otherPlayer) < 0);
+    }
+
+    private static int randomLevel() {
+        int nodeLevel = 1;
+
+        while (nodeLevel < MAX_LEVEL && ThreadLocalRandom.current().nextDouble() < LEVEL_PROBABILITY)
+            nodeLevel++;
+
+        return nodeLevel;
+    }
+
+    private static class Node {
+        private final UUID player;
+        private final long score;
+        private final Node[] next;
+        private final int[] span;
+
+        private Node(UUID player, long score, int level) {
+            this.player = player;
+            this.score = score;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+}
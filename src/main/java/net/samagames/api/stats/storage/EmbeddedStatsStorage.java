@@ -0,0 +1,464 @@
+package net.samagames.api.stats.storage;
+
+import net.samagames.api.pubsub.PacketReader;
+import net.samagames.api.pubsub.PacketWriter;
+import net.samagames.api.stats.StatsDelta;
+import net.samagames.api.stats.leaderboards.ILeaderboardStore;
+import net.samagames.api.stats.leaderboards.SkipListLeaderboardStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Statistics stored in a local file, for the servers running without
+ * the remote backend (offline tournaments, load tests).
+ * <p>
+ * Every write is appended as one record to a memory-mapped log, the
+ * totals and the leaderboards are kept in memory and rebuilt from the
+ * log when it is opened. A record only counts once completely written,
+ * so a crash loses at most the write in progress. The log can be
+ * rewritten with one record per player with {@link #compact()}.
+ */
+public class EmbeddedStatsStorage implements IStatsStorage {
+    private static final int MAGIC = 0x53475354;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int COMPACT_BATCH_SIZE = 1024;
+    private static final byte TYPE_LONG = 0;
+    private static final byte TYPE_DOUBLE = 1;
+
+    private final File file;
+    private final int initialCapacity;
+    private final boolean sync;
+    private final Logger logger;
+    private final ReentrantReadWriteLock lock;
+    private final Map<Key, Map<String, Number>> values;
+    private final Map<String, SkipListLeaderboardStore> leaderboards;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+
+    /**
+     * Constructor, opens the log and loads its statistics
+     *
+     * @param file            Log file, created if needed
+     * @param initialCapacity Size mapped at first, doubled when full
+     * @param sync            {@code true} to force every write to the disk
+     *                        before returning
+     * @param logger          Logger
+     * @throws IOException If the log could not be opened
+     */
+    public EmbeddedStatsStorage(File file, int initialCapacity, boolean sync, Logger logger) throws IOException {
+        this.file = file;
+        this.initialCapacity = Math.max(initialCapacity, HEADER_SIZE + RECORD_HEADER_SIZE);
+        this.sync = sync;
+        this.logger = logger;
+        this.lock = new ReentrantReadWriteLock();
+        this.values = new HashMap<>();
+        this.leaderboards = new ConcurrentHashMap<>();
+
+        this.open();
+    }
+
+    @Override
+    public void write(List<StatsDelta> deltas) throws IOException {
+        if (deltas.isEmpty())
+            return;
+
+        byte[] payload = encode(deltas);
+
+        this.lock.writeLock().lock();
+
+        try {
+            this.append(payload);
+            deltas.forEach(this::apply);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Number> load(UUID player, String statistics) {
+        this.lock.readLock().lock();
+
+        try {
+            Map<String, Number> fields = this.values.get(new Key(player, statistics));
+            return fields == null ? Collections.emptyMap() : Collections.unmodifiableMap(new HashMap<>(fields));
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ILeaderboardStore getLeaderboard(String statistics, String field) {
+        return this.leaderboards.computeIfAbsent(statistics + ":" + field, key -> new SkipListLeaderboardStore());
+    }
+
+    /**
+     * Rewrite the log with only the totals of the players
+     *
+     * @throws IOException If the log could not be rewritten, the
+     *                     current one is kept
+     */
+    public void compact() throws IOException {
+        this.lock.writeLock().lock();
+
+        try {
+            File compacted = new File(this.file.getPath() + ".compact");
+            List<StatsDelta> batch = new ArrayList<>();
+
+            try (RandomAccessFile output = new RandomAccessFile(compacted, "rw")) {
+                output.setLength(0);
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+
+                for (Map.Entry<Key, Map<String, Number>> entry : this.values.entrySet()) {
+                    batch.add(new StatsDelta(entry.getKey().player, entry.getKey().statistics, entry.getValue()));
+
+                    if (batch.size() == COMPACT_BATCH_SIZE) {
+                        writeRecord(output, encode(batch));
+                        batch.clear();
+                    }
+                }
+
+                if (!batch.isEmpty())
+                    writeRecord(output, encode(batch));
+
+                output.getFD().sync();
+            }
+
+            this.unmap();
+
+            try {
+                Files.move(compacted.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                // Replaying the log gives the same totals, the leaderboards are only overwritten
+                this.values.clear();
+                this.open();
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the size of the log used by the records
+     *
+     * @return Size in bytes
+     */
+    public int getLogSize() {
+        this.lock.readLock().lock();
+
+        try {
+            return this.position;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.lock.writeLock().lock();
+
+        try {
+            if (this.channel != null) {
+                this.buffer.force();
+                this.unmap();
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        boolean created = !this.file.exists() || this.file.length() == 0;
+
+        this.channel = new RandomAccessFile(this.file, "rw").getChannel();
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(this.channel.size(), this.initialCapacity));
+
+        if (created) {
+            this.buffer.putInt(0, MAGIC);
+            this.buffer.putInt(4, VERSION);
+        } else if (this.buffer.getInt(0) != MAGIC || this.buffer.getInt(4) != VERSION) {
+            this.unmap();
+            throw new IOException(this.file + " is not a statistics log");
+        }
+
+        this.position = HEADER_SIZE;
+        this.replay();
+    }
+
+    private void replay() {
+        CRC32 crc = new CRC32();
+        int records = 0;
+
+        while (this.position + RECORD_HEADER_SIZE <= this.buffer.capacity()) {
+            int length = this.buffer.getInt(this.position);
+
+            if (length == 0)
+                break;
+
+            if (length < 0 || this.position + RECORD_HEADER_SIZE + length > this.buffer.capacity()) {
+                this.discardTail("an invalid record length");
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            ByteBuffer view = this.buffer.duplicate();
+            view.position(this.position + RECORD_HEADER_SIZE);
+            view.get(payload);
+
+            crc.reset();
+            crc.update(payload);
+
+            if ((int) crc.getValue() != this.buffer.getInt(this.position + 4)) {
+                this.discardTail("a corrupted record");
+                break;
+            }
+
+            try {
+                decode(payload).forEach(this::apply);
+            } catch (RuntimeException e) {
+                this.discardTail("an unreadable record");
+                break;
+            }
+
+            this.position += RECORD_HEADER_SIZE + length;
+            records++;
+        }
+
+        this.logger.info("Loaded " + records + " statistics records from " + this.file);
+    }
+
+    private void discardTail(String reason) {
+        this.logger.warning("Statistics log " + this.file + " ends with " + reason + " at " + this.position + ", discarded");
+
+        for (int i = this.position; i < this.buffer.capacity(); i++)
+            this.buffer.put(i, (byte) 0);
+    }
+
+    private void append(byte[] payload) throws IOException {
+        if (this.buffer == null)
+            throw new IOException("Statistics log " + this.file + " is closed");
+
+        long needed = (long) this.position + RECORD_HEADER_SIZE + payload.length;
+
+        if (needed > this.buffer.capacity()) {
+            long capacity = Math.max((long) this.buffer.capacity() * 2, needed);
+
+            if (capacity > Integer.MAX_VALUE)
+                throw new IOException("Statistics log " + this.file + " is full, it needs to be compacted");
+
+            MappedByteBuffer previous = this.buffer;
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            this.release(previous);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer view = this.buffer.duplicate();
+        view.position(this.position + RECORD_HEADER_SIZE);
+        view.put(payload);
+
+        // The length is written last, a record without it is ignored
+        this.buffer.putInt(this.position + 4, (int) crc.getValue());
+        this.buffer.putInt(this.position, payload.length);
+
+        if (this.sync)
+            this.buffer.force();
+
+        this.position += RECORD_HEADER_SIZE + payload.length;
+    }
+
+    private void apply(StatsDelta delta) {
+        Map<String, Number> fields = this.values.computeIfAbsent(new Key(delta.getPlayer(), delta.getStatistics()), key -> new HashMap<>());
+
+        for (Map.Entry<String, Number> increment : delta.getIncrements().entrySet()) {
+            Number total = add(fields.get(increment.getKey()), increment.getValue());
+            fields.put(increment.getKey(), total);
+
+            if (total instanceof Long)
+                this.getLeaderboard(delta.getStatistics(), increment.getKey()).setScore(delta.getPlayer(), total.longValue());
+        }
+    }
+
+    private void unmap() throws IOException {
+        MappedByteBuffer buffer = this.buffer;
+
+        this.buffer = null;
+        this.channel.close();
+        this.channel = null;
+        this.release(buffer);
+    }
+
+    /**
+     * Unmap a buffer now instead of when it is garbage collected, so
+     * the file is not mapped anymore when it is replaced. The buffer
+     * must not be read after.
+     *
+     * @param buffer Buffer, may be {@code null}
+     */
+    private void release(MappedByteBuffer buffer) {
+        if (buffer == null)
+            return;
+
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = null;
+
+            try {
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (NoSuchMethodException ignored) {
+            }
+
+            if (invokeCleaner != null) {
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            } else {
+                // Java 8 has no invokeCleaner, the buffer gives its own cleaner
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+
+                if (cleaner != null)
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            this.logger.warning("Failed to unmap the statistics log " + this.file + ", it stays mapped until collected: " + e);
+        }
+    }
+
+    private static Number add(Number current, Number increment) {
+        if (current == null)
+            return isIntegral(increment) ? (Number) increment.longValue() : (Number) increment.doubleValue();
+
+        if (isIntegral(current) && isIntegral(increment))
+            return current.longValue() + increment.longValue();
+
+        return current.doubleValue() + increment.doubleValue();
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte;
+    }
+
+    private static void writeRecord(RandomAccessFile output, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        output.writeInt(payload.length);
+        output.writeInt((int) crc.getValue());
+        output.write(payload);
+    }
+
+    private static byte[] encode(List<StatsDelta> deltas) {
+        PacketWriter writer = new PacketWriter();
+        writer.writeVarInt(deltas.size());
+
+        for (StatsDelta delta : deltas) {
+            writer.writeUUID(delta.getPlayer());
+            writer.writeString(delta.getStatistics());
+            writer.writeVarInt(delta.getIncrements().size());
+
+            for (Map.Entry<String, Number> increment : delta.getIncrements().entrySet()) {
+                writer.writeString(increment.getKey());
+
+                if (isIntegral(increment.getValue()))
+                    writer.writeByte(TYPE_LONG).writeSignedVarLong(increment.getValue().longValue());
+                else
+                    writer.writeByte(TYPE_DOUBLE).writeDouble(increment.getValue().doubleValue());
+            }
+        }
+
+        return writer.toByteArray();
+    }
+
+    private static List<StatsDelta> decode(byte[] payload) {
+        PacketReader reader = new PacketReader(payload);
+        int count = reader.readVarInt();
+        List<StatsDelta> deltas = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            UUID player = reader.readUUID();
+            String statistics = reader.readString();
+            int fields = reader.readVarInt();
+            Map<String, Number> increments = new LinkedHashMap<>();
+
+            for (int j = 0; j < fields; j++) {
+                String field = reader.readString();
+                byte type = reader.readByte();
+
+                if (type == TYPE_LONG)
+                    increments.put(field, reader.readSignedVarLong());
+                else if (type == TYPE_DOUBLE)
+                    increments.put(field, reader.readDouble());
+                else
+                    throw new IllegalStateException("Unknown value type " + type);
+            }
+
+            deltas.add(new StatsDelta(player, statistics, increments));
+        }
+
+        return deltas;
+    }
+
+    private static class Key {
+        private final UUID player;
+        private final String statistics;
+
+        private Key(UUID player, String statistics) {
+            this.player = player;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+
+            if (!(o instanceof Key))
+                return false;
+
+            Key key = (Key) o;
+            return this.player.equals(key.player) && this.statistics.equals(key.statistics);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.player.hashCode() + this.statistics.hashCode();
+        }
+    }
+}
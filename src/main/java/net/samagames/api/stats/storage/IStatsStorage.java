@@ -0,0 +1,95 @@
+package net.samagames.api.stats.storage;
+
+import net.samagames.api.games.GamesNames;
+import net.samagames.api.stats.IStatsDeltaWriter;
+import net.samagames.api.stats.leaderboards.ILeaderboardStore;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Backend keeping the statistics of the players. The increments are
+ * applied with {@link #write(java.util.List)}, each call being all or
+ * nothing.
+ * <p>
+ * Set with {@link net.samagames.api.SamaGamesAPI#setStatsStorage(IStatsStorage)}
+ * to run a server without the remote backend. What is written to it is
+ * never forwarded to the remote backend.
+ */
+public interface IStatsStorage extends IStatsDeltaWriter, AutoCloseable {
+    /**
+     * Load the statistics of a player
+     *
+     * @param player     Player's UUID
+     * @param statistics Statistics' name, like {@code QuakeStatistics}
+     * @return Values by field name, empty if the player has none
+     * @throws Exception If the load failed
+     */
+    Map<String, Number> load(UUID player, String statistics) throws Exception;
+
+    /**
+     * Get the leaderboard of a field of some statistics, kept up to
+     * date with the writes. It must not be modified.
+     *
+     * @param statistics Statistics' name, like {@code QuakeStatistics}
+     * @param field      Field's name
+     * @return Leaderboard
+     */
+    ILeaderboardStore getLeaderboard(String statistics, String field);
+
+    /**
+     * Get the leaderboard of a stat of a game, as used by the
+     * leaderboards engine. Its updates are ignored, the scores only
+     * change with the writes.
+     *
+     * @param game Game
+     * @param stat Stat, the field's name
+     * @return Leaderboard
+     */
+    default ILeaderboardStore getLeaderboard(GamesNames game, String stat) {
+        return new StorageLeaderboardStore(this.getLeaderboard(this.getStatisticsName(game), stat));
+    }
+
+    /**
+     * Get the statistics' name of a game, like {@code QuakeStatistics}
+     * for {@link GamesNames#QUAKE}
+     *
+     * @param game Game
+     * @return Statistics' name
+     * @throws IllegalArgumentException If the game has no statistics
+     */
+    default String getStatisticsName(GamesNames game) {
+        String name = game.getStatisticsName();
+
+        if (name == null)
+            throw new IllegalArgumentException(game + " has no statistics");
+
+        return name;
+    }
+
+    /**
+     * Release the resources of this storage
+     *
+     * @throws IOException If the storage could not be closed
+     */
+    @Override
+    void close() throws IOException;
+}
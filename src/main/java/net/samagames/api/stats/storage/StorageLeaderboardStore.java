@@ -0,0 +1,76 @@
+package net.samagames.api.stats.storage;
+
+import net.samagames.api.stats.leaderboards.ILeaderboardStore;
+import net.samagames.api.stats.leaderboards.LeaderboardEntry;
+
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Leaderboard of a statistics storage seen by the leaderboards engine.
+ * The scores are only changed by the writes of the storage, so the
+ * updates of the engine are ignored instead of being counted twice.
+ */
+class StorageLeaderboardStore implements ILeaderboardStore {
+    private final ILeaderboardStore store;
+
+    /**
+     * Constructor
+     *
+     * @param store Leaderboard of the storage
+     */
+    StorageLeaderboardStore(ILeaderboardStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void setScore(UUID player, long score) {
+    }
+
+    @Override
+    public long incrementScore(UUID player, long delta) {
+        Long score = this.store.getScore(player);
+        return score == null ? 0L : score;
+    }
+
+    @Override
+    public void remove(UUID player) {
+    }
+
+    @Override
+    public Long getScore(UUID player) {
+        return this.store.getScore(player);
+    }
+
+    @Override
+    public int getRank(UUID player) {
+        return this.store.getRank(player);
+    }
+
+    @Override
+    public List<LeaderboardEntry> getRange(int offset, int count) {
+        return this.store.getRange(offset, count);
+    }
+
+    @Override
+    public int size() {
+        return this.store.size();
+    }
+}
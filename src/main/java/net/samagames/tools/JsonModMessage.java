@@ -81,7 +81,7 @@ public class JsonModMessage {
      * Send the moderator message
      */
     public void send() {
-        SamaGamesAPI.get().getPubSub().send("moderationchan", new Gson().toJson(this));
+        SamaGamesAPI.get().getManagedPubSub().send("moderationchan", new Gson().toJson(this));
     }
 
     /**
@@ -3,10 +3,13 @@ package net.samagames.tools;
 import net.samagames.api.SamaGamesAPI;
 import net.samagames.api.permissions.IPermissionsEntity;
 import net.samagames.api.player.AbstractPlayerData;
+import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
 
 /*
  * This file is part of SamaGamesAPI.
@@ -72,4 +75,56 @@ public class PlayerUtils {
     public static String getColoredFormattedPlayerName(Player player) {
         return getColoredFormattedPlayerName(player.getUniqueId());
     }
+
+    /**
+     * Get the fully formatted names of many players at once,
+     * loading their data and permissions in one batch off the main
+     * thread
+     *
+     * @param uuids Players' UUID
+     * @return Future of the formatted names of the found players, by UUID
+     */
+    public static CompletableFuture<Map<UUID, String>> getFullyFormattedPlayerNames(Collection<UUID> uuids) {
+        return getFormattedPlayerNames(uuids, true);
+    }
+
+    /**
+     * Get the colored formatted names of many players at once,
+     * loading their data and permissions in one batch off the main
+     * thread
+     *
+     * @param uuids Players' UUID
+     * @return Future of the formatted names of the found players, by UUID
+     */
+    public static CompletableFuture<Map<UUID, String>> getColoredFormattedPlayerNames(Collection<UUID> uuids) {
+        return getFormattedPlayerNames(uuids, false);
+    }
+
+    private static CompletableFuture<Map<UUID, String>> getFormattedPlayerNames(Collection<UUID> uuids, boolean withTag) {
+        List<UUID> players = new ArrayList<>(uuids);
+
+        return SamaGamesAPI.get().getPlayerManager().getPlayerData(players).exceptionally(e ->
+        {
+            SamaGamesAPI.get().getPlugin().getLogger().log(Level.WARNING, "Failed to load the players data", e);
+            return Collections.emptyMap();
+        }).thenApplyAsync(playersData -> getFormattedPlayerNames(players, playersData, withTag),
+                task -> Bukkit.getScheduler().runTaskAsynchronously(SamaGamesAPI.get().getPlugin(), task));
+    }
+
+    private static Map<UUID, String> getFormattedPlayerNames(List<UUID> uuids, Map<UUID, AbstractPlayerData> playersData, boolean withTag) {
+        Map<UUID, IPermissionsEntity> permissionsEntities = SamaGamesAPI.get().getPermissionsManager().getPlayers(uuids);
+        Map<UUID, String> names = new HashMap<>();
+
+        for (Map.Entry<UUID, IPermissionsEntity> entry : permissionsEntities.entrySet()) {
+            AbstractPlayerData playerData = playersData.get(entry.getKey());
+
+            if (playerData == null)
+                continue;
+
+            IPermissionsEntity playerPermissionEntity = entry.getValue();
+            names.put(entry.getKey(), playerPermissionEntity.getDisplayPrefix() + (withTag ? playerPermissionEntity.getDisplayTag() : "") + playerData.getDisplayName() + ChatColor.RESET);
+        }
+
+        return names;
+    }
 }
@@ -20,20 +20,41 @@ import java.util.UUID;
  * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
  */
 public class TypeConverter {
+    /**
+     * Convert a string into a given type. Prefer the {@code parse} method
+     * of the generated data classes, which knows the fields' types
+     * without being given them.
+     *
+     * @param a     Wanted type
+     * @param value String value
+     * @param <T>   Wanted type
+     * @return Converted value, {@code null} for a {@code null} string
+     *         of a non-primitive type
+     */
     @SuppressWarnings("unchecked")
     public static <T> T convert(Class<T> a, String value) {
-        if (a == int.class) {
+        if (a == String.class) {
+            return (T) value;
+        } else if (value == null && !a.isPrimitive()) {
+            return null;
+        } else if (a == int.class || a == Integer.class) {
             return (T) Integer.valueOf(value);
         } else if (a == Timestamp.class) {
             return (T) Timestamp.valueOf(value);
-        } else if (a == long.class) {
+        } else if (a == long.class || a == Long.class) {
             return (T) Long.valueOf(value);
         } else if (a == java.util.UUID.class) {
             return (T) UUID.fromString(value);
-        } else if (a == double.class) {
+        } else if (a == double.class || a == Double.class) {
             return (T) Double.valueOf(value);
-        } else if (a == boolean.class) {
+        } else if (a == boolean.class || a == Boolean.class) {
             return (T) Boolean.valueOf(value);
+        } else if (a == float.class || a == Float.class) {
+            return (T) Float.valueOf(value);
+        } else if (a == short.class || a == Short.class) {
+            return (T) Short.valueOf(value);
+        } else if (a == byte.class || a == Byte.class) {
+            return (T) Byte.valueOf(value);
         }
 
         return (T) value;
@@ -0,0 +1,140 @@
+package net.samagames.tools;
+
+import java.util.*;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Immutable set of UUIDs stored as pairs of longs in an open addressing
+ * table, instead of a {@link UUID} object and a hash map node by entry.
+ */
+public final class UUIDSet extends AbstractSet<UUID> {
+    public static final UUIDSet EMPTY = new UUIDSet(Collections.emptyList());
+
+    private final long[] table;
+    private final int mask;
+    private final int size;
+
+    /**
+     * Constructor
+     *
+     * @param uuids UUIDs, duplicates are ignored
+     */
+    public UUIDSet(Collection<UUID> uuids) {
+        int capacity = 2;
+
+        // Keep the table at most half full so the probes stay short
+        while (capacity < uuids.size() * 2)
+            capacity <<= 1;
+
+        this.table = new long[capacity * 2];
+        this.mask = capacity - 1;
+
+        int size = 0;
+
+        for (UUID uuid : uuids)
+            if (this.insert(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()))
+                size++;
+
+        this.size = size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof UUID))
+            return false;
+
+        UUID uuid = (UUID) o;
+        return this.contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Iterator<UUID> iterator() {
+        return new Iterator<UUID>() {
+            private int slot = this.advance(0);
+
+            private int advance(int from) {
+                while (from <= UUIDSet.this.mask && UUIDSet.this.table[from * 2] == 0L && UUIDSet.this.table[from * 2 + 1] == 0L)
+                    from++;
+
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return this.slot <= UUIDSet.this.mask;
+            }
+
+            @Override
+            public UUID next() {
+                if (!this.hasNext())
+                    throw new NoSuchElementException();
+
+                UUID uuid = new UUID(UUIDSet.this.table[this.slot * 2], UUIDSet.this.table[this.slot * 2 + 1]);
+                this.slot = this.advance(this.slot + 1);
+                return uuid;
+            }
+        };
+    }
+
+    private boolean contains(long most, long least) {
+        // The nil UUID is the empty slot marker
+        if (most == 0L && least == 0L)
+            return false;
+
+        for (int slot = hash(most, least) & this.mask; ; slot = (slot + 1) & this.mask) {
+            long slotMost = this.table[slot * 2];
+            long slotLeast = this.table[slot * 2 + 1];
+
+            if (slotMost == most && slotLeast == least)
+                return true;
+
+            if (slotMost == 0L && slotLeast == 0L)
+                return false;
+        }
+    }
+
+    private boolean insert(long most, long least) {
+        if (most == 0L && least == 0L)
+            return false;
+
+        for (int slot = hash(most, least) & this.mask; ; slot = (slot + 1) & this.mask) {
+            long slotMost = this.table[slot * 2];
+            long slotLeast = this.table[slot * 2 + 1];
+
+            if (slotMost == most && slotLeast == least)
+                return false;
+
+            if (slotMost == 0L && slotLeast == 0L) {
+                this.table[slot * 2] = most;
+                this.table[slot * 2 + 1] = least;
+                return true;
+            }
+        }
+    }
+
+    private static int hash(long most, long least) {
+        long hash = (most ^ least) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
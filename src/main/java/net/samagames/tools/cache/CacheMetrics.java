@@ -0,0 +1,107 @@
+package net.samagames.tools.cache;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class CacheMetrics {
+    public static final CacheMetrics EMPTY = new CacheMetrics(0, 0L, 0L, 0L, 0L, 0L, 0L, 0L);
+
+    private final int size;
+    private final long hits;
+    private final long staleHits;
+    private final long misses;
+    private final long loads;
+    private final long loadFailures;
+    private final long totalLoadTimeNanos;
+    private final long evictions;
+
+    /**
+     * Constructor
+     *
+     * @param size               Current number of entries
+     * @param hits               Reads served from a fresh entry
+     * @param staleHits          Reads served from an expired entry while
+     *                           it was reloaded
+     * @param misses             Reads which had to wait for a load
+     * @param loads              Loads done, in background or not
+     * @param loadFailures       Loads which failed
+     * @param totalLoadTimeNanos Time spent loading
+     * @param evictions          Entries removed to respect the size limit
+     */
+    public CacheMetrics(int size, long hits, long staleHits, long misses, long loads, long loadFailures, long totalLoadTimeNanos, long evictions) {
+        this.size = size;
+        this.hits = hits;
+        this.staleHits = staleHits;
+        this.misses = misses;
+        this.loads = loads;
+        this.loadFailures = loadFailures;
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+        this.evictions = evictions;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public long getHits() {
+        return this.hits;
+    }
+
+    public long getStaleHits() {
+        return this.staleHits;
+    }
+
+    public long getMisses() {
+        return this.misses;
+    }
+
+    public long getLoads() {
+        return this.loads;
+    }
+
+    public long getLoadFailures() {
+        return this.loadFailures;
+    }
+
+    public long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Get the part of the reads which did not wait for a load
+     *
+     * @return Ratio between 0 and 1
+     */
+    public double getHitRate() {
+        long reads = this.hits + this.staleHits + this.misses;
+        return reads == 0L ? 0.0D : (double) (this.hits + this.staleHits) / reads;
+    }
+
+    /**
+     * Get the average duration of a load
+     *
+     * @return Duration in milliseconds
+     */
+    public double getAverageLoadMillis() {
+        return this.loads == 0L ? 0.0D : this.totalLoadTimeNanos / 1000000.0D / this.loads;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheMetrics{size=" + this.size + ", hits=" + this.hits + ", staleHits=" + this.staleHits + ", misses=" + this.misses
+                + ", loads=" + this.loads + ", loadFailures=" + this.loadFailures + ", averageLoadMillis=" + this.getAverageLoadMillis() + ", evictions=" + this.evictions + "}";
+    }
+}
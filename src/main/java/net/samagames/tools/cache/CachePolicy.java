@@ -0,0 +1,159 @@
+package net.samagames.tools.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Freshness and size rules of a {@link RefreshAheadCache}.
+ * <p>
+ * An entry younger than {@code timeToLive * refreshAheadRatio} is
+ * served as is. Past this threshold it is still served, and reloaded
+ * in the background. Past its time to live it is served stale for at
+ * most {@code staleWhileRevalidate} while it is reloaded, and only
+ * after that a read waits for the reload.
+ */
+public class CachePolicy {
+    private long timeToLiveMillis;
+    private double refreshAheadRatio;
+    private long staleWhileRevalidateMillis;
+    private int maxEntries;
+    private final Map<String, Long> fieldTimeToLiveMillis;
+
+    /**
+     * Constructor, with a 5 minutes time to live, refreshed ahead
+     * at 80% of it, served stale for 30 more seconds, and 10000
+     * entries at most
+     */
+    public CachePolicy() {
+        this.timeToLiveMillis = 5L * 60L * 1000L;
+        this.refreshAheadRatio = 0.8D;
+        this.staleWhileRevalidateMillis = 30L * 1000L;
+        this.maxEntries = 10000;
+        this.fieldTimeToLiveMillis = new HashMap<>();
+    }
+
+    /**
+     * Set the default time to live of the entries
+     *
+     * @param timeToLiveMillis Time to live
+     * @return This policy
+     */
+    public CachePolicy setTimeToLive(long timeToLiveMillis) {
+        if (timeToLiveMillis <= 0L)
+            throw new IllegalArgumentException("Time to live must be positive");
+
+        this.timeToLiveMillis = timeToLiveMillis;
+        return this;
+    }
+
+    /**
+     * Set the time to live of the entries read for a given field,
+     * like the coins which change more often than the nickname
+     *
+     * @param field            Field's name
+     * @param timeToLiveMillis Time to live
+     * @return This policy
+     */
+    public CachePolicy setTimeToLive(String field, long timeToLiveMillis) {
+        if (timeToLiveMillis <= 0L)
+            throw new IllegalArgumentException("Time to live must be positive");
+
+        this.fieldTimeToLiveMillis.put(field, timeToLiveMillis);
+        return this;
+    }
+
+    /**
+     * Set the part of the time to live after which a read triggers
+     * a background reload
+     *
+     * @param refreshAheadRatio Ratio between 0 and 1, 1 to disable
+     *                          the refresh ahead
+     * @return This policy
+     */
+    public CachePolicy setRefreshAheadRatio(double refreshAheadRatio) {
+        if (refreshAheadRatio <= 0.0D || refreshAheadRatio > 1.0D)
+            throw new IllegalArgumentException("Refresh ahead ratio must be in ]0, 1]");
+
+        this.refreshAheadRatio = refreshAheadRatio;
+        return this;
+    }
+
+    /**
+     * Set how long an expired entry can still be served while it
+     * is reloaded in the background
+     *
+     * @param staleWhileRevalidateMillis Duration, 0 to always wait
+     *                                   for the reload
+     * @return This policy
+     */
+    public CachePolicy setStaleWhileRevalidate(long staleWhileRevalidateMillis) {
+        if (staleWhileRevalidateMillis < 0L)
+            throw new IllegalArgumentException("Stale while revalidate duration can't be negative");
+
+        this.staleWhileRevalidateMillis = staleWhileRevalidateMillis;
+        return this;
+    }
+
+    /**
+     * Set the number of entries above which the least recently
+     * used evictable ones are removed
+     *
+     * @param maxEntries Maximum number of entries
+     * @return This policy
+     */
+    public CachePolicy setMaxEntries(int maxEntries) {
+        if (maxEntries <= 0)
+            throw new IllegalArgumentException("Max entries must be positive");
+
+        this.maxEntries = maxEntries;
+        return this;
+    }
+
+    public long getTimeToLive() {
+        return this.timeToLiveMillis;
+    }
+
+    /**
+     * Get the time to live of the entries read for a given field
+     *
+     * @param field Field's name
+     * @return Time to live of the field, the default one if not set
+     */
+    public long getTimeToLive(String field) {
+        return this.fieldTimeToLiveMillis.getOrDefault(field, this.timeToLiveMillis);
+    }
+
+    public Map<String, Long> getFieldsTimeToLive() {
+        return Collections.unmodifiableMap(this.fieldTimeToLiveMillis);
+    }
+
+    public double getRefreshAheadRatio() {
+        return this.refreshAheadRatio;
+    }
+
+    public long getStaleWhileRevalidate() {
+        return this.staleWhileRevalidateMillis;
+    }
+
+    public int getMaxEntries() {
+        return this.maxEntries;
+    }
+}
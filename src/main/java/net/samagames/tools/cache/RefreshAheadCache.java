@@ -0,0 +1,308 @@
+package net.samagames.tools.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Loading cache following a {@link CachePolicy}: entries are reloaded
+ * in the background before they expire, served stale for a while when
+ * they did, and the least recently used evictable ones are removed
+ * above the size limit.
+ * <p>
+ * Concurrent loads of the same key are merged into one.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class RefreshAheadCache<K, V> {
+    private final Function<K, V> loader;
+    private final CachePolicy policy;
+    private final Executor refreshExecutor;
+    private final Predicate<K> evictable;
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+    private final Map<K, CompletableFuture<V>> loading;
+    private final LongAdder hits;
+    private final LongAdder staleHits;
+    private final LongAdder misses;
+    private final LongAdder loads;
+    private final LongAdder loadFailures;
+    private final LongAdder totalLoadTimeNanos;
+    private final LongAdder evictions;
+
+    /**
+     * Constructor
+     *
+     * @param loader          Function loading a value, may return
+     *                        {@code null} if it does not exist
+     * @param policy          Freshness and size rules
+     * @param refreshExecutor Executor running the background reloads
+     * @param evictable       Whether a key can be evicted, like an
+     *                        offline player
+     */
+    public RefreshAheadCache(Function<K, V> loader, CachePolicy policy, Executor refreshExecutor, Predicate<K> evictable) {
+        this.loader = loader;
+        this.policy = policy;
+        this.refreshExecutor = refreshExecutor;
+        this.evictable = evictable;
+        this.entries = new LinkedHashMap<>(16, 0.75F, true);
+        this.loading = new ConcurrentHashMap<>();
+        this.hits = new LongAdder();
+        this.staleHits = new LongAdder();
+        this.misses = new LongAdder();
+        this.loads = new LongAdder();
+        this.loadFailures = new LongAdder();
+        this.totalLoadTimeNanos = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    /**
+     * Get a value with the default time to live
+     *
+     * @param key Key
+     * @return Value, {@code null} if it does not exist
+     */
+    public V get(K key) {
+        return this.get(key, this.policy.getTimeToLive());
+    }
+
+    /**
+     * Get a value with the time to live of a given field
+     *
+     * @param key   Key
+     * @param field Field's name
+     * @return Value, {@code null} if it does not exist
+     */
+    public V get(K key, String field) {
+        return this.get(key, this.policy.getTimeToLive(field));
+    }
+
+    /**
+     * Get a value, waiting for a load only if it is missing or
+     * expired for longer than the stale while revalidate duration
+     *
+     * @param key              Key
+     * @param timeToLiveMillis Time to live of the entry for this read
+     * @return Value, {@code null} if it does not exist
+     */
+    public V get(K key, long timeToLiveMillis) {
+        CacheEntry<V> entry;
+
+        synchronized (this.entries) {
+            entry = this.entries.get(key);
+        }
+
+        if (entry != null) {
+            long age = System.currentTimeMillis() - entry.loadTime;
+
+            if (age < timeToLiveMillis) {
+                this.hits.increment();
+
+                if (age >= timeToLiveMillis * this.policy.getRefreshAheadRatio())
+                    this.refresh(key);
+
+                return entry.value;
+            } else if (age < timeToLiveMillis + this.policy.getStaleWhileRevalidate()) {
+                this.staleHits.increment();
+                this.refresh(key);
+
+                return entry.value;
+            }
+        }
+
+        this.misses.increment();
+
+        try {
+            return this.load(key, false).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Get a value without loading it
+     *
+     * @param key Key
+     * @return Value, {@code null} if not cached
+     */
+    public V getIfPresent(K key) {
+        synchronized (this.entries) {
+            CacheEntry<V> entry = this.entries.get(key);
+            return entry == null ? null : entry.value;
+        }
+    }
+
+    /**
+     * Reload a value in the background
+     *
+     * @param key Key
+     * @return Future completed with the reloaded value
+     */
+    public CompletableFuture<V> refresh(K key) {
+        return this.load(key, true);
+    }
+
+    /**
+     * Set a value, like one received from another server
+     *
+     * @param key   Key
+     * @param value Value
+     */
+    public void put(K key, V value) {
+        synchronized (this.entries) {
+            this.entries.put(key, new CacheEntry<>(value, System.currentTimeMillis()));
+            this.evict();
+        }
+    }
+
+    /**
+     * Remove a value
+     *
+     * @param key Key
+     */
+    public void invalidate(K key) {
+        synchronized (this.entries) {
+            this.entries.remove(key);
+        }
+    }
+
+    /**
+     * Remove every value
+     */
+    public void invalidateAll() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    /**
+     * Remove the least recently used evictable values above the
+     * size limit, to be called when keys become evictable
+     */
+    public void cleanUp() {
+        synchronized (this.entries) {
+            this.evict();
+        }
+    }
+
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    public CachePolicy getPolicy() {
+        return this.policy;
+    }
+
+    /**
+     * Get a snapshot of the cache usage
+     *
+     * @return Metrics
+     */
+    public CacheMetrics getMetrics() {
+        return new CacheMetrics(this.size(), this.hits.sum(), this.staleHits.sum(), this.misses.sum(), this.loads.sum(),
+                this.loadFailures.sum(), this.totalLoadTimeNanos.sum(), this.evictions.sum());
+    }
+
+    private CompletableFuture<V> load(K key, boolean async) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = this.loading.putIfAbsent(key, future);
+
+        if (inFlight != null)
+            return inFlight;
+
+        Runnable task = () ->
+        {
+            long start = System.nanoTime();
+
+            try {
+                V value = this.loader.apply(key);
+
+                synchronized (this.entries) {
+                    if (value == null)
+                        this.entries.remove(key);
+                    else
+                        this.entries.put(key, new CacheEntry<>(value, System.currentTimeMillis()));
+
+                    this.evict();
+                }
+
+                future.complete(value);
+            } catch (Throwable throwable) {
+                this.loadFailures.increment();
+                future.completeExceptionally(throwable);
+            } finally {
+                this.loads.increment();
+                this.totalLoadTimeNanos.add(System.nanoTime() - start);
+                this.loading.remove(key, future);
+            }
+        };
+
+        if (!async) {
+            task.run();
+        } else {
+            try {
+                this.refreshExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                this.loading.remove(key, future);
+                future.completeExceptionally(e);
+            }
+        }
+
+        return future;
+    }
+
+    private void evict() {
+        int overflow = this.entries.size() - this.policy.getMaxEntries();
+
+        if (overflow <= 0)
+            return;
+
+        // Iteration goes from the least to the most recently used
+        Iterator<K> iterator = this.entries.keySet().iterator();
+
+        while (overflow > 0 && iterator.hasNext()) {
+            if (this.evictable.test(iterator.next())) {
+                iterator.remove();
+                this.evictions.increment();
+                overflow--;
+            }
+        }
+    }
+
+    private static class CacheEntry<V> {
+        private final V value;
+        private final long loadTime;
+
+        private CacheEntry(V value, long loadTime) {
+            this.value = value;
+            this.loadTime = loadTime;
+        }
+    }
+}
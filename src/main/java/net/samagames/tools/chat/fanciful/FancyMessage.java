@@ -715,15 +715,27 @@ public class FancyMessage implements JsonRepresentedObject, Cloneable, Iterable<
     }
 
     private void send(CommandSender sender, String jsonString) {
+        send(sender, jsonString, null);
+    }
+
+    /**
+     * Sends a serialized message, reusing an already created chat packet if there is one.
+     *
+     * @return The chat packet, to be reused for the next receivers, or {@code null} if none was created.
+     */
+    private Object send(CommandSender sender, String jsonString, Object packet) {
         if (!(sender instanceof Player)) {
             sender.sendMessage(toOldMessageFormat());
-            return;
+            return packet;
         }
         Player player = (Player) sender;
         try {
+            if (packet == null) {
+                packet = createChatPacket(jsonString);
+            }
             Object handle = Reflection.getHandle(player);
             Object connection = Objects.requireNonNull(Reflection.getField(Objects.requireNonNull(handle).getClass(), "playerConnection")).get(handle);
-            Objects.requireNonNull(Reflection.getMethod(connection.getClass(), "sendPacket", Reflection.getNMSClass("Packet"))).invoke(connection, createChatPacket(jsonString));
+            Objects.requireNonNull(Reflection.getMethod(connection.getClass(), "sendPacket", Reflection.getNMSClass("Packet"))).invoke(connection, packet);
         } catch (IllegalArgumentException e) {
             Bukkit.getLogger().log(Level.WARNING, "Argument could not be passed.", e);
         } catch (IllegalAccessException e) {
@@ -737,6 +749,7 @@ public class FancyMessage implements JsonRepresentedObject, Cloneable, Iterable<
         } catch (ClassNotFoundException e) {
             Bukkit.getLogger().log(Level.WARNING, "Could not find class.", e);
         }
+        return packet;
     }
 
     private Object createChatPacket(String json) throws IllegalArgumentException, IllegalAccessException, InstantiationException, InvocationTargetException, NoSuchMethodException, ClassNotFoundException {
@@ -791,14 +804,16 @@ public class FancyMessage implements JsonRepresentedObject, Cloneable, Iterable<
 
     /**
      * Sends this message to multiple command senders.
+     * The message is serialized and converted to a chat packet only once for all of them.
      *
      * @param senders The command senders who will receive the message.
      * @see #send(CommandSender)
      */
     public void send(final Iterable<? extends CommandSender> senders) {
         String string = toJSONString();
+        Object packet = null;
         for (final CommandSender sender : senders) {
-            send(sender, string);
+            packet = send(sender, string, packet);
         }
     }
 
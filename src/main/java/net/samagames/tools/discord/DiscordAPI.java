@@ -1,12 +1,14 @@
 package net.samagames.tools.discord;
 
 import net.samagames.api.SamaGamesAPI;
-import net.samagames.api.pubsub.IPacketsReceiver;
-import org.apache.commons.lang3.tuple.MutablePair;
-import redis.clients.jedis.Jedis;
+import net.samagames.api.pubsub.PubSubRpcClient;
+import net.samagames.api.pubsub.TimeoutWheel;
 
 import javax.annotation.Nonnull;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 
 /*
@@ -26,179 +28,131 @@ import java.util.logging.Level;
  * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
  */
 public class DiscordAPI {
-    private static final int TIMEOUT = 15000;
-    private static final Map<Integer, MutablePair<ResultType, Object>> results = new HashMap<>();
-    private static int generator = 0;
+    private static final long TIMEOUT = 15000;
+    private static final PubSubRpcClient client;
 
     static {
-        SamaGamesAPI.get().getPubSub().subscribe("discordbot.response", new DiscordConsumer());
+        TimeoutWheel wheel = new TimeoutWheel("DiscordAPI-Timeouts", 100L, 512);
+        SamaGamesAPI.get().addDisableHook(wheel::stop);
+
+        client = new PubSubRpcClient(SamaGamesAPI.get().getManagedPubSub(), "discordbot", "discordbot.response", SamaGamesAPI.get().getServerName(),
+                SamaGamesAPI.get().getPlugin().getLogger(), wheel);
+    }
+
+    private static CompletableFuture<String[]> call(String request) {
+        SamaGamesAPI.get().getPlugin().getLogger().info("[DiscordAPI] Sending packet with content: " + request);
+
+        return DiscordAPI.client.call(request, DiscordAPI.TIMEOUT).thenApply(response ->
+        {
+            SamaGamesAPI.get().getPlugin().getLogger().info("[DiscordAPI] Received response to '" + request + "': " + response);
+            return response.split(":");
+        });
     }
 
-    private static void publish(int id, String string) {
-        SamaGamesAPI.get().getPlugin().getLogger().info("[DiscordAPI] Sending packet " + id + " with content: " + string);
-        Jedis jedis = null;
+    private static CompletableFuture<List<UUID>> callForPlayers(String command, List<UUID> uuids) {
+        StringBuilder request = new StringBuilder(command);
+        uuids.forEach(uuid -> request.append(':').append(uuid.toString()));
+
+        return DiscordAPI.call(request.toString()).thenApply(content ->
+        {
+            List<UUID> result = new ArrayList<>();
+
+            for (int i = 1; i < content.length; i++) {
+                if (content[i].equals("ERROR")) {
+                    SamaGamesAPI.get().getPlugin().getLogger().severe("[DiscordAPI] Error : " + String.join(":", content) + " (request = " + request + ")");
+                    continue;
+                }
+
+                result.add(UUID.fromString(content[i]));
+            }
+
+            return result;
+        });
+    }
+
+    private static <T> T join(CompletableFuture<T> future, T fallback) {
         try {
-            jedis = SamaGamesAPI.get().getBungeeResource();
-            if (jedis != null)
-                jedis.publish("discordbot", SamaGamesAPI.get().getServerName() + "/" + id + "/" + string);
-        } catch (Exception exception) {
-            SamaGamesAPI.get().getPlugin().getLogger().log(Level.SEVERE, "Jedis error", exception);
-        } finally {
-            if (jedis != null)
-                jedis.close();
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            SamaGamesAPI.get().getPlugin().getLogger().log(Level.WARNING, "[DiscordAPI] Request failed: " + e.getMessage());
         }
+
+        return fallback;
+    }
+
+    public static CompletableFuture<Long> createChannelAsync(@Nonnull String name) {
+        return DiscordAPI.call("createchannel:" + name).thenApply(content -> Long.parseLong(content[0]));
+    }
+
+    public static CompletableFuture<Boolean> deleteChannelAsync(long channelId) {
+        return DiscordAPI.call("deletechannel:" + channelId).thenApply(DiscordAPI::isSuccess);
+    }
+
+    public static CompletableFuture<List<UUID>> movePlayersAsync(@Nonnull List<UUID> uuids, long channelId) {
+        return DiscordAPI.callForPlayers("move:" + channelId, uuids);
+    }
+
+    public static CompletableFuture<DiscordMoveResult> moveAsync(@Nonnull List<UUID> uuids, long channelId) {
+        return DiscordAPI.movePlayersAsync(uuids, channelId).thenApply(moved -> new DiscordMoveResult(channelId, uuids, moved));
+    }
+
+    public static CompletableFuture<DiscordMoveResult> createChannelAndMoveAsync(@Nonnull String name, @Nonnull List<UUID> uuids) {
+        return DiscordAPI.createChannelAsync(name).thenCompose(channelId ->
+        {
+            if (channelId == -1L || uuids.isEmpty())
+                return CompletableFuture.completedFuture(new DiscordMoveResult(channelId, uuids, new ArrayList<>()));
+
+            return DiscordAPI.moveAsync(uuids, channelId);
+        });
+    }
+
+    public static CompletableFuture<List<UUID>> mutePlayersAsync(@Nonnull List<UUID> uuids) {
+        return DiscordAPI.callForPlayers("mute", uuids);
+    }
+
+    public static CompletableFuture<List<UUID>> unmutePlayersAsync(@Nonnull List<UUID> uuids) {
+        return DiscordAPI.callForPlayers("unmute", uuids);
+    }
+
+    public static CompletableFuture<Boolean> isConnectedAsync(@Nonnull UUID player) {
+        return DiscordAPI.call("isconnected:" + player.toString()).thenApply(DiscordAPI::isSuccess);
+    }
+
+    public static CompletableFuture<List<UUID>> kickPlayersAsync(@Nonnull List<UUID> uuids) {
+        return DiscordAPI.callForPlayers("kick", uuids);
     }
 
     public static long createChannel(@Nonnull String name) {
-        MutablePair<ResultType, Object> pair = MutablePair.of(ResultType.LONG, -1L);
-        int id = generator++;
-        DiscordAPI.results.put(id, pair);
-        DiscordAPI.publish(id, "createchannel:" + name);
-        try {
-            synchronized (pair) {
-                pair.wait(DiscordAPI.TIMEOUT);
-            }
-        } catch (Exception ignored) {
-        }
-        return (long) pair.getRight();
+        return DiscordAPI.join(DiscordAPI.createChannelAsync(name), -1L);
     }
 
     public static boolean deleteChannel(long channelId) {
-        MutablePair<ResultType, Object> pair = MutablePair.of(ResultType.BOOLEAN, false);
-        int id = generator++;
-        DiscordAPI.results.put(id, pair);
-        DiscordAPI.publish(id, "deletechannel:" + channelId);
-        try {
-            synchronized (pair) {
-                pair.wait(DiscordAPI.TIMEOUT);
-            }
-        } catch (Exception ignored) {
-        }
-        return (boolean) pair.getRight();
+        return DiscordAPI.join(DiscordAPI.deleteChannelAsync(channelId), false);
     }
 
     public static List<UUID> movePlayers(@Nonnull List<UUID> uuids, long channelId) {
-        MutablePair<ResultType, Object> pair = MutablePair.of(ResultType.UUID_LIST, new ArrayList<>());
-        int id = generator++;
-        DiscordAPI.results.put(id, pair);
-        final String[] msg = {"move:" + channelId};
-        uuids.forEach(uuid -> msg[0] += ":" + uuid.toString());
-        DiscordAPI.publish(id, msg[0]);
-        try {
-            synchronized (pair) {
-                pair.wait(DiscordAPI.TIMEOUT);
-            }
-        } catch (Exception ignored) {
-        }
-        return (List<UUID>) pair.getRight();
+        return DiscordAPI.join(DiscordAPI.movePlayersAsync(uuids, channelId), new ArrayList<>());
     }
 
     public static List<UUID> mutePlayers(@Nonnull List<UUID> uuids) {
-        MutablePair<ResultType, Object> pair = MutablePair.of(ResultType.UUID_LIST, new ArrayList<>());
-        int id = generator++;
-        DiscordAPI.results.put(id, pair);
-        final String[] msg = {"mute"};
-        uuids.forEach(uuid -> msg[0] += ":" + uuid.toString());
-        DiscordAPI.publish(id, msg[0]);
-        try {
-            synchronized (pair) {
-                pair.wait(DiscordAPI.TIMEOUT);
-            }
-        } catch (Exception ignored) {
-        }
-        return (List<UUID>) pair.getRight();
+        return DiscordAPI.join(DiscordAPI.mutePlayersAsync(uuids), new ArrayList<>());
     }
 
     public static List<UUID> unmutePlayers(@Nonnull List<UUID> uuids) {
-        MutablePair<ResultType, Object> pair = MutablePair.of(ResultType.UUID_LIST, new ArrayList<>());
-        int id = generator++;
-        DiscordAPI.results.put(id, pair);
-        final String[] msg = {"unmute"};
-        uuids.forEach(uuid -> msg[0] += ":" + uuid.toString());
-        DiscordAPI.publish(id, msg[0]);
-        try {
-            synchronized (pair) {
-                pair.wait(DiscordAPI.TIMEOUT);
-            }
-        } catch (Exception ignored) {
-        }
-        return (List<UUID>) pair.getRight();
+        return DiscordAPI.join(DiscordAPI.unmutePlayersAsync(uuids), new ArrayList<>());
     }
 
     public static boolean isConnected(@Nonnull UUID player) {
-        MutablePair<ResultType, Object> pair = MutablePair.of(ResultType.BOOLEAN, false);
-        int id = generator++;
-        DiscordAPI.results.put(id, pair);
-        DiscordAPI.publish(id, "isconnected:" + player.toString());
-        try {
-            synchronized (pair) {
-                pair.wait(DiscordAPI.TIMEOUT);
-            }
-        } catch (Exception ignored) {
-        }
-        return (boolean) pair.getRight();
+        return DiscordAPI.join(DiscordAPI.isConnectedAsync(player), false);
     }
 
     public static List<UUID> kickPlayers(@Nonnull List<UUID> uuids) {
-        MutablePair<ResultType, Object> pair = MutablePair.of(ResultType.UUID_LIST, new ArrayList<>());
-        int id = generator++;
-        DiscordAPI.results.put(id, pair);
-        final String[] msg = {"kick"};
-        uuids.forEach(uuid -> msg[0] += ":" + uuid.toString());
-        DiscordAPI.publish(id, msg[0]);
-        try {
-            synchronized (pair) {
-                pair.wait(DiscordAPI.TIMEOUT);
-            }
-        } catch (Exception ignored) {
-        }
-        return (List<UUID>) pair.getRight();
-    }
-
-    private enum ResultType {
-        UUID_LIST,
-        BOOLEAN,
-        LONG
-    }
-
-    private static class DiscordConsumer implements IPacketsReceiver {
-        @Override
-        public void receive(String channel, String packet) {
-            String[] args = packet.split("/");
-            if (!args[0].equals(SamaGamesAPI.get().getServerName()))
-                return;
-            int id = Integer.parseInt(args[1]);
-            SamaGamesAPI.get().getPlugin().getLogger().info("[DiscordAPI] Received packet " + id + " with content: " + packet);
-            MutablePair<ResultType, Object> result = DiscordAPI.results.get(id);
-            DiscordAPI.results.remove(id);
-            if (args[1].equals("ERROR")) {
-                SamaGamesAPI.get().getPlugin().getLogger().severe(args.length > 2 ? "[DiscordAPI] Error : " + args[2] + "(packet = " + packet + ")" : "[DiscordAPI] Error : " + "Unknown" + "(packet = " + packet + ")");
-            } else {
-                String[] content = args[2].split(":");
-                switch (result.getLeft()) {
-                    case UUID_LIST:
-                        List<UUID> uuid = (List<UUID>) result.getRight();
-                        for (int i = 1; i < content.length; i++) {
-                            if (content[i].equals("ERROR")) {
-                                SamaGamesAPI.get().getPlugin().getLogger().severe("[DiscordAPI] Error : " + args[2] + "(packet = " + packet + ")");
-                                continue;
-                            }
-                            uuid.add(UUID.fromString(content[i]));
-                        }
-                        break;
-                    case LONG:
-                        result.setRight(Long.parseLong(content[0]));
-                        break;
-                    case BOOLEAN:
-                        result.setRight(content[0].equalsIgnoreCase("OK") || content[0].equalsIgnoreCase("true"));
-                        break;
-                    default:
-                        break;
-                }
-            }
-            synchronized (result) {
-                result.notifyAll();
-            }
-        }
+        return DiscordAPI.join(DiscordAPI.kickPlayersAsync(uuids), new ArrayList<>());
+    }
+
+    private static boolean isSuccess(String[] content) {
+        return content[0].equalsIgnoreCase("OK") || content[0].equalsIgnoreCase("true");
     }
 }
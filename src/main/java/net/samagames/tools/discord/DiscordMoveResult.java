@@ -0,0 +1,91 @@
+package net.samagames.tools.discord;
+
+import java.util.*;
+
+/*
+ * This file is part of SamaGamesAPI.
+ *
+ * SamaGamesAPI is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SamaGamesAPI is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SamaGamesAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class DiscordMoveResult {
+    private final long channelId;
+    private final List<UUID> requested;
+    private final Set<UUID> moved;
+
+    /**
+     * Constructor
+     *
+     * @param channelId Channel the players were moved into, -1 if
+     *                  it could not be created
+     * @param requested Players asked to be moved
+     * @param moved     Players the bot actually moved
+     */
+    public DiscordMoveResult(long channelId, List<UUID> requested, Collection<UUID> moved) {
+        this.channelId = channelId;
+        this.requested = Collections.unmodifiableList(new ArrayList<>(requested));
+        this.moved = Collections.unmodifiableSet(new HashSet<>(moved));
+    }
+
+    /**
+     * Get the channel the players were moved into
+     *
+     * @return Channel ID, -1 if the channel could not be created
+     */
+    public long getChannelId() {
+        return this.channelId;
+    }
+
+    /**
+     * Get if a given player was moved
+     *
+     * @param player Player
+     * @return {@code true} if moved
+     */
+    public boolean isMoved(UUID player) {
+        return this.moved.contains(player);
+    }
+
+    /**
+     * Get the players asked to be moved
+     *
+     * @return List of UUID
+     */
+    public List<UUID> getRequested() {
+        return this.requested;
+    }
+
+    /**
+     * Get the players the bot moved
+     *
+     * @return Set of UUID
+     */
+    public Set<UUID> getMoved() {
+        return this.moved;
+    }
+
+    /**
+     * Get the players the bot could not move
+     *
+     * @return List of UUID
+     */
+    public List<UUID> getFailed() {
+        List<UUID> failed = new ArrayList<>();
+
+        for (UUID player : this.requested)
+            if (!this.moved.contains(player))
+                failed.add(player);
+
+        return failed;
+    }
+}
@@ -8,9 +8,9 @@ import com.mojang.authlib.GameProfile;
 import com.mojang.authlib.properties.Property;
 import net.minecraft.server.v1_12_R1.MinecraftServer;
 import net.samagames.api.SamaGamesAPI;
+import net.samagames.api.redis.ManagedRedis;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import redis.clients.jedis.Jedis;
 
 import java.util.UUID;
 
@@ -61,22 +61,31 @@ public class ProfileLoader {
         UUID id = uuid == null ? parseUUID(getUUID(name)) : parseUUID(uuid);
         GameProfile skinProfile = new GameProfile(UUID.randomUUID(), name);
 
-        try (Jedis jedis = SamaGamesAPI.get().getBungeeResource()) {
-            String json = jedis == null ? null : jedis.get("cacheSkin:" + uuid);
+        ManagedRedis redis = SamaGamesAPI.get().getRedis();
+
+        try {
+            String json = null;
+            boolean redisAvailable = true;
+
+            try {
+                json = redis.get("cacheSkin:" + uuid);
+            } catch (Exception e) {
+                redisAvailable = false;
+            }
+
             GameProfile profile;
 
             if (json == null) {
                 //Requete
                 profile = MinecraftServer.getServer().az().fillProfileProperties(new GameProfile(id, null), true);
 
-                if (jedis != null && profile.getName() != null)//Don't save if didn't got data from mojang
+                if (redisAvailable && profile.getName() != null)//Don't save if didn't got data from mojang
                 {
                     JsonArray jsonArray = new JsonArray();
                     for (Property property : profile.getProperties().values()) {
                         jsonArray.add(new Gson().toJsonTree(property));
                     }
-                    jedis.set("cacheSkin:" + uuid, jsonArray.toString());
-                    jedis.expire("cacheSkin:" + uuid, 172800);//2 jours
+                    redis.setex("cacheSkin:" + uuid, 172800, jsonArray.toString());//2 jours
                 }
                 skinProfile.getProperties().putAll(profile.getProperties());
             } else {